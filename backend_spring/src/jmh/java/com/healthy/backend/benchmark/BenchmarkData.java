@@ -0,0 +1,76 @@
+package com.healthy.backend.benchmark;
+
+import com.healthy.backend.model.Diet;
+import com.healthy.backend.model.Ingredient;
+import com.healthy.backend.model.Recipe;
+import com.healthy.backend.service.RecipeCatalog;
+import com.healthy.backend.service.RecipeCatalogSnapshot;
+import org.mockito.Mockito;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Синтетический каталог для бенчмарков: детерминированный, без БД и Spring-контекста.
+ */
+final class BenchmarkData {
+
+    private static final String[] DIETS = {"Кето", "Веган", "Средиземноморская", "Палео", "Без глютена"};
+    private static final String[] WORDS = {
+            "салат", "суп", "курица", "лосось", "авокадо", "киноа", "омлет", "рис", "гречка", "тофу",
+            "брокколи", "шпинат", "грибы", "индейка", "творог", "ягоды", "овсянка", "чечевица"
+    };
+    private static final String[] DIFFICULTIES = {"EASY", "MEDIUM", "HARD"};
+
+    private BenchmarkData() {
+    }
+
+    static List<Recipe> recipes(int count) {
+
+        SplittableRandom random = new SplittableRandom(42);
+
+        List<Diet> diets = new ArrayList<>();
+        for (int i = 0; i < DIETS.length; i++) {
+            Diet diet = new Diet();
+            diet.setId((long) i + 1);
+            diet.setName(DIETS[i]);
+            diets.add(diet);
+        }
+
+        List<Ingredient> ingredients = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            Ingredient ingredient = new Ingredient(WORDS[i % WORDS.length] + " " + i,
+                    50 + random.nextInt(400), (float) random.nextInt(30),
+                    (float) random.nextInt(30), (float) random.nextInt(60));
+            ingredient.setId((long) i + 1);
+            ingredients.add(ingredient);
+        }
+
+        List<Recipe> recipes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String title = WORDS[random.nextInt(WORDS.length)] + " с " + WORDS[random.nextInt(WORDS.length)] + " " + i;
+            Recipe recipe = new Recipe(title, "Полезный рецепт: " + title,
+                    150 + random.nextInt(700), (float) random.nextInt(50), (float) random.nextInt(40),
+                    (float) random.nextInt(90), "", 5 + random.nextInt(60), DIFFICULTIES[i % DIFFICULTIES.length]);
+            recipe.setId((long) i + 1);
+            recipe.setDiet(diets.get(i % diets.size()));
+
+            List<Ingredient> own = new ArrayList<>();
+            for (int k = 0, n = 3 + random.nextInt(6); k < n; k++) {
+                own.add(ingredients.get(random.nextInt(ingredients.size())));
+            }
+            recipe.setIngredients(own);
+            recipes.add(recipe);
+        }
+        return recipes;
+    }
+
+    // Каталог-заглушка, всегда отдающий готовый снимок
+    static RecipeCatalog catalog(RecipeCatalogSnapshot snapshot) {
+        RecipeCatalog catalog = Mockito.mock(RecipeCatalog.class);
+        Mockito.when(catalog.snapshot()).thenReturn(snapshot);
+        Mockito.when(catalog.version()).thenReturn(snapshot.getVersion());
+        return catalog;
+    }
+}
@@ -0,0 +1,50 @@
+package com.healthy.backend.benchmark;
+
+import com.healthy.backend.entity.User;
+import com.healthy.backend.security.JwtUtil;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Field;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Выпуск и разбор JWT (HS256).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtBenchmark {
+
+    private JwtUtil jwtUtil;
+    private User user;
+    private String token;
+
+    @Setup
+    public void setUp() throws ReflectiveOperationException {
+        jwtUtil = new JwtUtil();
+        ReflectionTestUtils.setField(jwtUtil, "secret", "MySuperStrongSecretKey1234567890!@#SuperSecureJWTKeyForApp2025");
+        ReflectionTestUtils.setField(jwtUtil, "expiration", 86_400_000L);
+        jwtUtil.init();
+
+        user = new User("Бенчмарк", "bench@healthy.com", "x", "USER");
+        Field id = User.class.getDeclaredField("id");
+        id.setAccessible(true);
+        id.set(user, 42L);
+
+        token = jwtUtil.generateToken(user);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtil.generateToken(user);
+    }
+
+    @Benchmark
+    public String extractEmail() {
+        return jwtUtil.extractEmail(token);
+    }
+}
@@ -0,0 +1,53 @@
+package com.healthy.backend.benchmark;
+
+import com.healthy.backend.dto.GeneratedMealPlan;
+import com.healthy.backend.dto.MealPlanRequest;
+import com.healthy.backend.dto.PlannedDay;
+import com.healthy.backend.service.MealPlanGenerator;
+import com.healthy.backend.service.RecipeCatalogSnapshot;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Планы питания: генерация недели под цели и подсчёт калорий готового плана.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MealPlanBenchmark {
+
+    private MealPlanGenerator generator;
+    private GeneratedMealPlan month;
+    private long seed;
+
+    @Setup
+    public void setUp() {
+        RecipeCatalogSnapshot snapshot = RecipeCatalogSnapshot.of(1, BenchmarkData.recipes(1000));
+        generator = new MealPlanGenerator(BenchmarkData.catalog(snapshot));
+        month = generator.generate(new MealPlanRequest(MealPlanGenerator.MAX_DAYS, 2000, 120f, 70f, 200f, null, 1L));
+    }
+
+    @Benchmark
+    public GeneratedMealPlan generateWeek() {
+        return generator.generate(new MealPlanRequest(7, 2000, 120f, 70f, 200f, null, seed++));
+    }
+
+    @Benchmark
+    public GeneratedMealPlan generateWeekForDiet() {
+        return generator.generate(new MealPlanRequest(7, 1800, null, null, null, "Кето", seed++));
+    }
+
+    // Калорийность плана по карточкам рецептов (как считает клиентский экран плана)
+    @Benchmark
+    public long totalCalories() {
+        long total = 0;
+        for (PlannedDay day : month.days()) {
+            total += day.breakfast().calories() + day.lunch().calories() + day.dinner().calories();
+        }
+        return total;
+    }
+}
@@ -0,0 +1,54 @@
+package com.healthy.backend.benchmark;
+
+import com.healthy.backend.model.Recipe;
+import com.healthy.backend.service.RecipeCatalogSnapshot;
+import com.healthy.backend.service.RecipeSearchIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Поиск по каталогу: полнотекстовый индекс и фильтр снимка (подстрока + диета).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RecipeSearchBenchmark {
+
+    @Param({"1000", "10000"})
+    public int recipes;
+
+    private RecipeCatalogSnapshot snapshot;
+    private RecipeSearchIndex searchIndex;
+
+    @Setup
+    public void setUp() {
+        snapshot = RecipeCatalogSnapshot.of(1, BenchmarkData.recipes(recipes));
+        searchIndex = new RecipeSearchIndex(BenchmarkData.catalog(snapshot));
+        searchIndex.onCatalogRebuilt(snapshot);
+    }
+
+    @Benchmark
+    public List<Recipe> fullTextSearch() {
+        return searchIndex.search("лосось авокадо", 20);
+    }
+
+    @Benchmark
+    public List<Recipe> fullTextPrefix() {
+        return searchIndex.search("гре", 20);
+    }
+
+    @Benchmark
+    public List<Recipe> filterByTitleAndDiet() {
+        return snapshot.filter("салат", "Кето");
+    }
+
+    @Benchmark
+    public RecipeCatalogSnapshot rebuildSnapshot() {
+        return RecipeCatalogSnapshot.of(2, snapshot.getRecipes());
+    }
+}
@@ -0,0 +1,46 @@
+package com.healthy.backend.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.healthy.backend.dto.RecipeSummary;
+import com.healthy.backend.model.Recipe;
+import com.healthy.backend.service.RecipeCatalogSnapshot;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson: список рецептов с ингредиентами и те же рецепты в виде карточек.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RecipeSerializationBenchmark {
+
+    @Param({"100", "1000"})
+    public int recipes;
+
+    private ObjectMapper objectMapper;
+    private List<Recipe> entities;
+    private List<RecipeSummary> summaries;
+
+    @Setup
+    public void setUp() {
+        objectMapper = new ObjectMapper().findAndRegisterModules();
+        entities = BenchmarkData.recipes(recipes);
+        summaries = RecipeCatalogSnapshot.of(1, entities).getSummaries();
+    }
+
+    @Benchmark
+    public byte[] recipesWithIngredients() throws Exception {
+        return objectMapper.writeValueAsBytes(entities);
+    }
+
+    @Benchmark
+    public byte[] recipeSummaries() throws Exception {
+        return objectMapper.writeValueAsBytes(summaries);
+    }
+}
@@ -0,0 +1,29 @@
+package com.healthy.backend.config;
+
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.task.SimpleAsyncTaskExecutorBuilder;
+import org.springframework.boot.task.ThreadPoolTaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.AsyncTaskExecutor;
+
+/**
+ * Общий пул задач приложения (продолжения после хэширования паролей, асинхронные MVC-ответы).
+ * Spring Boot не создаёт его сам: пулы брокера WebSocket уже являются бинами Executor.
+ * Настройки — как у автоконфигурации: spring.task.execution.*, в профиле virtual-threads — виртуальные потоки.
+ */
+@Configuration
+public class TaskExecutionConfig {
+
+    @Bean(name = TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME)
+    public AsyncTaskExecutor applicationTaskExecutor(Environment environment,
+                                                     ThreadPoolTaskExecutorBuilder threadPoolBuilder,
+                                                     SimpleAsyncTaskExecutorBuilder virtualThreadsBuilder) {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            return virtualThreadsBuilder.build();
+        }
+        return threadPoolBuilder.build();
+    }
+}
@@ -0,0 +1,85 @@
+package com.healthy.backend.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Следит за пиннингом виртуальных потоков (блокировка внутри synchronized / native),
+ * когда включён режим виртуальных потоков. Источник — JFR-событие jdk.VirtualThreadPinned:
+ * каждое событие дольше порога попадает в таймер jvm.threads.virtual.pinned,
+ * а в лог — не чаще раза в секунду, со стеком места блокировки.
+ */
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadPinningMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadPinningMonitor.class);
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int STACK_FRAMES = 8;
+    private static final long LOG_INTERVAL_NANOS = 1_000_000_000L;
+
+    private final Timer pinned;
+    private final Duration threshold;
+    private final AtomicLong lastLogged = new AtomicLong();
+
+    private RecordingStream stream;
+
+    public VirtualThreadPinningMonitor(MeterRegistry meterRegistry,
+                                       @Value("${virtual-threads.pinning.threshold-ms:20}") long thresholdMs) {
+        this.threshold = Duration.ofMillis(thresholdMs);
+        this.pinned = Timer.builder("jvm.threads.virtual.pinned")
+                .description("Виртуальные потоки, закреплённые за несущим потоком дольше порога")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        stream = new RecordingStream();
+        stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        stream.onEvent(PINNED_EVENT, this::onPinned);
+        stream.startAsync();
+        log.info("Режим виртуальных потоков: отслеживается пиннинг дольше {} мс", threshold.toMillis());
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    private void onPinned(RecordedEvent event) {
+        pinned.record(event.getDuration());
+
+        long now = System.nanoTime();
+        long last = lastLogged.get();
+        if (now - last < LOG_INTERVAL_NANOS || !lastLogged.compareAndSet(last, now)) {
+            return;
+        }
+
+        List<RecordedFrame> frames = event.getStackTrace() == null ? List.of() : event.getStackTrace().getFrames();
+        String where = frames.stream()
+                .limit(STACK_FRAMES)
+                .map(f -> f.getMethod().getType().getName() + "." + f.getMethod().getName() + ":" + f.getLineNumber())
+                .collect(Collectors.joining("\n    at "));
+
+        log.warn("Виртуальный поток закреплён {} мс:\n    at {}", event.getDuration().toMillis(), where);
+    }
+}
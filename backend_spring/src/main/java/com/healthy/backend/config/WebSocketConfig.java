@@ -1,18 +1,32 @@
 package com.healthy.backend.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
 
 @Configuration
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    private final int outboundThreads;
+    private final int outboundQueueCapacity;
+
+    public WebSocketConfig(@Value("${ws.outbound.threads:4}") int outboundThreads,
+                           @Value("${ws.outbound.queue-capacity:1000}") int outboundQueueCapacity) {
+        this.outboundThreads = outboundThreads;
+        this.outboundQueueCapacity = outboundQueueCapacity;
+    }
+
+    // Исходящий канал многопоточный: без сохранения порядка кадры одной сессии обгоняют друг друга
     @Override
     public void configureMessageBroker(MessageBrokerRegistry registry) {
         registry.enableSimpleBroker("/topic");
+        registry.setPreservePublishOrder(true);
     }
 
     @Override
@@ -21,4 +35,20 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
                 .setAllowedOriginPatterns("*")
                 .withSockJS();
     }
+
+    // Рассылка клиентам: фиксированный пул и ограниченная очередь вместо пула по умолчанию
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.taskExecutor()
+                .corePoolSize(outboundThreads)
+                .maxPoolSize(outboundThreads)
+                .queueCapacity(outboundQueueCapacity);
+    }
+
+    // Медленный клиент не должен копить кадры бесконечно — сессия закрывается по лимитам
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        registration.setSendTimeLimit(10_000)
+                .setSendBufferSizeLimit(512 * 1024);
+    }
 }
@@ -1,17 +1,29 @@
 package com.healthy.backend.controller;
 
+import com.healthy.backend.dto.NightlyJobStatus;
+import com.healthy.backend.dto.NutritionRecomputeResult;
+import com.healthy.backend.dto.RecipeImportReport;
 import com.healthy.backend.entity.User;
 import com.healthy.backend.exception.BadRequestException;
 import com.healthy.backend.exception.NotFoundException;
+import com.healthy.backend.model.Ingredient;
 import com.healthy.backend.model.Recipe;
 import com.healthy.backend.repository.UserRepository;
-import com.healthy.backend.repository.RecipeRepository;
-import com.healthy.backend.security.JwtUtil;
+import com.healthy.backend.security.AuthenticatedUser;
+import com.healthy.backend.service.NightlyMealPlanJob;
+import com.healthy.backend.service.NutritionEngine;
+import com.healthy.backend.service.RecipeCatalog;
+import com.healthy.backend.service.RecipeImportService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.time.LocalDate;
 import java.util.List;
 
 @Tag(name = "Администратор API", description = "Управление пользователями и рецептами")
@@ -21,30 +33,34 @@ import java.util.List;
 public class AdminController {
 
     private final UserRepository userRepository;
-    private final RecipeRepository recipeRepository;
-    private final JwtUtil jwtUtil;
+    private final RecipeCatalog recipeCatalog;
+    private final NightlyMealPlanJob nightlyMealPlanJob;
+    private final RecipeImportService recipeImportService;
+    private final NutritionEngine nutritionEngine;
 
     public AdminController(UserRepository userRepository,
-                           RecipeRepository recipeRepository,
-                           JwtUtil jwtUtil) {
+                           RecipeCatalog recipeCatalog,
+                           NightlyMealPlanJob nightlyMealPlanJob,
+                           RecipeImportService recipeImportService,
+                           NutritionEngine nutritionEngine) {
         this.userRepository = userRepository;
-        this.recipeRepository = recipeRepository;
-        this.jwtUtil = jwtUtil;
+        this.recipeCatalog = recipeCatalog;
+        this.nightlyMealPlanJob = nightlyMealPlanJob;
+        this.recipeImportService = recipeImportService;
+        this.nutritionEngine = nutritionEngine;
     }
 
+    // Роль уже проверена JwtAuthenticationFilter по claims токена — без запроса в БД
     private void checkAdmin(String authHeader) {
 
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
             throw new BadRequestException("Отсутствует токен");
         }
 
-        String token = authHeader.replace("Bearer ", "");
-        String email = jwtUtil.extractEmail(token);
+        AuthenticatedUser user = AuthenticatedUser.current()
+                .orElseThrow(() -> new BadRequestException("Недействительный токен"));
 
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new NotFoundException("Пользователь не найден"));
-
-        if (!"ADMIN".equals(user.getRole())) {
+        if (!user.isAdmin()) {
             throw new BadRequestException("Нет прав администратора");
         }
     }
@@ -55,7 +71,19 @@ public class AdminController {
     public Recipe addRecipe(@RequestHeader("Authorization") String auth,
                             @RequestBody Recipe recipe) {
         checkAdmin(auth);
-        return recipeRepository.save(recipe);
+        return recipeCatalog.save(recipe);
+    }
+
+    @Operation(summary = "Массовый импорт рецептов из JSON-массива или CSV (только админ)")
+    @PostMapping(value = "/recipes/import", consumes = {MediaType.APPLICATION_JSON_VALUE, RecipeImportService.CSV})
+    public RecipeImportReport importRecipes(@RequestHeader("Authorization") String auth,
+                                            HttpServletRequest request) throws IOException {
+        checkAdmin(auth);
+
+        // Тело читается потоком, без буферизации всего файла в памяти
+        boolean csv = MediaType.parseMediaType(request.getContentType())
+                .isCompatibleWith(MediaType.parseMediaType(RecipeImportService.CSV));
+        return recipeImportService.importRecipes(request.getInputStream(), csv);
     }
 
     @Operation(summary = "Удалить рецепт (только админ)")
@@ -65,12 +93,23 @@ public class AdminController {
                              @PathVariable Long id) {
 
         checkAdmin(auth);
+        recipeCatalog.delete(id);
+    }
 
-        if (!recipeRepository.existsById(id)) {
-            throw new NotFoundException("Recipe not found");
-        }
+    @Operation(summary = "Изменить ингредиент и пересчитать КБЖУ рецептов с ним (только админ)")
+    @PutMapping("/ingredients/{id}")
+    public NutritionRecomputeResult updateIngredient(@RequestHeader("Authorization") String auth,
+                                                     @PathVariable Long id,
+                                                     @RequestBody Ingredient ingredient) {
+        checkAdmin(auth);
+        return nutritionEngine.updateIngredient(id, ingredient);
+    }
 
-        recipeRepository.deleteById(id);
+    @Operation(summary = "Пересчитать КБЖУ всех рецептов по граммовкам ингредиентов (только админ)")
+    @PostMapping("/nutrition/recompute")
+    public NutritionRecomputeResult recomputeNutrition(@RequestHeader("Authorization") String auth) {
+        checkAdmin(auth);
+        return nutritionEngine.recomputeAll();
     }
 
     @Operation(summary = "Получить список пользователей (админ)")
@@ -93,4 +132,24 @@ public class AdminController {
 
         userRepository.deleteById(id);
     }
+
+    @Operation(summary = "Статус ночной генерации планов питания (админ)")
+    @GetMapping("/meal-plans/nightly")
+    public NightlyJobStatus nightlyStatus(@RequestHeader("Authorization") String auth) {
+        checkAdmin(auth);
+        return nightlyMealPlanJob.status();
+    }
+
+    @Operation(summary = "Запустить генерацию планов питания на дату (админ, по умолчанию — завтра)")
+    @PostMapping("/meal-plans/nightly")
+    public NightlyJobStatus startNightly(@RequestHeader("Authorization") String auth,
+                                         @RequestParam(required = false)
+                                         @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        checkAdmin(auth);
+
+        if (!nightlyMealPlanJob.startAsync(date != null ? date : LocalDate.now().plusDays(1))) {
+            throw new BadRequestException("Генерация планов уже выполняется");
+        }
+        return nightlyMealPlanJob.status();
+    }
 }
@@ -1,8 +1,7 @@
 package com.healthy.backend.controller;
 
-import com.healthy.backend.exception.NotFoundException;
 import com.healthy.backend.model.Recipe;
-import com.healthy.backend.repository.RecipeRepository;
+import com.healthy.backend.service.RecipeCatalog;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Controller;
@@ -17,7 +16,7 @@ import java.util.List;
 @PreAuthorize("hasAuthority('ADMIN')")
 public class AdminRecipeController {
 
-    private final RecipeRepository recipeRepository;
+    private final RecipeCatalog recipeCatalog;
 
     @GetMapping
     public String listRecipes(
@@ -25,27 +24,7 @@ public class AdminRecipeController {
             @RequestParam(required = false) String diet,
             Model model) {
 
-        List<Recipe> recipes;
-
-        if (search != null && !search.isBlank() &&
-                diet != null && !diet.isBlank()) {
-
-            recipes = recipeRepository
-                    .findByTitleContainingIgnoreCaseAndDiet_NameIgnoreCase(search, diet);
-
-        } else if (search != null && !search.isBlank()) {
-
-            recipes = recipeRepository
-                    .findByTitleContainingIgnoreCase(search);
-
-        } else if (diet != null && !diet.isBlank()) {
-
-            recipes = recipeRepository
-                    .findByDiet_NameIgnoreCase(diet);
-
-        } else {
-            recipes = recipeRepository.findAll();
-        }
+        List<Recipe> recipes = recipeCatalog.find(search, diet);
 
         model.addAttribute("recipes", recipes);
         model.addAttribute("recipe", new Recipe());
@@ -57,18 +36,13 @@ public class AdminRecipeController {
 
     @PostMapping("/add")
     public String addRecipe(@ModelAttribute Recipe recipe) {
-        recipeRepository.save(recipe);
+        recipeCatalog.save(recipe);
         return "redirect:/admin/recipes";
     }
 
     @GetMapping("/delete/{id}")
     public String deleteRecipe(@PathVariable Long id) {
-
-        if (!recipeRepository.existsById(id)) {
-            throw new NotFoundException("Recipe not found");
-        }
-
-        recipeRepository.deleteById(id);
+        recipeCatalog.delete(id);
         return "redirect:/admin/recipes";
     }
 }
\ No newline at end of file
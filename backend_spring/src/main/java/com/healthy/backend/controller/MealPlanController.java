@@ -0,0 +1,79 @@
+package com.healthy.backend.controller;
+
+import com.healthy.backend.dto.GeneratedMealPlan;
+import com.healthy.backend.dto.MealPlanCalendar;
+import com.healthy.backend.dto.MealPlanRequest;
+import com.healthy.backend.exception.BadRequestException;
+import com.healthy.backend.security.AuthenticatedUser;
+import com.healthy.backend.service.MealPlanCalendarService;
+import com.healthy.backend.service.MealPlanGenerator;
+import com.healthy.backend.service.ShoppingListService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+
+@Tag(name = "Планы питания", description = "Генерация и просмотр планов питания")
+@RestController
+@RequestMapping("/api/meal-plans")
+@CrossOrigin(origins = "*")
+public class MealPlanController {
+
+    private final MealPlanGenerator mealPlanGenerator;
+    private final MealPlanCalendarService mealPlanCalendarService;
+    private final ShoppingListService shoppingListService;
+
+    public MealPlanController(MealPlanGenerator mealPlanGenerator,
+                              MealPlanCalendarService mealPlanCalendarService,
+                              ShoppingListService shoppingListService) {
+        this.mealPlanGenerator = mealPlanGenerator;
+        this.mealPlanCalendarService = mealPlanCalendarService;
+        this.shoppingListService = shoppingListService;
+    }
+
+    @Operation(summary = "Календарь планов текущего пользователя за период (по умолчанию — текущий месяц)")
+    @GetMapping
+    public MealPlanCalendar calendar(@RequestParam(required = false)
+                                     @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                     @RequestParam(required = false)
+                                     @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+
+        LocalDate start = from != null ? from : LocalDate.now().withDayOfMonth(1);
+        LocalDate end = to != null ? to : start.plusMonths(1).minusDays(1);
+        return mealPlanCalendarService.calendar(currentUserId(), start, end);
+    }
+
+    @Operation(summary = "Список покупок по планам за период (по умолчанию — текущая неделя), построчно NDJSON")
+    @GetMapping(value = "/shopping-list", produces = "application/x-ndjson")
+    public void shoppingList(@RequestParam(required = false)
+                             @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                             @RequestParam(required = false)
+                             @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                             HttpServletResponse response) throws IOException {
+
+        Long userId = currentUserId();
+        LocalDate start = from != null ? from : LocalDate.now().with(DayOfWeek.MONDAY);
+        LocalDate end = to != null ? to : start.plusDays(6);
+
+        response.setContentType("application/x-ndjson");
+        response.setCharacterEncoding("UTF-8");
+        shoppingListService.writeNdjson(userId, start, end, response.getOutputStream());
+    }
+
+    @Operation(summary = "Сгенерировать план питания под цели по калориям и БЖУ")
+    @PostMapping("/generate")
+    public GeneratedMealPlan generate(@RequestBody MealPlanRequest request) {
+        return mealPlanGenerator.generate(request);
+    }
+
+    private static Long currentUserId() {
+        return AuthenticatedUser.current()
+                .map(AuthenticatedUser::id)
+                .orElseThrow(() -> new BadRequestException("Требуется авторизация"));
+    }
+}
@@ -0,0 +1,113 @@
+package com.healthy.backend.controller;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.healthy.backend.dto.ProgressEntry;
+import com.healthy.backend.dto.ProgressSeries;
+import com.healthy.backend.dto.ProgressSummary;
+import com.healthy.backend.exception.BadRequestException;
+import com.healthy.backend.model.UserProgress;
+import com.healthy.backend.security.AuthenticatedUser;
+import com.healthy.backend.service.ProgressIngestService;
+import com.healthy.backend.service.UserProgressService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+@Tag(name = "Прогресс", description = "Вес, калории и скользящие средние")
+@RestController
+@RequestMapping("/api/progress")
+@CrossOrigin(origins = "*")
+public class ProgressController {
+
+    private final UserProgressService userProgressService;
+    private final ProgressIngestService progressIngestService;
+    private final ObjectMapper objectMapper;
+
+    public ProgressController(UserProgressService userProgressService,
+                              ProgressIngestService progressIngestService,
+                              ObjectMapper objectMapper) {
+        this.userProgressService = userProgressService;
+        this.progressIngestService = progressIngestService;
+        this.objectMapper = objectMapper;
+    }
+
+    @Operation(summary = "Добавить запись прогресса текущего пользователя")
+    @PostMapping
+    public UserProgress add(@RequestBody ProgressEntry entry) {
+        return userProgressService.record(currentUserId(), entry);
+    }
+
+    // 📥 Для частых записей с мобильных клиентов: одна запись или массив, ответ — после записи
+    // в локальный журнал, в БД записи попадают пачками в фоне
+    @Operation(summary = "Принять одну или несколько записей прогресса (запись в БД — в фоне)")
+    @PostMapping("/ingest")
+    public ResponseEntity<Map<String, Object>> ingest(@RequestBody JsonNode body) {
+
+        List<ProgressEntry> entries = new ArrayList<>();
+        if (body.isArray()) {
+            for (JsonNode node : body) {
+                entries.add(toEntry(node));
+            }
+        } else {
+            entries.add(toEntry(body));
+        }
+
+        long seq = progressIngestService.append(currentUserId(), entries);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(Map.of(
+                "accepted", entries.size(),
+                "seq", seq
+        ));
+    }
+
+    @Operation(summary = "История прогресса текущего пользователя за период (по возрастанию даты)")
+    @GetMapping
+    public List<UserProgress> history(@RequestParam(required = false)
+                                      @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                      @RequestParam(required = false)
+                                      @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return userProgressService.history(currentUserId(), from, to);
+    }
+
+    @Operation(summary = "Ряд для графика: resolution=day, week или month")
+    @GetMapping("/series")
+    public ProgressSeries series(@RequestParam(defaultValue = "day") String resolution,
+                                 @RequestParam(required = false)
+                                 @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                 @RequestParam(required = false)
+                                 @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return userProgressService.series(currentUserId(), resolution, from, to);
+    }
+
+    @Operation(summary = "Средние за 7/30/90 дней: вес, калории, баланс")
+    @GetMapping("/summary")
+    public ProgressSummary summary() {
+        return userProgressService.summary(currentUserId());
+    }
+
+    private ProgressEntry toEntry(JsonNode node) {
+        if (!node.isObject()) {
+            throw new BadRequestException("Ожидается объект записи прогресса или массив объектов");
+        }
+        try {
+            return objectMapper.treeToValue(node, ProgressEntry.class);
+        } catch (JsonProcessingException e) {
+            throw new BadRequestException("Некорректная запись прогресса: " + e.getOriginalMessage());
+        }
+    }
+
+    private Long currentUserId() {
+        return AuthenticatedUser.current()
+                .map(AuthenticatedUser::id)
+                .orElseThrow(() -> new BadRequestException("Требуется авторизация"));
+    }
+}
@@ -1,14 +1,34 @@
 package com.healthy.backend.controller;
 
-import com.healthy.backend.exception.NotFoundException;
+import com.healthy.backend.dto.PantryMatch;
+import com.healthy.backend.dto.RecipeFacetPage;
+import com.healthy.backend.dto.RecipePage;
+import com.healthy.backend.dto.RecipeRecommendation;
+import com.healthy.backend.dto.RecipeSummary;
+import com.healthy.backend.exception.BadRequestException;
 import com.healthy.backend.model.Recipe;
-import com.healthy.backend.repository.RecipeRepository;
+import com.healthy.backend.security.AuthenticatedUser;
+import com.healthy.backend.service.IngredientIndex;
+import com.healthy.backend.service.RecipeCatalog;
+import com.healthy.backend.service.RecipeExportService;
+import com.healthy.backend.service.RecipeFacets;
+import com.healthy.backend.service.RecipeJsonCache;
+import com.healthy.backend.service.RecipeRecommender;
+import com.healthy.backend.service.RecipeSearchIndex;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 @Tag(name = "Рецепты", description = "Получение и управление рецептами")
 @RestController
@@ -16,58 +36,211 @@ import java.util.List;
 @CrossOrigin(origins = "*")
 public class RecipeController {
 
-    private final RecipeRepository recipeRepository;
-
-    public RecipeController(RecipeRepository recipeRepository) {
-        this.recipeRepository = recipeRepository;
+    private final RecipeCatalog recipeCatalog;
+    private final RecipeSearchIndex recipeSearchIndex;
+    private final RecipeExportService recipeExportService;
+    private final RecipeJsonCache recipeJsonCache;
+    private final IngredientIndex ingredientIndex;
+    private final RecipeFacets recipeFacets;
+    private final RecipeRecommender recipeRecommender;
+    private final CacheControl cacheControl;
+
+    public static final int MAX_PAGE_SIZE = 100;
+
+    public RecipeController(RecipeCatalog recipeCatalog,
+                            RecipeSearchIndex recipeSearchIndex,
+                            RecipeExportService recipeExportService,
+                            RecipeJsonCache recipeJsonCache,
+                            IngredientIndex ingredientIndex,
+                            RecipeFacets recipeFacets,
+                            RecipeRecommender recipeRecommender,
+                            @Value("${recipes.http.max-age-seconds:30}") long maxAgeSeconds) {
+        this.recipeCatalog = recipeCatalog;
+        this.recipeSearchIndex = recipeSearchIndex;
+        this.recipeExportService = recipeExportService;
+        this.recipeJsonCache = recipeJsonCache;
+        this.ingredientIndex = ingredientIndex;
+        this.recipeFacets = recipeFacets;
+        this.recipeRecommender = recipeRecommender;
+        this.cacheControl = CacheControl.maxAge(maxAgeSeconds, TimeUnit.SECONDS).cachePublic();
     }
 
-    // 🔍 Поиск + фильтрация
+    // 🏷️ Ответы каталога несут ETag от версии каталога: на If-None-Match с тем же тегом
+    // Spring отвечает 304 без сериализации тела, а само тело берётся из снимка без БД
+
+    // 🔍 Поиск + фильтрация (из снимка каталога в памяти).
+    // Весь каталог и выборки по диете отдаются готовыми байтами (gzip, если клиент принимает)
     @GetMapping
-    public List<Recipe> getRecipes(
+    public ResponseEntity<?> getRecipes(
             @RequestParam(required = false) String search,
-            @RequestParam(required = false) String diet) {
+            @RequestParam(required = false) String diet,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+
+        String etag = recipeCatalog.catalogTag();
 
-        if (search != null && !search.isBlank() &&
-                diet != null && !diet.isBlank()) {
+        RecipeJsonCache.Encoded json = search == null || search.isBlank()
+                ? recipeJsonCache.summaries(diet)
+                : null;
 
-            return recipeRepository
-                    .findByTitleContainingIgnoreCaseAndDiet_NameIgnoreCase(search, diet);
+        if (json == null) {
+            return ResponseEntity.ok()
+                    .eTag(etag)
+                    .cacheControl(cacheControl)
+                    .body(recipeCatalog.findSummaries(search, diet));
         }
 
-        if (search != null && !search.isBlank()) {
-            return recipeRepository
-                    .findByTitleContainingIgnoreCase(search);
+        // У каждого кодирования свой сильный ETag
+        boolean gzip = RecipeJsonCache.acceptsGzip(acceptEncoding);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(gzip ? etag + "-gz" : etag)
+                .cacheControl(cacheControl)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                .contentType(MediaType.APPLICATION_JSON);
+
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
         }
+        return response.body(gzip ? json.gzip() : json.identity());
+    }
+
+    // 📄 Keyset-пагинация: следующая страница после рецепта с id = after
+    @GetMapping("/page")
+    public ResponseEntity<RecipePage> getRecipePage(
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "20") int size) {
+
+        String etag = recipeCatalog.catalogTag();
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        List<RecipeSummary> items = recipeCatalog.snapshot().page(after, pageSize);
+
+        Long nextCursor = items.size() < pageSize ? null : items.get(items.size() - 1).id();
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(cacheControl)
+                .body(new RecipePage(items, nextCursor));
+    }
+
+    // 🧮 Фасетный просмотр: рецепты по фильтрам + счётчики по диете, сложности,
+    // времени (time=0-15|16-30|31-60|61+) и калорийности (calories=0-299|300-499|500-699|700+)
+    @GetMapping("/facets")
+    public ResponseEntity<RecipeFacetPage> getFacets(
+            @RequestParam(required = false) String diet,
+            @RequestParam(required = false) String difficulty,
+            @RequestParam(required = false) String time,
+            @RequestParam(required = false) String calories,
+            @RequestParam(defaultValue = "0") int offset,
+            @RequestParam(defaultValue = "20") int limit) {
+
+        String etag = recipeCatalog.catalogTag();
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(cacheControl)
+                .body(recipeFacets.browse(diet, difficulty, time, calories, offset, limit));
+    }
+
+    // Значения сложности для фильтра в каталоге
+    @GetMapping("/difficulties")
+    public ResponseEntity<Map<String, Object>> getDifficulties() {
+        String etag = recipeCatalog.catalogTag();
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(cacheControl)
+                .body(Map.of("difficulties", recipeFacets.difficulties()));
+    }
+
+    // 📤 Выгрузка всего каталога построчно (NDJSON) с постоянным расходом памяти
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    public void exportRecipes(HttpServletResponse response) throws IOException {
+        response.setContentType("application/x-ndjson");
+        response.setCharacterEncoding("UTF-8");
+        recipeExportService.writeNdjson(response.getOutputStream());
+    }
+
+    // 🔎 Полнотекстовый поиск с ранжированием (название, описание, диета, ингредиенты)
+    @GetMapping("/search")
+    public Map<String, Object> searchRecipes(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "20") int limit) {
+
+        List<RecipeSummary> recipes = recipeCatalog.snapshot()
+                .summariesOf(recipeSearchIndex.search(q, limit));
+        return Map.of(
+                "recipes", recipes,
+                "count", recipes.size()
+        );
+    }
 
-        if (diet != null && !diet.isBlank()) {
-            return recipeRepository
-                    .findByDiet_NameIgnoreCase(diet);
+    // 🧺 «Что приготовить из того, что есть»: продукты по id и/или названиям,
+    // maxMissing — сколько ингредиентов рецепта может не хватать
+    @GetMapping("/by-ingredients")
+    public ResponseEntity<Map<String, Object>> recipesByIngredients(
+            @RequestParam(required = false) List<Long> ids,
+            @RequestParam(required = false) List<String> names,
+            @RequestParam(defaultValue = "0") int maxMissing,
+            @RequestParam(defaultValue = "20") int limit) {
+
+        if ((ids == null || ids.isEmpty()) && (names == null || names.isEmpty())) {
+            throw new BadRequestException("Укажите продукты: ids или names");
         }
 
-        return recipeRepository.findAll();
+        String etag = recipeCatalog.catalogTag();
+        List<PantryMatch> recipes = ingredientIndex.match(ids, names, maxMissing, limit);
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(cacheControl)
+                .body(Map.of(
+                        "recipes", recipes,
+                        "count", recipes.size()
+                ));
+    }
+
+    // 🧭 Похожие рецепты для карточки рецепта: готовые K соседей из таблицы в памяти
+    @GetMapping("/{id}/similar")
+    public Map<String, Object> similarRecipes(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "10") int limit) {
+
+        List<RecipeRecommendation> recipes = recipeRecommender.similar(id, limit);
+        return Map.of(
+                "recipes", recipes,
+                "count", recipes.size()
+        );
+    }
+
+    // ⭐ Рекомендации текущему пользователю по истории его планов питания
+    @GetMapping("/recommended")
+    public Map<String, Object> recommendedRecipes(@RequestParam(defaultValue = "20") int limit) {
+
+        Long userId = AuthenticatedUser.current()
+                .map(AuthenticatedUser::id)
+                .orElseThrow(() -> new BadRequestException("Требуется авторизация"));
+
+        List<RecipeRecommendation> recipes = recipeRecommender.recommendFor(userId, limit);
+        return Map.of(
+                "recipes", recipes,
+                "count", recipes.size()
+        );
     }
 
     @PostMapping
     public ResponseEntity<Recipe> createRecipe(@RequestBody Recipe recipe) {
-        Recipe saved = recipeRepository.save(recipe);
+        Recipe saved = recipeCatalog.save(recipe);
         return ResponseEntity.status(HttpStatus.CREATED).body(saved);
     }
 
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteRecipe(@PathVariable Long id) {
-
-        if (!recipeRepository.existsById(id)) {
-            throw new NotFoundException("Recipe not found");
-        }
-
-        recipeRepository.deleteById(id);
+        recipeCatalog.delete(id);
         return ResponseEntity.noContent().build();
     }
 
     @GetMapping("/{id}")
-    public Recipe getRecipeById(@PathVariable Long id) {
-        return recipeRepository.findById(id)
-                .orElseThrow(() -> new NotFoundException("Recipe not found"));
+    public ResponseEntity<Recipe> getRecipeById(@PathVariable Long id) {
+        String etag = recipeCatalog.recipeTag(id);   // тег до тела: тело не может быть старше тега
+        Recipe recipe = recipeCatalog.getById(id);
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(cacheControl)
+                .body(recipe);
     }
-}
\ No newline at end of file
+}
@@ -2,12 +2,13 @@ package com.healthy.backend.controller;
 
 import com.healthy.backend.entity.User;
 import com.healthy.backend.exception.BadRequestException;
-import com.healthy.backend.security.JwtUtil;
+import com.healthy.backend.security.AuthenticatedUser;
 import com.healthy.backend.service.UserService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api/users")
@@ -15,25 +16,22 @@ import java.util.Map;
 public class UserController {
 
     private final UserService userService;
-    private final JwtUtil jwtUtil;
 
-    public UserController(UserService userService, JwtUtil jwtUtil) {
+    public UserController(UserService userService) {
         this.userService = userService;
-        this.jwtUtil = jwtUtil;
     }
 
     // ================= REGISTER =================
     @PostMapping("/register")
-    public ResponseEntity<?> register(@RequestBody User user) {
-        return ResponseEntity.ok(userService.registerUser(user));
+    public CompletableFuture<ResponseEntity<?>> register(@RequestBody User user) {
+        return userService.registerUser(user).thenApply(ResponseEntity::ok);
     }
 
     // ================= LOGIN =================
     @PostMapping("/login")
-    public ResponseEntity<?> login(@RequestBody User user) {
-        return ResponseEntity.ok(
-                userService.login(user.getEmail(), user.getPassword())
-        );
+    public CompletableFuture<ResponseEntity<?>> login(@RequestBody User user) {
+        return userService.login(user.getEmail(), user.getPassword())
+                .thenApply(ResponseEntity::ok);
     }
 
     // ================= CHECK TOKEN =================
@@ -44,23 +42,25 @@ public class UserController {
             throw new BadRequestException("Invalid token format");
         }
 
-        String token = authHeader.replace("Bearer ", "");
-        String email = jwtUtil.extractEmail(token);
+        // Токен уже разобран JwtAuthenticationFilter
+        AuthenticatedUser user = AuthenticatedUser.current()
+                .orElseThrow(() -> new BadRequestException("Invalid token"));
 
         return ResponseEntity.ok(Map.of(
-                "email", email,
+                "email", user.email(),
+                "role", user.role(),
                 "valid", true
         ));
     }
 
     // ================= RESET PASSWORD (по email - твой метод) =================
     @PutMapping("/reset-password")
-    public ResponseEntity<?> resetPassword(
+    public CompletableFuture<ResponseEntity<?>> resetPassword(
             @RequestParam String email,
             @RequestParam String newPassword
     ) {
-        userService.resetPassword(email, newPassword);
-        return ResponseEntity.ok(Map.of("message", "Пароль обновлён"));
+        return userService.resetPassword(email, newPassword)
+                .thenApply(done -> ResponseEntity.ok(Map.of("message", "Пароль обновлён")));
     }
 
     // ================= REQUEST RESET TOKEN =================
@@ -82,13 +82,13 @@ public class UserController {
 
     // ================= RESET PASSWORD BY TOKEN =================
     @PutMapping("/reset-password-by-token")
-    public ResponseEntity<?> resetByToken(
+    public CompletableFuture<ResponseEntity<?>> resetByToken(
             @RequestParam String token,
             @RequestParam String newPassword
     ) {
-        userService.resetPasswordByToken(token, newPassword);
-        return ResponseEntity.ok(Map.of(
-                "message", "Пароль успешно обновлён"
-        ));
+        return userService.resetPasswordByToken(token, newPassword)
+                .thenApply(done -> ResponseEntity.ok(Map.of(
+                        "message", "Пароль успешно обновлён"
+                )));
     }
 }
\ No newline at end of file
@@ -0,0 +1,16 @@
+package com.healthy.backend.dto;
+
+import java.time.LocalDate;
+
+/**
+ * План на один день календаря: id рецептов, сами карточки — в {@link MealPlanCalendar#recipes()}.
+ */
+public record CalendarDay(
+        Long planId,
+        LocalDate date,
+        Integer totalCalories,
+        Long breakfast,
+        Long lunch,
+        Long dinner
+) {
+}
@@ -0,0 +1,7 @@
+package com.healthy.backend.dto;
+
+/**
+ * Значение фасета и число рецептов с ним (с учётом остальных выбранных фильтров).
+ */
+public record FacetCount(String value, int count) {
+}
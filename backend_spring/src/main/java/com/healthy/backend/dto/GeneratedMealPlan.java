@@ -0,0 +1,9 @@
+package com.healthy.backend.dto;
+
+import java.util.List;
+
+/**
+ * Результат генерации: дни плана и итоговое отклонение от целей (чем меньше, тем лучше).
+ */
+public record GeneratedMealPlan(List<PlannedDay> days, double penalty) {
+}
@@ -0,0 +1,17 @@
+package com.healthy.backend.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Планы питания за период: дни ссылаются на рецепты по id,
+ * каждая карточка рецепта передаётся один раз в recipes (id → карточка).
+ */
+public record MealPlanCalendar(
+        LocalDate from,
+        LocalDate to,
+        List<CalendarDay> days,
+        Map<Long, RecipeSummary> recipes
+) {
+}
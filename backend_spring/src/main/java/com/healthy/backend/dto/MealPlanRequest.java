@@ -0,0 +1,17 @@
+package com.healthy.backend.dto;
+
+/**
+ * Параметры генерации плана питания.
+ * Цели задаются на один день; незаданные макронутриенты не учитываются.
+ * seed делает результат воспроизводимым (по умолчанию — случайный).
+ */
+public record MealPlanRequest(
+        Integer days,
+        Integer calories,
+        Float proteins,
+        Float fats,
+        Float carbs,
+        String diet,
+        Long seed
+) {
+}
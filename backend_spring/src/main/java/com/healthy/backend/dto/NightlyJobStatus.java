@@ -0,0 +1,20 @@
+package com.healthy.backend.dto;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * Прогресс и пропускная способность ночной генерации планов питания.
+ */
+public record NightlyJobStatus(
+        boolean running,
+        LocalDate planDate,
+        long usersProcessed,
+        long plansWritten,
+        long skipped,
+        long failed,
+        double plansPerSecond,
+        Instant startedAt,
+        Instant finishedAt
+) {
+}
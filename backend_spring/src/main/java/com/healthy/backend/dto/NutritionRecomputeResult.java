@@ -0,0 +1,14 @@
+package com.healthy.backend.dto;
+
+/**
+ * Итог пересчёта КБЖУ рецептов по ингредиентам.
+ * recipes — сколько рецептов пересчитано, updated — у скольких значения изменились,
+ * incomplete — пропущено из-за ингредиентов без граммовки или без данных.
+ */
+public record NutritionRecomputeResult(
+        int recipes,
+        int updated,
+        int incomplete,
+        long durationMs
+) {
+}
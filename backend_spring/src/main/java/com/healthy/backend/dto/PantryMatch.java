@@ -0,0 +1,16 @@
+package com.healthy.backend.dto;
+
+import java.util.List;
+
+/**
+ * Рецепт, подобранный по продуктам пользователя:
+ * matched из total ингредиентов рецепта уже есть, missing — чего не хватает.
+ */
+public record PantryMatch(
+        RecipeSummary recipe,
+        int matched,
+        int total,
+        double coverage,
+        List<String> missing
+) {
+}
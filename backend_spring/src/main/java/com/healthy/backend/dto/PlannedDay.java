@@ -0,0 +1,16 @@
+package com.healthy.backend.dto;
+
+/**
+ * Один день сгенерированного плана: три приёма пищи и итоговые нутриенты.
+ */
+public record PlannedDay(
+        int day,
+        RecipeSummary breakfast,
+        RecipeSummary lunch,
+        RecipeSummary dinner,
+        int totalCalories,
+        float proteins,
+        float fats,
+        float carbs
+) {
+}
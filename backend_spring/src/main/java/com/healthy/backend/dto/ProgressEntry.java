@@ -0,0 +1,14 @@
+package com.healthy.backend.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Запись прогресса от клиента; date по умолчанию — сегодня.
+ */
+public record ProgressEntry(
+        LocalDate date,
+        Float weight,
+        Integer caloriesConsumed,
+        Integer caloriesBurned
+) {
+}
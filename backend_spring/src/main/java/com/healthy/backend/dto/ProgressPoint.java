@@ -0,0 +1,19 @@
+package com.healthy.backend.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Точка графика прогресса: день, неделя (с понедельника) или месяц (с 1-го числа).
+ * days — сколько дней с записями попало в точку; вес — среднее, минимум и максимум,
+ * калории — сумма за период. null — веса за период нет.
+ */
+public record ProgressPoint(
+        LocalDate date,
+        int days,
+        Float weight,
+        Float weightMin,
+        Float weightMax,
+        long caloriesConsumed,
+        long caloriesBurned
+) {
+}
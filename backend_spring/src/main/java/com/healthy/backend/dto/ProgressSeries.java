@@ -0,0 +1,15 @@
+package com.healthy.backend.dto;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Ряд прогресса за [from, to] с разрешением day, week или month.
+ */
+public record ProgressSeries(
+        String resolution,
+        LocalDate from,
+        LocalDate to,
+        List<ProgressPoint> points
+) {
+}
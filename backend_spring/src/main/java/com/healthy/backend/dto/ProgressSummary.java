@@ -0,0 +1,15 @@
+package com.healthy.backend.dto;
+
+import java.time.LocalDate;
+
+/**
+ * Скользящие средние прогресса пользователя на дату asOf.
+ */
+public record ProgressSummary(
+        Long userId,
+        LocalDate asOf,
+        ProgressWindow last7,
+        ProgressWindow last30,
+        ProgressWindow last90
+) {
+}
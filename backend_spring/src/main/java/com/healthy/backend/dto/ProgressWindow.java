@@ -0,0 +1,16 @@
+package com.healthy.backend.dto;
+
+/**
+ * Средние значения прогресса за последние days дней.
+ * Калории усредняются по дням с записями, вес — по записям с весом;
+ * null — данных за период нет.
+ */
+public record ProgressWindow(
+        int days,
+        int daysLogged,
+        Double weight,
+        Double caloriesConsumed,
+        Double caloriesBurned,
+        Double netBalance
+) {
+}
@@ -0,0 +1,15 @@
+package com.healthy.backend.dto;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Страница каталога с фасетами: total — сколько рецептов подходит под фильтры,
+ * facets — счётчики по диете, сложности, времени приготовления и калорийности.
+ */
+public record RecipeFacetPage(
+        List<RecipeSummary> items,
+        int total,
+        Map<String, List<FacetCount>> facets
+) {
+}
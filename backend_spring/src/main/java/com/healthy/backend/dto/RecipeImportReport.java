@@ -0,0 +1,21 @@
+package com.healthy.backend.dto;
+
+import java.util.List;
+
+/**
+ * Итог массового импорта: сколько строк прочитано и записано, и ошибки по строкам
+ * (номер строки считается с 1; в отчёт попадают первые MAX_ERRORS ошибок).
+ */
+public record RecipeImportReport(
+        long rows,
+        long imported,
+        long failed,
+        long durationMs,
+        List<RowError> errors
+) {
+
+    public static final int MAX_ERRORS = 1000;
+
+    public record RowError(long row, String message) {
+    }
+}
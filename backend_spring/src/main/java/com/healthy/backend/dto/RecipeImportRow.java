@@ -0,0 +1,27 @@
+package com.healthy.backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+/**
+ * Строка массового импорта рецептов (элемент JSON-массива или строка CSV).
+ * Диета и ингредиенты задаются по названию; в CSV ингредиенты перечисляются через «;».
+ */
+public record RecipeImportRow(
+        String title,
+        String description,
+        Integer calories,
+        Float proteins,
+        Float fats,
+        Float carbs,
+        String imageUrl,
+        Integer cookingTime,
+        String difficulty,
+        String diet,
+        @JsonProperty("ingredients")
+        @JsonFormat(with = JsonFormat.Feature.ACCEPT_SINGLE_VALUE_AS_ARRAY)
+        List<String> ingredients
+) {
+}
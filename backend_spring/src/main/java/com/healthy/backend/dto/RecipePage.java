@@ -0,0 +1,10 @@
+package com.healthy.backend.dto;
+
+import java.util.List;
+
+/**
+ * Страница каталога при keyset-пагинации.
+ * nextCursor — id последнего рецепта страницы; null, если страниц больше нет.
+ */
+public record RecipePage(List<RecipeSummary> items, Long nextCursor) {
+}
@@ -0,0 +1,11 @@
+package com.healthy.backend.dto;
+
+/**
+ * Рекомендованный рецепт: score — сходство с исходным рецептом
+ * (или сумма сходств с рецептами из истории планов пользователя).
+ */
+public record RecipeRecommendation(
+        RecipeSummary recipe,
+        double score
+) {
+}
@@ -0,0 +1,53 @@
+package com.healthy.backend.dto;
+
+import com.healthy.backend.model.Ingredient;
+import com.healthy.backend.model.Recipe;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Облегчённое представление рецепта для списков (карточка в каталоге):
+ * вместо сущностей Diet и Ingredient — только их названия.
+ * Полный рецепт с ингредиентами отдаёт GET /api/recipes/{id}.
+ */
+public record RecipeSummary(
+        Long id,
+        String title,
+        String description,
+        Integer calories,
+        Float proteins,
+        Float fats,
+        Float carbs,
+        String imageUrl,
+        Integer cookingTime,
+        String difficulty,
+        String diet,
+        List<String> ingredientNames
+) {
+
+    public static RecipeSummary of(Recipe recipe) {
+
+        List<String> ingredientNames = recipe.getIngredients() == null
+                ? List.of()
+                : recipe.getIngredients().stream()
+                        .map(Ingredient::getName)
+                        .filter(Objects::nonNull)
+                        .toList();
+
+        return new RecipeSummary(
+                recipe.getId(),
+                recipe.getTitle(),
+                recipe.getDescription(),
+                recipe.getCalories(),
+                recipe.getProteins(),
+                recipe.getFats(),
+                recipe.getCarbs(),
+                recipe.getImageUrl(),
+                recipe.getCookingTime(),
+                recipe.getDifficulty(),
+                recipe.getDiet() == null ? null : recipe.getDiet().getName(),
+                ingredientNames
+        );
+    }
+}
@@ -0,0 +1,14 @@
+package com.healthy.backend.dto;
+
+/**
+ * Строка списка покупок: сколько граммов ингредиента нужно на все блюда периода.
+ * uses — в скольких блюдах он встречается, unmeasured — из них без указанной граммовки.
+ */
+public record ShoppingItem(
+        Long ingredientId,
+        String name,
+        double grams,
+        int uses,
+        int unmeasured
+) {
+}
@@ -1,6 +1,7 @@
 package com.healthy.backend.exception;
 
 import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
@@ -38,6 +39,23 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
     }
 
+    // 503 — перегрузка (например, очередь хэширования паролей заполнена)
+    @ExceptionHandler(ServiceBusyException.class)
+    public ResponseEntity<ApiError> handleBusy(
+            ServiceBusyException ex,
+            HttpServletRequest request
+    ) {
+        ApiError error = new ApiError(
+                503,
+                "SERVICE_BUSY",
+                ex.getMessage(),
+                request.getRequestURI()
+        );
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(error);
+    }
+
     // всё остальное
     @ExceptionHandler(Exception.class)
     public ResponseEntity<ApiError> handleAll(
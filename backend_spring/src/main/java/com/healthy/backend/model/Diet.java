@@ -1,9 +1,15 @@
 package com.healthy.backend.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.Immutable;
 
+// Справочник диет не меняется после загрузки — сущность неизменяемая, кэш только для чтения
 @Entity
+@Immutable
 @Table(name = "diets")
+@Cache(usage = CacheConcurrencyStrategy.READ_ONLY)
 public class Diet {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -11,4 +17,15 @@ public class Diet {
 
     private String name;
     private String description;
+
+    public Diet() {}
+
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public String getDescription() { return description; }
+    public void setDescription(String description) { this.description = description; }
 }
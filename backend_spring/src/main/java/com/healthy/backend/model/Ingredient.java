@@ -1,9 +1,14 @@
 package com.healthy.backend.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
+// Справочник; нутриенты правит только админ (PUT /api/admin/ingredients/{id}),
+// поэтому не READ_ONLY, а нестрогий кэш с инвалидацией при изменении
 @Entity
 @Table(name = "ingredients")
+@Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE)
 public class Ingredient {
 
     @Id
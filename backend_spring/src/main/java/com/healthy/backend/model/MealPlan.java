@@ -6,12 +6,15 @@ import jakarta.persistence.*;
 import java.sql.Date;
 
 @Entity
-@Table(name = "meal_plans")
+@Table(name = "meal_plans",
+        indexes = @Index(name = "idx_meal_plans_user_date", columnList = "user_id, plan_date"))
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class MealPlan {
 
+    // Sequence с пулом вместо IDENTITY, чтобы вставки планов шли JDBC-пачками
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "meal_plans_seq")
+    @SequenceGenerator(name = "meal_plans_seq", sequenceName = "meal_plans_seq", allocationSize = 50)
     private Long id;
 
     private Date planDate;
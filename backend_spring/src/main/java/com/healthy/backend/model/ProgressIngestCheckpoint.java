@@ -0,0 +1,37 @@
+package com.healthy.backend.model;
+
+import jakarta.persistence.*;
+
+// Последний seq журнала прогресса, записанный в user_progress. Обновляется в той же
+// транзакции, что и сами строки, поэтому повтор журнала после сбоя не применяет записи дважды
+@Entity
+@Table(name = "progress_ingest_checkpoints")
+public class ProgressIngestCheckpoint {
+
+    @Id
+    @Column(name = "log_id")
+    private Long logId;
+
+    @Column(nullable = false)
+    private long seq;
+
+    // ---------- Конструкторы ----------
+    public ProgressIngestCheckpoint() {}
+
+    public ProgressIngestCheckpoint(Long logId) {
+        this.logId = logId;
+    }
+
+    // ---------- Геттеры и сеттеры ----------
+    public Long getLogId() {
+        return logId;
+    }
+
+    public long getSeq() {
+        return seq;
+    }
+
+    public void setSeq(long seq) {
+        this.seq = seq;
+    }
+}
@@ -0,0 +1,110 @@
+package com.healthy.backend.model;
+
+import jakarta.persistence.*;
+import java.sql.Date;
+
+// Агрегат прогресса за неделю или месяц — для графиков за годы без чтения всех дней
+@Entity
+@Table(name = "progress_rollups",
+        uniqueConstraints = @UniqueConstraint(name = "uk_progress_rollups_user_period_start",
+                columnNames = {"user_id", "period", "period_start"}))
+public class ProgressRollup {
+
+    public enum Period { WEEK, MONTH }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 5)
+    private Period period;
+
+    // Понедельник недели или первое число месяца
+    @Column(name = "period_start", nullable = false)
+    private Date periodStart;
+
+    private int days;
+    private Float weightAvg;
+    private Float weightMin;
+    private Float weightMax;
+    private long caloriesConsumed;
+    private long caloriesBurned;
+
+    // ---------- Конструкторы ----------
+    public ProgressRollup() {}
+
+    public ProgressRollup(Long userId, Period period, Date periodStart) {
+        this.userId = userId;
+        this.period = period;
+        this.periodStart = periodStart;
+    }
+
+    // ---------- Геттеры и сеттеры ----------
+    public Long getId() {
+        return id;
+    }
+
+    public Long getUserId() {
+        return userId;
+    }
+
+    public Period getPeriod() {
+        return period;
+    }
+
+    public Date getPeriodStart() {
+        return periodStart;
+    }
+
+    public int getDays() {
+        return days;
+    }
+
+    public void setDays(int days) {
+        this.days = days;
+    }
+
+    public Float getWeightAvg() {
+        return weightAvg;
+    }
+
+    public void setWeightAvg(Float weightAvg) {
+        this.weightAvg = weightAvg;
+    }
+
+    public Float getWeightMin() {
+        return weightMin;
+    }
+
+    public void setWeightMin(Float weightMin) {
+        this.weightMin = weightMin;
+    }
+
+    public Float getWeightMax() {
+        return weightMax;
+    }
+
+    public void setWeightMax(Float weightMax) {
+        this.weightMax = weightMax;
+    }
+
+    public long getCaloriesConsumed() {
+        return caloriesConsumed;
+    }
+
+    public void setCaloriesConsumed(long caloriesConsumed) {
+        this.caloriesConsumed = caloriesConsumed;
+    }
+
+    public long getCaloriesBurned() {
+        return caloriesBurned;
+    }
+
+    public void setCaloriesBurned(long caloriesBurned) {
+        this.caloriesBurned = caloriesBurned;
+    }
+}
@@ -1,16 +1,24 @@
 package com.healthy.backend.model;
 
 import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import java.util.List;
 
 @Entity
 @Table(name = "recipes")
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class Recipe {
+    // Sequence с пулом вместо IDENTITY, чтобы массовый импорт шёл JDBC-пачками
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "recipes_seq")
+    @SequenceGenerator(name = "recipes_seq", sequenceName = "recipes_seq", allocationSize = 50)
     private Long id;
 
     private String title;
+    // Описание бывает длинным (импорт) — без предела varchar(255)
+    @Column(columnDefinition = "text")
     private String description;
     private Integer calories;
     private Float proteins;
@@ -24,8 +32,11 @@ public class Recipe {
     @JoinColumn(name = "diet_id")
     private Diet diet;
 
-    // 🔹 Добавляем связь с ингредиентами
-    @ManyToMany(fetch = FetchType.EAGER)
+    // 🔹 Связь с ингредиентами: LAZY, списки грузят её через entity graph,
+    // а одиночные обращения подтягивают коллекции пачками
+    @ManyToMany(fetch = FetchType.LAZY)
+    @BatchSize(size = 100)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     @JoinTable(
             name = "recipe_ingredients",
             joinColumns = @JoinColumn(name = "recipe_id"),
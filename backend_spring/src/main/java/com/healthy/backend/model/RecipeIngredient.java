@@ -9,13 +9,51 @@ public class RecipeIngredient {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "recipe_id")
     private Recipe recipe;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "ingredient_id")
     private Ingredient ingredient;
 
     private Float amountGrams;
+
+    // ---------- Конструкторы ----------
+    public RecipeIngredient() {}
+
+    public RecipeIngredient(Recipe recipe, Ingredient ingredient, Float amountGrams) {
+        this.recipe = recipe;
+        this.ingredient = ingredient;
+        this.amountGrams = amountGrams;
+    }
+
+    // ---------- Геттеры и сеттеры ----------
+    public Long getId() {
+        return id;
+    }
+
+    public Recipe getRecipe() {
+        return recipe;
+    }
+
+    public void setRecipe(Recipe recipe) {
+        this.recipe = recipe;
+    }
+
+    public Ingredient getIngredient() {
+        return ingredient;
+    }
+
+    public void setIngredient(Ingredient ingredient) {
+        this.ingredient = ingredient;
+    }
+
+    public Float getAmountGrams() {
+        return amountGrams;
+    }
+
+    public void setAmountGrams(Float amountGrams) {
+        this.amountGrams = amountGrams;
+    }
 }
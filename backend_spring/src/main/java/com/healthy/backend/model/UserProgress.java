@@ -1,23 +1,85 @@
 package com.healthy.backend.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import java.sql.Date;
 import com.healthy.backend.entity.User;
 
 
+// Одна запись на пользователя в день: уникальный индекс (user_id, date) заодно
+// обслуживает выборки истории по диапазону дат
 @Entity
-@Table(name = "user_progress")
+@Table(name = "user_progress",
+        uniqueConstraints = @UniqueConstraint(name = "uk_user_progress_user_date", columnNames = {"user_id", "date"}))
 public class UserProgress {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    @Column(nullable = false)
     private Date date;
     private Float weight;
     private Integer caloriesConsumed;
     private Integer caloriesBurned;
 
-    @ManyToOne
+    @JsonIgnore
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     private User user;
+
+    // ---------- Конструкторы ----------
+    public UserProgress() {}
+
+    public UserProgress(Date date, Float weight, Integer caloriesConsumed, Integer caloriesBurned, User user) {
+        this.date = date;
+        this.weight = weight;
+        this.caloriesConsumed = caloriesConsumed;
+        this.caloriesBurned = caloriesBurned;
+        this.user = user;
+    }
+
+    // ---------- Геттеры и сеттеры ----------
+    public Long getId() {
+        return id;
+    }
+
+    public Date getDate() {
+        return date;
+    }
+
+    public void setDate(Date date) {
+        this.date = date;
+    }
+
+    public Float getWeight() {
+        return weight;
+    }
+
+    public void setWeight(Float weight) {
+        this.weight = weight;
+    }
+
+    public Integer getCaloriesConsumed() {
+        return caloriesConsumed;
+    }
+
+    public void setCaloriesConsumed(Integer caloriesConsumed) {
+        this.caloriesConsumed = caloriesConsumed;
+    }
+
+    public Integer getCaloriesBurned() {
+        return caloriesBurned;
+    }
+
+    public void setCaloriesBurned(Integer caloriesBurned) {
+        this.caloriesBurned = caloriesBurned;
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    public void setUser(User user) {
+        this.user = user;
+    }
 }
@@ -2,6 +2,38 @@ package com.healthy.backend.repository;
 
 import com.healthy.backend.model.MealPlan;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.sql.Date;
+import java.util.Collection;
+import java.util.List;
 
 public interface MealPlanRepository extends JpaRepository<MealPlan, Long> {
+
+    // Строка календаря: только id рецептов (FK-столбцы), без прокси и JOIN-ов
+    interface CalendarRow {
+        Long getId();
+
+        Date getPlanDate();
+
+        Integer getTotalCalories();
+
+        Long getBreakfastId();
+
+        Long getLunchId();
+
+        Long getDinnerId();
+    }
+
+    // Планы пользователя за диапазон дат одним запросом (индекс user_id, plan_date)
+    @Query("select mp.id as id, mp.planDate as planDate, mp.totalCalories as totalCalories, " +
+            "mp.breakfast.id as breakfastId, mp.lunch.id as lunchId, mp.dinner.id as dinnerId " +
+            "from MealPlan mp where mp.user.id = :userId and mp.planDate between :from and :to " +
+            "order by mp.planDate, mp.id")
+    List<CalendarRow> findCalendar(@Param("userId") Long userId, @Param("from") Date from, @Param("to") Date to);
+
+    // Кому из пользователей план на дату уже составлен
+    @Query("select mp.user.id from MealPlan mp where mp.planDate = :date and mp.user.id in :userIds")
+    List<Long> findUserIdsWithPlanOn(@Param("date") Date date, @Param("userIds") Collection<Long> userIds);
 }
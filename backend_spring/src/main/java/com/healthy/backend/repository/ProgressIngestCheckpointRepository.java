@@ -0,0 +1,7 @@
+package com.healthy.backend.repository;
+
+import com.healthy.backend.model.ProgressIngestCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface ProgressIngestCheckpointRepository extends JpaRepository<ProgressIngestCheckpoint, Long> {
+}
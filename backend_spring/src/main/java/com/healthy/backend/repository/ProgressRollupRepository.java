@@ -0,0 +1,23 @@
+package com.healthy.backend.repository;
+
+import com.healthy.backend.model.ProgressRollup;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+
+import java.sql.Date;
+import java.util.List;
+import java.util.Optional;
+
+public interface ProgressRollupRepository extends JpaRepository<ProgressRollup, Long> {
+
+    Optional<ProgressRollup> findByUserIdAndPeriodAndPeriodStart(Long userId, ProgressRollup.Period period, Date periodStart);
+
+    // То же под блокировкой строки до конца транзакции — для пересчёта агрегата
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<ProgressRollup> findForUpdateByUserIdAndPeriodAndPeriodStart(Long userId, ProgressRollup.Period period,
+                                                                          Date periodStart);
+
+    List<ProgressRollup> findByUserIdAndPeriodAndPeriodStartBetweenOrderByPeriodStartAsc(
+            Long userId, ProgressRollup.Period period, Date from, Date to);
+}
@@ -0,0 +1,23 @@
+package com.healthy.backend.repository;
+
+import com.healthy.backend.model.RecipeIngredient;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.List;
+
+public interface RecipeIngredientRepository extends JpaRepository<RecipeIngredient, Long> {
+
+    // Граммовки всех рецептов одним запросом, без загрузки сущностей
+    interface Amount {
+        Long getRecipeId();
+
+        Long getIngredientId();
+
+        Float getAmountGrams();
+    }
+
+    @Query("select ri.recipe.id as recipeId, ri.ingredient.id as ingredientId, ri.amountGrams as amountGrams " +
+            "from RecipeIngredient ri order by ri.recipe.id")
+    List<Amount> findAllAmounts();
+}
@@ -1,18 +1,61 @@
 package com.healthy.backend.repository;
 
 import com.healthy.backend.model.Recipe;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_CACHEABLE;
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 public interface RecipeRepository extends JpaRepository<Recipe, Long> {
 
+    // Finder-ы кэшируются в кэше запросов Hibernate; выборки всего каталога — нет,
+    // их результат и так держит RecipeCatalog
+
     // 🔍 Поиск по названию
+    @EntityGraph(attributePaths = {"diet", "ingredients"})
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
     List<Recipe> findByTitleContainingIgnoreCase(String title);
 
     // 🥗 Фильтр по диете
+    @EntityGraph(attributePaths = {"diet", "ingredients"})
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
     List<Recipe> findByDiet_NameIgnoreCase(String name);
 
     // 🔍 + 🥗 вместе
+    @EntityGraph(attributePaths = {"diet", "ingredients"})
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
     List<Recipe> findByTitleContainingIgnoreCaseAndDiet_NameIgnoreCase(String title, String name);
-}
\ No newline at end of file
+
+    // 📚 Весь каталог с диетами и ингредиентами одним запросом (для снимка каталога)
+    @EntityGraph(attributePaths = {"diet", "ingredients"})
+    @Query("select r from Recipe r order by r.id")
+    List<Recipe> findAllWithDetails();
+
+    // 📖 Один рецепт со всеми связями одним запросом
+    @EntityGraph(attributePaths = {"diet", "ingredients"})
+    @QueryHints(@QueryHint(name = HINT_CACHEABLE, value = "true"))
+    Optional<Recipe> findWithDetailsById(Long id);
+
+    // 📦 Несколько рецептов по id одним запросом (IN) со всеми связями
+    @EntityGraph(attributePaths = {"diet", "ingredients"})
+    List<Recipe> findAllWithDetailsByIdIn(Collection<Long> ids);
+
+    // 📤 Потоковое чтение всего каталога (только внутри транзакции, поток нужно закрыть)
+    @EntityGraph(attributePaths = {"diet", "ingredients"})
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("select r from Recipe r order by r.id")
+    Stream<Recipe> streamAllOrderedById();
+}
@@ -2,8 +2,19 @@ package com.healthy.backend.repository;
 
 import com.healthy.backend.model.UserProgress;
 import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.sql.Date;
 import java.util.List;
+import java.util.Optional;
 
+// Все выборки идут по уникальному индексу (user_id, date)
 public interface UserProgressRepository extends JpaRepository<UserProgress, Long> {
-    List<UserProgress> findByUserId(Long userId);
+
+    Optional<UserProgress> findByUserIdAndDate(Long userId, Date date);
+
+    // История за диапазон дат (включительно), по возрастанию даты
+    List<UserProgress> findByUserIdAndDateBetweenOrderByDateAsc(Long userId, Date from, Date to);
+
+    // Записи за последние дни — для первичной загрузки агрегатов
+    List<UserProgress> findByUserIdAndDateGreaterThanEqual(Long userId, Date from);
 }
@@ -1,8 +1,15 @@
 package com.healthy.backend.repository;
 
 import com.healthy.backend.entity.User;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
@@ -11,4 +18,13 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     // ===== ДОБАВЛЕНО =====
     Optional<User> findByResetToken(String resetToken);
+
+    // Keyset-обход всех пользователей (ночные пакетные задачи)
+    List<User> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+    // Строки пользователей блокируются до конца транзакции (по возрастанию id — без взаимных блокировок):
+    // записи прогресса и пересчёт агрегатов одного пользователя идут по очереди
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select u.id from User u where u.id in :ids order by u.id")
+    List<Long> lockForProgress(@Param("ids") Collection<Long> ids);
 }
\ No newline at end of file
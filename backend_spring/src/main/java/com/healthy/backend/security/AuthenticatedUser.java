@@ -0,0 +1,26 @@
+package com.healthy.backend.security;
+
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Пользователь, аутентифицированный по JWT (principal в SecurityContext).
+ */
+public record AuthenticatedUser(Long id, String email, String role, Instant expiresAt) {
+
+    public boolean isAdmin() {
+        return "ADMIN".equals(role);
+    }
+
+    // Текущий пользователь запроса, если JwtAuthenticationFilter его распознал
+    public static Optional<AuthenticatedUser> current() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth != null && auth.getPrincipal() instanceof AuthenticatedUser user) {
+            return Optional.of(user);
+        }
+        return Optional.empty();
+    }
+}
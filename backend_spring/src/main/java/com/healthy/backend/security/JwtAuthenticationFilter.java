@@ -0,0 +1,54 @@
+package com.healthy.backend.security;
+
+import io.jsonwebtoken.JwtException;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Аутентификация по заголовку "Authorization: Bearer ..." один раз на запрос.
+ * Роль пользователя становится authority (например, ADMIN), principal — {@link AuthenticatedUser}.
+ * Недействительный токен просто не аутентифицирует запрос: решение принимают эндпоинты.
+ */
+public class JwtAuthenticationFilter extends OncePerRequestFilter {
+
+    private static final String BEARER = "Bearer ";
+
+    private final TokenAuthenticator tokenAuthenticator;
+
+    public JwtAuthenticationFilter(TokenAuthenticator tokenAuthenticator) {
+        this.tokenAuthenticator = tokenAuthenticator;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain chain) throws ServletException, IOException {
+
+        String header = request.getHeader("Authorization");
+
+        if (header != null && header.startsWith(BEARER)
+                && SecurityContextHolder.getContext().getAuthentication() == null) {
+            try {
+                AuthenticatedUser user = tokenAuthenticator.authenticate(header.substring(BEARER.length()));
+
+                UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                        user, null, List.of(new SimpleGrantedAuthority(user.role())));
+                SecurityContextHolder.getContext().setAuthentication(authentication);
+
+            } catch (JwtException | IllegalArgumentException e) {
+                logger.debug("Недействительный JWT: " + e.getMessage());
+            }
+        }
+
+        chain.doFilter(request, response);
+    }
+}
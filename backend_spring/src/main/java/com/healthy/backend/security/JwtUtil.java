@@ -1,5 +1,8 @@
 package com.healthy.backend.security;
 
+import com.healthy.backend.entity.User;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import jakarta.annotation.PostConstruct;
 
 import io.jsonwebtoken.Jwts;
@@ -16,6 +19,9 @@ import java.util.Date;
 @Component
 public class JwtUtil {
 
+    public static final String ROLE_CLAIM = "role";
+    public static final String USER_ID_CLAIM = "uid";
+
     @Value("${jwt.secret}")
     private String secret;
 
@@ -24,10 +30,16 @@ public class JwtUtil {
 
     private SecretKey key;
 
+    // Парсер потокобезопасен, поэтому собираем его один раз
+    private JwtParser parser;
+
     @PostConstruct
     public void init() {
         // Преобразуем строку в безопасный ключ
         this.key = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(key)
+                .build();
     }
 
     public String generateToken(String subject) {
@@ -39,21 +51,28 @@ public class JwtUtil {
                 .compact();
     }
 
+    // Токен с ролью и id в claims — проверке прав не нужен поход в БД
+    public String generateToken(User user) {
+        return Jwts.builder()
+                .setSubject(user.getEmail())
+                .claim(ROLE_CLAIM, user.getRole())
+                .claim(USER_ID_CLAIM, user.getId())
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + expiration))
+                .signWith(key, SignatureAlgorithm.HS256)
+                .compact();
+    }
+
+    // Проверяет подпись и срок действия; при ошибке — JwtException
+    public Claims parse(String token) {
+        return parser.parseClaimsJws(token).getBody();
+    }
+
     public String extractEmail(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .getSubject();
+        return parse(token).getSubject();
     }
 
     public String extractSubject(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(key)
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .getSubject();
+        return parse(token).getSubject();
     }
 }
@@ -0,0 +1,114 @@
+package com.healthy.backend.security;
+
+import com.healthy.backend.exception.ServiceBusyException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Хэширование и проверка паролей (BCrypt) на отдельном ограниченном пуле потоков.
+ * Дорогой BCrypt не занимает потоки Tomcat, а при переполнении очереди
+ * запрос сразу отклоняется ({@link ServiceBusyException} → 503), вместо того
+ * чтобы копить задержку для всех остальных эндпоинтов.
+ */
+@Service
+public class PasswordHashingService {
+
+    // Результат проверки пароля; rehashed != null, если хэш нужно обновить под текущую стоимость
+    public record Verification(boolean matches, String rehashed) {
+    }
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+
+    private final Timer encodeTimer;
+    private final Timer verifyTimer;
+    private final Counter rejected;
+
+    public PasswordHashingService(PasswordEncoder passwordEncoder,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${security.hashing.threads:0}") int threads,
+                                  @Value("${security.hashing.queue-capacity:64}") int queueCapacity) {
+
+        this.passwordEncoder = passwordEncoder;
+
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.executor = new ThreadPoolExecutor(
+                poolSize, poolSize,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                namedThreads(),
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.encodeTimer = Timer.builder("auth.password.hash")
+                .tag("operation", "encode")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        this.verifyTimer = Timer.builder("auth.password.hash")
+                .tag("operation", "verify")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        this.rejected = Counter.builder("auth.password.rejected")
+                .description("Запросы, отклонённые из-за заполненной очереди хэширования")
+                .register(meterRegistry);
+
+        Gauge.builder("auth.password.queue.depth", executor, e -> e.getQueue().size())
+                .register(meterRegistry);
+        Gauge.builder("auth.password.active", executor, ThreadPoolExecutor::getActiveCount)
+                .register(meterRegistry);
+    }
+
+    public CompletableFuture<String> encode(String rawPassword) {
+        return submit(() -> encodeTimer.record(() -> passwordEncoder.encode(rawPassword)));
+    }
+
+    // Проверка и (при смене стоимости BCrypt) пересчёт хэша одной задачей
+    public CompletableFuture<Verification> verify(String rawPassword, String hash) {
+        return submit(() -> verifyTimer.record(() -> {
+            if (!passwordEncoder.matches(rawPassword, hash)) {
+                return new Verification(false, null);
+            }
+            String rehashed = passwordEncoder.upgradeEncoding(hash)
+                    ? passwordEncoder.encode(rawPassword)
+                    : null;
+            return new Verification(true, rehashed);
+        }));
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, executor);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new ServiceBusyException("Сервер перегружен, повторите попытку позже");
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private static ThreadFactory namedThreads() {
+        AtomicInteger counter = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, "password-hashing-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+}
@@ -0,0 +1,104 @@
+package com.healthy.backend.security;
+
+import com.healthy.backend.entity.User;
+import com.healthy.backend.repository.UserRepository;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Проверка JWT с кэшем «токен → пользователь».
+ * Подпись проверяется один раз на токен; запись живёт до истечения токена,
+ * размер кэша ограничен. Для старых токенов без роли в claims роль один раз
+ * берётся из БД и тоже кэшируется.
+ */
+@Component
+public class TokenAuthenticator {
+
+    // Роль пользователя, у которого она не задана, — та же, что при регистрации
+    private static final String DEFAULT_ROLE = "USER";
+
+    private final JwtUtil jwtUtil;
+    private final UserRepository userRepository;
+    private final int maxSize;
+
+    private final Map<String, AuthenticatedUser> cache = new ConcurrentHashMap<>();
+
+    public TokenAuthenticator(JwtUtil jwtUtil,
+                              UserRepository userRepository,
+                              @Value("${jwt.cache.max-size:10000}") int maxSize) {
+        this.jwtUtil = jwtUtil;
+        this.userRepository = userRepository;
+        this.maxSize = maxSize;
+    }
+
+    // При недействительном или истёкшем токене — JwtException
+    public AuthenticatedUser authenticate(String token) {
+
+        Instant now = Instant.now();
+
+        AuthenticatedUser cached = cache.get(token);
+        if (cached != null) {
+            if (cached.expiresAt().isAfter(now)) {
+                return cached;
+            }
+            cache.remove(token);
+        }
+
+        Claims claims = jwtUtil.parse(token);
+        AuthenticatedUser user = toUser(claims);
+
+        if (cache.size() >= maxSize) {
+            evict(now);
+        }
+        cache.put(token, user);
+        return user;
+    }
+
+    public int size() {
+        return cache.size();
+    }
+
+    private AuthenticatedUser toUser(Claims claims) {
+
+        String email = claims.getSubject();
+        String role = claims.get(JwtUtil.ROLE_CLAIM, String.class);
+        Number id = claims.get(JwtUtil.USER_ID_CLAIM, Number.class);
+
+        // Без exp токен был бы бессрочным, а его запись в кэше — вечной; без subject неясно, чей он
+        if (claims.getExpiration() == null) {
+            throw new JwtException("Токен без срока действия");
+        }
+        if (email == null) {
+            throw new JwtException("Токен без subject");
+        }
+        Instant expiresAt = claims.getExpiration().toInstant();
+
+        if (role == null || id == null) {
+            User user = userRepository.findByEmail(email)
+                    .orElseThrow(() -> new JwtException("Пользователь токена не найден"));
+            role = user.getRole() != null ? user.getRole() : DEFAULT_ROLE;
+            id = user.getId();
+        }
+
+        return new AuthenticatedUser(id.longValue(), email, role, expiresAt);
+    }
+
+    // Сначала выбрасываем истёкшие записи; если места всё равно нет — произвольную десятую часть
+    private void evict(Instant now) {
+        cache.values().removeIf(u -> !u.expiresAt().isAfter(now));
+
+        int excess = cache.size() - maxSize + Math.max(1, maxSize / 10);
+        Iterator<String> it = cache.keySet().iterator();
+        while (excess-- > 0 && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.healthy.backend.service;
+
+import com.healthy.backend.dto.MealPlanRequest;
+import com.healthy.backend.dto.PlannedDay;
+import com.healthy.backend.entity.User;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+
+/**
+ * Стратегия по умолчанию: однодневный план из {@link MealPlanGenerator}.
+ * Seed зависит от пользователя и даты, поэтому повторный запуск даёт тот же план,
+ * а у разных пользователей и дней планы различаются.
+ */
+@Component
+public class GeneratorMealPlanStrategy implements MealPlanStrategy {
+
+    private final MealPlanGenerator mealPlanGenerator;
+    private final int dailyCalories;
+
+    public GeneratorMealPlanStrategy(MealPlanGenerator mealPlanGenerator,
+                                     @Value("${meal-plans.nightly.daily-calories:2000}") int dailyCalories) {
+        this.mealPlanGenerator = mealPlanGenerator;
+        this.dailyCalories = dailyCalories;
+    }
+
+    @Override
+    public PlannedDay planFor(User user, LocalDate date) {
+        long seed = user.getId() * 31 + date.toEpochDay();
+        MealPlanRequest request = new MealPlanRequest(1, dailyCalories, null, null, null, null, seed);
+        return mealPlanGenerator.generate(request).days().get(0);
+    }
+}
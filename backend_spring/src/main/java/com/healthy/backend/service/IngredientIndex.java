@@ -0,0 +1,237 @@
+package com.healthy.backend.service;
+
+import com.healthy.backend.dto.PantryMatch;
+import com.healthy.backend.dto.RecipeSummary;
+import com.healthy.backend.exception.BadRequestException;
+import com.healthy.backend.model.Ingredient;
+import com.healthy.backend.model.Recipe;
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Индекс «ингредиент → битмап id рецептов» для подбора рецептов по продуктам.
+ * «Чего не хватает не больше k» считается пересечениями битмапов: по битмапам
+ * отсутствующих ингредиентов накапливаются уровни «не хватает ≥ 1 … ≥ k+1»,
+ * ответ — кандидаты минус последний уровень. Индекс обновляется по одному рецепту на запись.
+ */
+@Component
+public class IngredientIndex implements RecipeCatalogListener {
+
+    public static final int MAX_LIMIT = 200;
+    public static final int MAX_MISSING = 5;
+
+    private final RecipeCatalog recipeCatalog;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Index index = new Index(); // под lock
+
+    public IngredientIndex(RecipeCatalog recipeCatalog) {
+        this.recipeCatalog = recipeCatalog;
+    }
+
+    // ================= QUERY =================
+    // Продукты задаются id и/или названиями; рецепты — по числу недостающих, затем по покрытию
+    public List<PantryMatch> match(Collection<Long> ids, Collection<String> names, int maxMissing, int limit) {
+
+        if (maxMissing < 0 || maxMissing > MAX_MISSING) {
+            throw new BadRequestException("maxMissing должен быть от 0 до " + MAX_MISSING);
+        }
+        int top = Math.max(1, Math.min(limit, MAX_LIMIT));
+
+        RecipeCatalogSnapshot snapshot = recipeCatalog.snapshot(); // read-through, как у поиска
+
+        List<Hit> hits = new ArrayList<>();
+        Set<Long> have;
+
+        lock.readLock().lock();
+        try {
+            have = index.resolve(ids, names);
+            if (have.isEmpty()) {
+                return List.of();
+            }
+
+            RoaringBitmap[] missing = index.missingLevels(have, maxMissing);
+            for (int m = 0; m <= maxMissing && hits.size() < top; m++) {
+                // Ровно m недостающих: уровень ≥ m без уровня ≥ m + 1
+                int[] exact = RoaringBitmap.andNot(missing[m], missing[m + 1]).toArray();
+                List<Hit> level = new ArrayList<>(exact.length);
+                for (int id : exact) {
+                    int total = index.ingredientsOf.get(id).length;
+                    level.add(new Hit(id, total - m, total));
+                }
+                level.sort(Comparator.comparingDouble(Hit::coverage).reversed()
+                        .thenComparing(Comparator.comparingInt(Hit::matched).reversed())
+                        .thenComparingInt(Hit::id));
+                hits.addAll(level.subList(0, Math.min(level.size(), top - hits.size())));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<PantryMatch> result = new ArrayList<>(hits.size());
+        for (Hit hit : hits) {
+            Recipe recipe = snapshot.findById((long) hit.id());
+            RecipeSummary summary = snapshot.summaryOf((long) hit.id());
+            if (recipe == null || summary == null) {
+                continue;   // индекс уже видит запись, а снимок ещё нет
+            }
+            List<String> lacking = new ArrayList<>();
+            for (Ingredient ingredient : recipe.getIngredients()) {
+                if (!have.contains(ingredient.getId())) {
+                    lacking.add(ingredient.getName());
+                }
+            }
+            result.add(new PantryMatch(summary, hit.matched(), hit.total(), hit.coverage(), lacking));
+        }
+        return result;
+    }
+
+    // ================= UPDATES =================
+    @Override
+    public void onCatalogRebuilt(RecipeCatalogSnapshot snapshot) {
+        Index fresh = new Index();
+        for (Recipe recipe : snapshot.getRecipes()) {
+            fresh.add(recipe);
+        }
+        fresh.runOptimize();
+
+        lock.writeLock().lock();
+        try {
+            index = fresh;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onRecipeSaved(Recipe recipe, RecipeCatalogSnapshot snapshot) {
+        lock.writeLock().lock();
+        try {
+            index.remove(Math.toIntExact(recipe.getId()));
+            index.add(recipe);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onRecipeDeleted(Long id, RecipeCatalogSnapshot snapshot) {
+        lock.writeLock().lock();
+        try {
+            index.remove(Math.toIntExact(id));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static String key(String name) {
+        return name.trim().toLowerCase(Locale.ROOT).replace('ё', 'е');
+    }
+
+    private record Hit(int id, int matched, int total) {
+        double coverage() {
+            return (double) matched / total;
+        }
+    }
+
+    // ================= INDEX =================
+    private static final class Index {
+
+        final Map<Long, RoaringBitmap> recipesByIngredient = new HashMap<>();
+        final Map<Integer, long[]> ingredientsOf = new HashMap<>();
+        final Map<String, Long> idsByName = new HashMap<>();
+
+        void add(Recipe recipe) {
+            if (recipe.getIngredients() == null || recipe.getIngredients().isEmpty()) {
+                return;   // рецепт без состава по продуктам не подобрать
+            }
+            int id = Math.toIntExact(recipe.getId());
+            long[] ingredients = recipe.getIngredients().stream()
+                    .mapToLong(Ingredient::getId)
+                    .distinct()
+                    .toArray();
+            ingredientsOf.put(id, ingredients);
+            for (long ingredientId : ingredients) {
+                recipesByIngredient.computeIfAbsent(ingredientId, k -> new RoaringBitmap()).add(id);
+            }
+            for (Ingredient ingredient : recipe.getIngredients()) {
+                if (ingredient.getName() != null) {
+                    idsByName.putIfAbsent(key(ingredient.getName()), ingredient.getId());
+                }
+            }
+        }
+
+        void remove(int id) {
+            long[] ingredients = ingredientsOf.remove(id);
+            if (ingredients == null) {
+                return;
+            }
+            for (long ingredientId : ingredients) {
+                RoaringBitmap recipes = recipesByIngredient.get(ingredientId);
+                recipes.remove(id);
+                if (recipes.isEmpty()) {
+                    recipesByIngredient.remove(ingredientId);
+                }
+            }
+        }
+
+        void runOptimize() {
+            recipesByIngredient.values().forEach(RoaringBitmap::runOptimize);
+        }
+
+        Set<Long> resolve(Collection<Long> ids, Collection<String> names) {
+            Set<Long> have = new HashSet<>();
+            if (ids != null) {
+                for (Long id : ids) {
+                    if (id != null && recipesByIngredient.containsKey(id)) {
+                        have.add(id);
+                    }
+                }
+            }
+            if (names != null) {
+                for (String name : names) {
+                    Long id = name == null || name.isBlank() ? null : idsByName.get(key(name));
+                    if (id != null && recipesByIngredient.containsKey(id)) {
+                        have.add(id);
+                    }
+                }
+            }
+            return have;
+        }
+
+        // levels[m] — кандидаты, которым не хватает хотя бы m ингредиентов (levels[0] — все кандидаты)
+        RoaringBitmap[] missingLevels(Set<Long> have, int maxMissing) {
+
+            RoaringBitmap[] levels = new RoaringBitmap[maxMissing + 2];
+            levels[0] = FastAggregation.or(have.stream().map(recipesByIngredient::get).iterator());
+            for (int m = 1; m < levels.length; m++) {
+                levels[m] = new RoaringBitmap();
+            }
+
+            for (Map.Entry<Long, RoaringBitmap> e : recipesByIngredient.entrySet()) {
+                if (have.contains(e.getKey()) || !RoaringBitmap.intersects(e.getValue(), levels[0])) {
+                    continue;
+                }
+                RoaringBitmap lacking = RoaringBitmap.and(e.getValue(), levels[0]);
+                // Сверху вниз, чтобы рецепт поднимался не больше чем на уровень за ингредиент
+                for (int m = levels.length - 1; m >= 2; m--) {
+                    levels[m].or(RoaringBitmap.and(levels[m - 1], lacking));
+                }
+                levels[1].or(lacking);
+            }
+            return levels;
+        }
+    }
+}
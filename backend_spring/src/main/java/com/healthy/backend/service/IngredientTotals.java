@@ -0,0 +1,97 @@
+package com.healthy.backend.service;
+
+/**
+ * Примитивная хэш-таблица «id ингредиента → граммы» с открытой адресацией
+ * (плюс счётчики использований) — без упаковки long/double в объекты.
+ * Одна на запрос, не потокобезопасна. id должны быть положительными: 0 — пустой слот.
+ */
+final class IngredientTotals {
+
+    private static final long EMPTY = 0L;
+
+    private long[] keys;
+    private double[] grams;
+    private int[] uses;
+    private int[] unmeasured;
+    private int size;
+    private int mask;
+
+    IngredientTotals(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(expected * 2, 16) - 1) << 1;
+        allocate(capacity);
+    }
+
+    // Граммовка NaN — не указана: учитывается только в счётчиках
+    void add(long ingredientId, double amount, int times) {
+        int slot = slot(ingredientId);
+        if (keys[slot] == EMPTY) {
+            keys[slot] = ingredientId;
+            if (++size * 2 > keys.length) {
+                grow();
+                slot = slot(ingredientId);
+            }
+        }
+        uses[slot] += times;
+        if (Double.isNaN(amount)) {
+            unmeasured[slot] += times;
+        } else {
+            grams[slot] += amount * times;
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    interface Visitor {
+        void accept(long ingredientId, double grams, int uses, int unmeasured);
+    }
+
+    void forEach(Visitor visitor) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != EMPTY) {
+                visitor.accept(keys[i], grams[i], uses[i], unmeasured[i]);
+            }
+        }
+    }
+
+    // Линейное пробирование от перемешанного хэша
+    private int slot(long key) {
+        int i = (int) (mix(key) & mask);
+        while (keys[i] != EMPTY && keys[i] != key) {
+            i = (i + 1) & mask;
+        }
+        return i;
+    }
+
+    private static long mix(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return h ^ (h >>> 32);
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        double[] oldGrams = grams;
+        int[] oldUses = uses;
+        int[] oldUnmeasured = unmeasured;
+
+        allocate(oldKeys.length * 2);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = slot(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                grams[slot] = oldGrams[i];
+                uses[slot] = oldUses[i];
+                unmeasured[slot] = oldUnmeasured[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        grams = new double[capacity];
+        uses = new int[capacity];
+        unmeasured = new int[capacity];
+        mask = capacity - 1;
+    }
+}
@@ -0,0 +1,62 @@
+package com.healthy.backend.service;
+
+import com.healthy.backend.dto.PlannedDay;
+import com.healthy.backend.entity.User;
+import com.healthy.backend.model.MealPlan;
+import com.healthy.backend.model.Recipe;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * Пакетная вставка планов питания.
+ * id берутся из sequence с пулом (allocationSize), поэтому Hibernate может
+ * собирать INSERT-ы в JDBC batch (hibernate.jdbc.batch_size); пользователи и рецепты
+ * подставляются ссылками getReference без лишних SELECT.
+ */
+@Service
+public class MealPlanBatchWriter {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int batchSize;
+
+    // userId → план на день
+    @Transactional
+    public int insertAll(LocalDate date, Map<Long, PlannedDay> plans) {
+
+        Date planDate = Date.valueOf(date);
+        int written = 0;
+
+        for (Map.Entry<Long, PlannedDay> e : plans.entrySet()) {
+            PlannedDay day = e.getValue();
+
+            MealPlan plan = new MealPlan(
+                    planDate,
+                    day.totalCalories(),
+                    entityManager.getReference(User.class, e.getKey()),
+                    entityManager.getReference(Recipe.class, day.breakfast().id()),
+                    entityManager.getReference(Recipe.class, day.lunch().id()),
+                    entityManager.getReference(Recipe.class, day.dinner().id())
+            );
+            entityManager.persist(plan);
+
+            if (++written % batchSize == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+        return written;
+    }
+}
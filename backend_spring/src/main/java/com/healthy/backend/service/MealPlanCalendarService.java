@@ -0,0 +1,102 @@
+package com.healthy.backend.service;
+
+import com.healthy.backend.dto.CalendarDay;
+import com.healthy.backend.dto.MealPlanCalendar;
+import com.healthy.backend.dto.RecipeSummary;
+import com.healthy.backend.exception.BadRequestException;
+import com.healthy.backend.model.Recipe;
+import com.healthy.backend.repository.MealPlanRepository;
+import com.healthy.backend.repository.RecipeRepository;
+import org.springframework.stereotype.Service;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Календарь планов питания пользователя.
+ * Планы за период читаются одним запросом без загрузки рецептов (только id),
+ * карточки рецептов берутся из снимка каталога, а те, которых в нём нет,
+ * догружаются одним IN-запросом — число SQL не зависит от длины периода.
+ */
+@Service
+public class MealPlanCalendarService {
+
+    public static final int MAX_DAYS = 366;
+
+    private final MealPlanRepository mealPlanRepository;
+    private final RecipeRepository recipeRepository;
+    private final RecipeCatalog recipeCatalog;
+
+    public MealPlanCalendarService(MealPlanRepository mealPlanRepository,
+                                   RecipeRepository recipeRepository,
+                                   RecipeCatalog recipeCatalog) {
+        this.mealPlanRepository = mealPlanRepository;
+        this.recipeRepository = recipeRepository;
+        this.recipeCatalog = recipeCatalog;
+    }
+
+    public MealPlanCalendar calendar(Long userId, LocalDate from, LocalDate to) {
+
+        if (from.isAfter(to)) {
+            throw new BadRequestException("Дата начала позже даты окончания");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_DAYS) {
+            throw new BadRequestException("Период не может быть длиннее " + MAX_DAYS + " дней");
+        }
+
+        List<MealPlanRepository.CalendarRow> rows =
+                mealPlanRepository.findCalendar(userId, Date.valueOf(from), Date.valueOf(to));
+
+        List<CalendarDay> days = new ArrayList<>(rows.size());
+        Set<Long> recipeIds = new HashSet<>();
+        for (MealPlanRepository.CalendarRow row : rows) {
+            days.add(new CalendarDay(row.getId(), row.getPlanDate().toLocalDate(), row.getTotalCalories(),
+                    row.getBreakfastId(), row.getLunchId(), row.getDinnerId()));
+            addIfPresent(recipeIds, row.getBreakfastId());
+            addIfPresent(recipeIds, row.getLunchId());
+            addIfPresent(recipeIds, row.getDinnerId());
+        }
+
+        return new MealPlanCalendar(from, to, days, resolve(recipeIds));
+    }
+
+    // id → карточка: сначала снимок каталога в памяти, остальное — одним запросом
+    private Map<Long, RecipeSummary> resolve(Set<Long> ids) {
+
+        Map<Long, RecipeSummary> recipes = new LinkedHashMap<>();
+        if (ids.isEmpty()) {
+            return recipes;
+        }
+
+        RecipeCatalogSnapshot snapshot = recipeCatalog.snapshot();
+        List<Long> missing = new ArrayList<>();
+        for (Long id : ids) {
+            RecipeSummary summary = snapshot.summaryOf(id);
+            if (summary != null) {
+                recipes.put(id, summary);
+            } else {
+                missing.add(id);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            for (Recipe recipe : recipeRepository.findAllWithDetailsByIdIn(missing)) {
+                recipes.put(recipe.getId(), RecipeSummary.of(recipe));
+            }
+        }
+        return recipes;
+    }
+
+    private static void addIfPresent(Set<Long> ids, Long id) {
+        if (id != null) {
+            ids.add(id);
+        }
+    }
+}
@@ -0,0 +1,348 @@
+package com.healthy.backend.service;
+
+import com.healthy.backend.dto.GeneratedMealPlan;
+import com.healthy.backend.dto.MealPlanRequest;
+import com.healthy.backend.dto.PlannedDay;
+import com.healthy.backend.exception.BadRequestException;
+import com.healthy.backend.model.Recipe;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Генерация плана питания (завтрак/обед/ужин на N дней) под цели по калориям и БЖУ.
+ * Нутриенты каталога раскладываются в примитивные массивы один раз на версию снимка,
+ * сам подбор — локальный поиск: жадная начальная расстановка и улучшающие замены,
+ * пока штраф (отклонение от целей + повторы рецептов) уменьшается.
+ */
+@Service
+public class MealPlanGenerator {
+
+    public static final int MAX_DAYS = 31;
+    public static final int DEFAULT_DAYS = 7;
+    public static final int DEFAULT_CALORIES = 2000;
+
+    static final int MEALS = 3;
+
+    // Доля дневных калорий на завтрак, обед и ужин
+    private static final double[] SLOT_SHARE = {0.25, 0.40, 0.35};
+    private static final double SLOT_WEIGHT = 0.1;
+
+    // Правила разнообразия: рецепт не повторяется в течение дня и в соседние VARIETY_WINDOW дней
+    private static final int VARIETY_WINDOW = 2;
+    private static final double SAME_DAY_PENALTY = 10.0;
+    private static final double REPEAT_PENALTY = 1.0;
+
+    private static final int SAMPLE = 48;
+    private static final int MAX_SWEEPS = 40;
+
+    private final RecipeCatalog recipeCatalog;
+    private final AtomicReference<NutrientTable> table = new AtomicReference<>();
+
+    public MealPlanGenerator(RecipeCatalog recipeCatalog) {
+        this.recipeCatalog = recipeCatalog;
+    }
+
+    // ================= API =================
+    public GeneratedMealPlan generate(MealPlanRequest request) {
+        return generate(nutrientTable(), request);
+    }
+
+    // Пакетная генерация для многих пользователей — параллельно на всех ядрах
+    public List<GeneratedMealPlan> generateAll(List<MealPlanRequest> requests) {
+        NutrientTable nutrients = nutrientTable();
+        return requests.parallelStream()
+                .map(request -> generate(nutrients, request))
+                .toList();
+    }
+
+    NutrientTable nutrientTable() {
+        RecipeCatalogSnapshot snapshot = recipeCatalog.snapshot();
+        NutrientTable current = table.get();
+        if (current == null || current.snapshot.getVersion() != snapshot.getVersion()) {
+            current = new NutrientTable(snapshot);
+            table.set(current);
+        }
+        return current;
+    }
+
+    private GeneratedMealPlan generate(NutrientTable nutrients, MealPlanRequest request) {
+
+        int days = request.days() == null ? DEFAULT_DAYS : request.days();
+        if (days < 1 || days > MAX_DAYS) {
+            throw new BadRequestException("Количество дней должно быть от 1 до " + MAX_DAYS);
+        }
+        requirePositive(request.calories(), "Калории");
+        requirePositive(request.proteins(), "Белки");
+        requirePositive(request.fats(), "Жиры");
+        requirePositive(request.carbs(), "Углеводы");
+
+        int[] candidates = nutrients.candidates(request.diet());
+        if (candidates.length == 0) {
+            throw new BadRequestException("Нет рецептов для диеты: " + request.diet());
+        }
+
+        boolean noTargets = request.calories() == null && request.proteins() == null
+                && request.fats() == null && request.carbs() == null;
+
+        double[] targets = {
+                noTargets ? DEFAULT_CALORIES : value(request.calories()),
+                value(request.proteins()),
+                value(request.fats()),
+                value(request.carbs())
+        };
+
+        long seed = request.seed() != null ? request.seed() : ThreadLocalRandom.current().nextLong();
+        Solver solver = new Solver(nutrients, candidates, targets, days, new SplittableRandom(seed));
+        solver.solve();
+
+        return solver.toPlan();
+    }
+
+    // Незаданная цель не учитывается, заданная должна быть положительной: ноль или минус молча выключили бы её
+    private static void requirePositive(Number target, String name) {
+        if (target != null && !(target.doubleValue() > 0 && Double.isFinite(target.doubleValue()))) {
+            throw new BadRequestException(name + ": цель должна быть больше нуля");
+        }
+    }
+
+    private static double value(Number n) {
+        return n == null ? 0 : n.doubleValue();
+    }
+
+    // ================= DATA =================
+
+    // Нутриенты рецептов снимка в виде плотных массивов: индекс = позиция в снимке
+    static final class NutrientTable {
+
+        final RecipeCatalogSnapshot snapshot;
+        final long[] ids;
+        final double[][] nutrients;   // [0] ккал, [1] белки, [2] жиры, [3] углеводы
+        final int[] diets;            // индекс диеты или -1
+        final Map<String, Integer> dietIndex = new HashMap<>();
+        final Map<Integer, int[]> byDiet = new ConcurrentHashMap<>();
+        final int[] all;
+
+        NutrientTable(RecipeCatalogSnapshot snapshot) {
+            List<Recipe> recipes = snapshot.getRecipes();
+            int n = recipes.size();
+
+            this.snapshot = snapshot;
+            this.ids = new long[n];
+            this.nutrients = new double[4][n];
+            this.diets = new int[n];
+            this.all = new int[n];
+
+            for (int i = 0; i < n; i++) {
+                Recipe r = recipes.get(i);
+                ids[i] = r.getId();
+                nutrients[0][i] = value(r.getCalories());
+                nutrients[1][i] = value(r.getProteins());
+                nutrients[2][i] = value(r.getFats());
+                nutrients[3][i] = value(r.getCarbs());
+                all[i] = i;
+
+                String diet = r.getDiet() == null || r.getDiet().getName() == null
+                        ? null : r.getDiet().getName().toLowerCase(Locale.ROOT);
+                diets[i] = diet == null ? -1 : dietIndex.computeIfAbsent(diet, k -> dietIndex.size());
+            }
+        }
+
+        int[] candidates(String diet) {
+            if (diet == null || diet.isBlank()) {
+                return all;
+            }
+            Integer idx = dietIndex.get(diet.toLowerCase(Locale.ROOT));
+            if (idx == null) {
+                return new int[0];
+            }
+            return byDiet.computeIfAbsent(idx, d -> {
+                int count = 0;
+                int[] result = new int[diets.length];
+                for (int i = 0; i < diets.length; i++) {
+                    if (diets[i] == d) {
+                        result[count++] = i;
+                    }
+                }
+                return Arrays.copyOf(result, count);
+            });
+        }
+    }
+
+    // ================= SOLVER =================
+    private static final class Solver {
+
+        final double[][] nutrients;
+        final int[] candidates;
+        final double[] targets;
+        final int days;
+        final SplittableRandom random;
+        final NutrientTable table;
+
+        final int[] plan;          // [day * MEALS + slot] → индекс рецепта
+        final double[][] sums;     // [нутриент][день]
+
+        Solver(NutrientTable table, int[] candidates, double[] targets, int days, SplittableRandom random) {
+            this.table = table;
+            this.nutrients = table.nutrients;
+            this.candidates = candidates;
+            this.targets = targets;
+            this.days = days;
+            this.random = random;
+            this.plan = new int[days * MEALS];
+            this.sums = new double[4][days];
+        }
+
+        void solve() {
+            Arrays.fill(plan, -1);
+
+            // Жадная начальная расстановка: по доле калорий слота и разнообразию
+            for (int pos = 0; pos < plan.length; pos++) {
+                int best = -1;
+                double bestCost = Double.MAX_VALUE;
+                for (int i = 0, n = sampleSize(); i < n; i++) {
+                    int r = pick(i);
+                    double cost = slotCost(pos % MEALS, r) + varietyCost(pos, r);
+                    if (cost < bestCost) {
+                        bestCost = cost;
+                        best = r;
+                    }
+                }
+                assign(pos, best);
+            }
+
+            // Улучшающие замены, пока есть выигрыш
+            for (int sweep = 0; sweep < MAX_SWEEPS; sweep++) {
+                boolean improved = false;
+                for (int pos = 0; pos < plan.length; pos++) {
+                    improved |= improve(pos);
+                }
+                if (!improved) {
+                    break;
+                }
+            }
+        }
+
+        private boolean improve(int pos) {
+            int day = pos / MEALS;
+            int slot = pos % MEALS;
+            int old = plan[pos];
+
+            double base = dayCost(day, old, old) + slotCost(slot, old) + varietyCost(pos, old);
+            int best = old;
+            double bestDelta = -1e-9;
+
+            for (int i = 0, n = sampleSize(); i < n; i++) {
+                int r = pick(i);
+                if (r == old) {
+                    continue;
+                }
+                double delta = dayCost(day, old, r) + slotCost(slot, r) + varietyCost(pos, r) - base;
+                if (delta < bestDelta) {
+                    bestDelta = delta;
+                    best = r;
+                }
+            }
+
+            if (best == old) {
+                return false;
+            }
+            assign(pos, best);
+            return true;
+        }
+
+        private int sampleSize() {
+            return Math.min(SAMPLE, candidates.length);
+        }
+
+        // Если кандидатов мало — перебираем всех, иначе случайная выборка
+        private int pick(int i) {
+            return candidates.length <= SAMPLE
+                    ? candidates[i]
+                    : candidates[random.nextInt(candidates.length)];
+        }
+
+        private void assign(int pos, int recipe) {
+            int day = pos / MEALS;
+            int old = plan[pos];
+            for (int k = 0; k < 4; k++) {
+                if (old >= 0) {
+                    sums[k][day] -= nutrients[k][old];
+                }
+                sums[k][day] += nutrients[k][recipe];
+            }
+            plan[pos] = recipe;
+        }
+
+        // Квадрат относительного отклонения дневных сумм от целей, если в дне old заменить на r
+        private double dayCost(int day, int old, int r) {
+            double cost = 0;
+            for (int k = 0; k < 4; k++) {
+                if (targets[k] <= 0) {
+                    continue;
+                }
+                double sum = sums[k][day] - (old >= 0 ? nutrients[k][old] : 0) + nutrients[k][r];
+                double dev = (sum - targets[k]) / targets[k];
+                cost += dev * dev;
+            }
+            return cost;
+        }
+
+        private double slotCost(int slot, int r) {
+            if (targets[0] <= 0) {
+                return 0;
+            }
+            double dev = (nutrients[0][r] - targets[0] * SLOT_SHARE[slot]) / targets[0];
+            return SLOT_WEIGHT * dev * dev;
+        }
+
+        private double varietyCost(int pos, int r) {
+            int day = pos / MEALS;
+            double cost = 0;
+            int from = Math.max(0, day - VARIETY_WINDOW) * MEALS;
+            int to = Math.min(days - 1, day + VARIETY_WINDOW) * MEALS + MEALS;
+            for (int q = from; q < to; q++) {
+                if (q != pos && plan[q] == r) {
+                    cost += q / MEALS == day ? SAME_DAY_PENALTY : REPEAT_PENALTY;
+                }
+            }
+            return cost;
+        }
+
+        GeneratedMealPlan toPlan() {
+            RecipeCatalogSnapshot snapshot = table.snapshot;
+            List<PlannedDay> result = new ArrayList<>(days);
+            double penalty = 0;
+
+            for (int day = 0; day < days; day++) {
+                int base = day * MEALS;
+                penalty += dayCost(day, plan[base], plan[base]);
+                for (int slot = 0; slot < MEALS; slot++) {
+                    penalty += slotCost(slot, plan[base + slot]) + varietyCost(base + slot, plan[base + slot]) / 2;
+                }
+
+                result.add(new PlannedDay(
+                        day + 1,
+                        snapshot.summaryOf(table.ids[plan[base]]),
+                        snapshot.summaryOf(table.ids[plan[base + 1]]),
+                        snapshot.summaryOf(table.ids[plan[base + 2]]),
+                        (int) Math.round(sums[0][day]),
+                        (float) sums[1][day],
+                        (float) sums[2][day],
+                        (float) sums[3][day]
+                ));
+            }
+
+            return new GeneratedMealPlan(result, penalty);
+        }
+    }
+}
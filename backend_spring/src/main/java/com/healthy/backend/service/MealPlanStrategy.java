@@ -0,0 +1,16 @@
+package com.healthy.backend.service;
+
+import com.healthy.backend.dto.PlannedDay;
+import com.healthy.backend.entity.User;
+
+import java.time.LocalDate;
+
+/**
+ * Стратегия подбора рецептов на один день для одного пользователя
+ * (используется ночной генерацией планов). Должна быть потокобезопасной.
+ */
+public interface MealPlanStrategy {
+
+    // null — пропустить пользователя
+    PlannedDay planFor(User user, LocalDate date);
+}
@@ -0,0 +1,208 @@
+package com.healthy.backend.service;
+
+import com.healthy.backend.dto.NightlyJobStatus;
+import com.healthy.backend.dto.PlannedDay;
+import com.healthy.backend.entity.User;
+import com.healthy.backend.repository.MealPlanRepository;
+import com.healthy.backend.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Date;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ночная генерация планов питания на завтра для всех пользователей.
+ * Пользователи читаются страницами (keyset по id), планы считаются на виртуальных
+ * потоках с ограничением параллелизма, а каждая страница пишется одной пакетной вставкой.
+ */
+@Component
+public class NightlyMealPlanJob {
+
+    private static final Logger log = LoggerFactory.getLogger(NightlyMealPlanJob.class);
+
+    private final UserRepository userRepository;
+    private final MealPlanRepository mealPlanRepository;
+    private final MealPlanBatchWriter mealPlanBatchWriter;
+    private final MealPlanStrategy mealPlanStrategy;
+    private final int pageSize;
+    private final int parallelism;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile Progress progress = new Progress(null);
+
+    public NightlyMealPlanJob(UserRepository userRepository,
+                              MealPlanRepository mealPlanRepository,
+                              MealPlanBatchWriter mealPlanBatchWriter,
+                              MealPlanStrategy mealPlanStrategy,
+                              @Value("${meal-plans.nightly.page-size:500}") int pageSize,
+                              @Value("${meal-plans.nightly.parallelism:64}") int parallelism) {
+        this.userRepository = userRepository;
+        this.mealPlanRepository = mealPlanRepository;
+        this.mealPlanBatchWriter = mealPlanBatchWriter;
+        this.mealPlanStrategy = mealPlanStrategy;
+        this.pageSize = pageSize;
+        this.parallelism = parallelism;
+    }
+
+    @Scheduled(cron = "${meal-plans.nightly.cron:0 0 2 * * *}")
+    public void runNightly() {
+        run(LocalDate.now().plusDays(1));
+    }
+
+    // Запуск вручную (из админки) в фоне; false — если задача уже идёт
+    public boolean startAsync(LocalDate date) {
+        if (running.get()) {
+            return false;
+        }
+        Thread.ofVirtual().name("nightly-meal-plans").start(() -> run(date));
+        return true;
+    }
+
+    public NightlyJobStatus status() {
+        return progress.toStatus(running.get());
+    }
+
+    public NightlyJobStatus run(LocalDate date) {
+
+        if (!running.compareAndSet(false, true)) {
+            log.warn("Ночная генерация планов уже выполняется, повторный запуск пропущен");
+            return status();
+        }
+
+        Progress current = new Progress(date);
+        progress = current;
+        log.info("Ночная генерация планов на {}: старт (страница {}, параллелизм {})",
+                date, pageSize, parallelism);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Semaphore permits = new Semaphore(parallelism);
+            Date planDate = Date.valueOf(date);
+            long lastId = 0;
+
+            while (true) {
+                List<User> users = userRepository.findByIdGreaterThanOrderByIdAsc(lastId, PageRequest.of(0, pageSize));
+                if (users.isEmpty()) {
+                    break;
+                }
+                lastId = users.get(users.size() - 1).getId();
+
+                List<Long> ids = users.stream().map(User::getId).toList();
+                Set<Long> alreadyPlanned = new HashSet<>(mealPlanRepository.findUserIdsWithPlanOn(planDate, ids));
+
+                Map<Long, Future<PlannedDay>> pending = new LinkedHashMap<>();
+                for (User user : users) {
+                    if (alreadyPlanned.contains(user.getId())) {
+                        current.skipped.incrementAndGet();
+                        continue;
+                    }
+                    permits.acquire();
+                    pending.put(user.getId(), executor.submit(() -> {
+                        try {
+                            return mealPlanStrategy.planFor(user, date);
+                        } finally {
+                            permits.release();
+                        }
+                    }));
+                }
+
+                Map<Long, PlannedDay> plans = collect(pending, current);
+                current.plansWritten.addAndGet(mealPlanBatchWriter.insertAll(date, plans));
+                current.usersProcessed.addAndGet(users.size());
+
+                NightlyJobStatus s = current.toStatus(true);
+                log.info("Ночная генерация планов: пользователей {}, записано {}, пропущено {}, ошибок {}, {} планов/с",
+                        s.usersProcessed(), s.plansWritten(), s.skipped(), s.failed(),
+                        String.format("%.1f", s.plansPerSecond()));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Ночная генерация планов прервана");
+        } catch (RuntimeException e) {
+            log.error("Ночная генерация планов завершилась с ошибкой", e);
+        } finally {
+            current.finishedAt = Instant.now();
+            running.set(false);
+        }
+
+        NightlyJobStatus result = current.toStatus(false);
+        log.info("Ночная генерация планов на {} завершена: {}", date, result);
+        return result;
+    }
+
+    private Map<Long, PlannedDay> collect(Map<Long, Future<PlannedDay>> pending, Progress current)
+            throws InterruptedException {
+
+        Map<Long, PlannedDay> plans = new LinkedHashMap<>();
+        List<Long> failedUsers = new ArrayList<>();
+
+        for (Map.Entry<Long, Future<PlannedDay>> e : pending.entrySet()) {
+            try {
+                PlannedDay day = e.getValue().get();
+                if (day != null) {
+                    plans.put(e.getKey(), day);
+                } else {
+                    current.skipped.incrementAndGet();
+                }
+            } catch (ExecutionException ex) {
+                current.failed.incrementAndGet();
+                failedUsers.add(e.getKey());
+                log.debug("План для пользователя {} не составлен", e.getKey(), ex.getCause());
+            }
+        }
+
+        if (!failedUsers.isEmpty()) {
+            log.warn("Не удалось составить план для {} пользователей: {}", failedUsers.size(), failedUsers);
+        }
+        return plans;
+    }
+
+    private static final class Progress {
+        final LocalDate planDate;
+        final Instant startedAt = Instant.now();
+        final AtomicLong usersProcessed = new AtomicLong();
+        final AtomicLong plansWritten = new AtomicLong();
+        final AtomicLong skipped = new AtomicLong();
+        final AtomicLong failed = new AtomicLong();
+        volatile Instant finishedAt;
+
+        Progress(LocalDate planDate) {
+            this.planDate = planDate;
+        }
+
+        NightlyJobStatus toStatus(boolean running) {
+            Instant end = finishedAt != null ? finishedAt : Instant.now();
+            double seconds = Math.max(Duration.between(startedAt, end).toMillis(), 1) / 1000.0;
+            return new NightlyJobStatus(
+                    running,
+                    planDate,
+                    usersProcessed.get(),
+                    plansWritten.get(),
+                    skipped.get(),
+                    failed.get(),
+                    planDate == null ? 0 : plansWritten.get() / seconds,
+                    planDate == null ? null : startedAt,
+                    finishedAt
+            );
+        }
+    }
+}
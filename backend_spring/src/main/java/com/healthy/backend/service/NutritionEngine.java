@@ -0,0 +1,198 @@
+package com.healthy.backend.service;
+
+import com.healthy.backend.dto.NutritionRecomputeResult;
+import com.healthy.backend.exception.BadRequestException;
+import com.healthy.backend.exception.NotFoundException;
+import com.healthy.backend.model.Ingredient;
+import com.healthy.backend.model.Recipe;
+import com.healthy.backend.repository.IngredientRepository;
+import com.healthy.backend.repository.RecipeIngredientRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * КБЖУ рецептов, выведенные из граммовок ингредиентов (recipe_ingredients.amount_grams).
+ * Матрицы {@link NutritionMatrix} строятся один раз и держатся в памяти: полный пересчёт —
+ * один проход по ненулевым элементам, а изменение ингредиента пересчитывает только
+ * рецепты из его столбца. В БД пишутся лишь рецепты, у которых значения изменились.
+ * Рецепты с неполными данными не трогаем — у них остаются заданные вручную значения.
+ */
+@Service
+public class NutritionEngine implements RecipeCatalogListener {
+
+    private static final Logger log = LoggerFactory.getLogger(NutritionEngine.class);
+
+    private final IngredientRepository ingredientRepository;
+    private final RecipeIngredientRepository recipeIngredientRepository;
+    private final RecipeBatchWriter recipeBatchWriter;
+    private final RecipeCatalog recipeCatalog;
+
+    private NutritionMatrix matrix;        // под this
+    private volatile boolean stale = true; // состав рецептов мог измениться
+
+    public NutritionEngine(IngredientRepository ingredientRepository,
+                           RecipeIngredientRepository recipeIngredientRepository,
+                           RecipeBatchWriter recipeBatchWriter,
+                           RecipeCatalog recipeCatalog) {
+        this.ingredientRepository = ingredientRepository;
+        this.recipeIngredientRepository = recipeIngredientRepository;
+        this.recipeBatchWriter = recipeBatchWriter;
+        this.recipeCatalog = recipeCatalog;
+    }
+
+    // ================= ПОЛНЫЙ ПЕРЕСЧЁТ =================
+    public synchronized NutritionRecomputeResult recomputeAll() {
+
+        long started = System.nanoTime();
+        NutritionMatrix m = matrix();
+        double[][] values = m.computeAll();
+
+        int recipes = 0;
+        int incomplete = 0;
+        Map<Long, double[]> changed = new LinkedHashMap<>();
+        RecipeCatalogSnapshot snapshot = recipeCatalog.snapshot();
+
+        for (int row = 0; row < m.rows(); row++) {
+            if (!m.complete(row)) {
+                incomplete++;
+                continue;
+            }
+            recipes++;
+            double[] macros = {values[0][row], values[1][row], values[2][row], values[3][row]};
+            collectIfChanged(snapshot, m.recipeIds[row], macros, changed);
+        }
+
+        return write(changed, recipes, incomplete, started, false);
+    }
+
+    // ================= ИЗМЕНЕНИЕ ИНГРЕДИЕНТА =================
+    // Частичное обновление: null-поля не меняются
+    public synchronized NutritionRecomputeResult updateIngredient(Long id, Ingredient changes) {
+
+        if (changes == null) {
+            throw new BadRequestException("Пустое тело запроса");
+        }
+        if (isNegative(changes.getCaloriesPer100g()) || isNegative(changes.getProteins())
+                || isNegative(changes.getFats()) || isNegative(changes.getCarbs())) {
+            throw new BadRequestException("Калории и БЖУ не могут быть отрицательными");
+        }
+
+        long started = System.nanoTime();
+        Ingredient ingredient = ingredientRepository.findById(id)
+                .orElseThrow(() -> new NotFoundException("Ingredient not found"));
+
+        boolean modified = false;
+        if (changes.getName() != null && !changes.getName().isBlank()
+                && !changes.getName().trim().equals(ingredient.getName())) {
+            ingredient.setName(changes.getName().trim());
+            modified = true;
+        }
+        if (changes.getCaloriesPer100g() != null && !changes.getCaloriesPer100g().equals(ingredient.getCaloriesPer100g())) {
+            ingredient.setCaloriesPer100g(changes.getCaloriesPer100g());
+            modified = true;
+        }
+        if (changes.getProteins() != null && !changes.getProteins().equals(ingredient.getProteins())) {
+            ingredient.setProteins(changes.getProteins());
+            modified = true;
+        }
+        if (changes.getFats() != null && !changes.getFats().equals(ingredient.getFats())) {
+            ingredient.setFats(changes.getFats());
+            modified = true;
+        }
+        if (changes.getCarbs() != null && !changes.getCarbs().equals(ingredient.getCarbs())) {
+            ingredient.setCarbs(changes.getCarbs());
+            modified = true;
+        }
+        Ingredient saved = ingredientRepository.save(ingredient);
+
+        NutritionMatrix m = matrix();
+        int col = m.column(saved.getId());
+        if (col < 0) {
+            // Ингредиент появился после построения матриц — строим заново
+            stale = true;
+            m = matrix();
+            col = m.column(saved.getId());
+        }
+        m.setIngredient(col, saved);
+
+        int recipes = 0;
+        int incomplete = 0;
+        double[] macros = new double[NutritionMatrix.NUTRIENTS];
+        Map<Long, double[]> changed = new LinkedHashMap<>();
+        RecipeCatalogSnapshot snapshot = recipeCatalog.snapshot();
+
+        for (int row : m.rowsUsing(col)) {
+            if (!m.complete(row)) {
+                incomplete++;
+                continue;
+            }
+            recipes++;
+            m.compute(row, macros);
+            collectIfChanged(snapshot, m.recipeIds[row], macros.clone(), changed);
+        }
+
+        // Ингредиент лежит в снимке каталога внутри рецептов (имена в индексе ингредиентов,
+        // списке покупок, JSON-кэше) — снимок устарел, даже если округлённые КБЖУ не сдвинулись
+        return write(changed, recipes, incomplete, started, modified);
+    }
+
+    // ================= UPDATES =================
+    // Вызывается под блокировкой каталога — только помечаем, перестроим при следующем расчёте
+    @Override
+    public void onCatalogRebuilt(RecipeCatalogSnapshot snapshot) {
+        stale = true;
+    }
+
+    private NutritionMatrix matrix() {
+        if (matrix == null || stale) {
+            stale = false;
+            long started = System.nanoTime();
+            matrix = NutritionMatrix.build(ingredientRepository.findAll(), recipeIngredientRepository.findAllAmounts());
+            log.debug("Матрица КБЖУ собрана: {} рецептов × {} ингредиентов за {} мс",
+                    matrix.rows(), matrix.ingredientIds.length, (System.nanoTime() - started) / 1_000_000);
+        }
+        return matrix;
+    }
+
+    // Сравниваем с уже округлёнными значениями — как они будут лежать в БД
+    private void collectIfChanged(RecipeCatalogSnapshot snapshot, long recipeId, double[] macros,
+                                  Map<Long, double[]> changed) {
+        macros[0] = Math.round(macros[0]);
+        for (int k = 1; k < NutritionMatrix.NUTRIENTS; k++) {
+            macros[k] = (float) (Math.round(macros[k] * 10) / 10.0);
+        }
+
+        Recipe recipe = snapshot.findById(recipeId);
+        if (recipe == null
+                || !Objects.equals(recipe.getCalories(), (int) macros[0])
+                || !Objects.equals(recipe.getProteins(), (float) macros[1])
+                || !Objects.equals(recipe.getFats(), (float) macros[2])
+                || !Objects.equals(recipe.getCarbs(), (float) macros[3])) {
+            changed.put(recipeId, macros);
+        }
+    }
+
+    // catalogChanged — в каталоге поменялось что-то кроме КБЖУ рецептов, перечитать его нужно в любом случае
+    private NutritionRecomputeResult write(Map<Long, double[]> changed, int recipes, int incomplete, long started,
+                                           boolean catalogChanged) {
+
+        int updated = changed.isEmpty() ? 0 : recipeBatchWriter.updateNutrition(changed);
+        if (updated > 0 || catalogChanged) {
+            recipeCatalog.reload();
+        }
+
+        long durationMs = (System.nanoTime() - started) / 1_000_000;
+        log.info("Пересчёт КБЖУ: рецептов {}, изменено {}, неполных {} за {} мс",
+                recipes, updated, incomplete, durationMs);
+        return new NutritionRecomputeResult(recipes, updated, incomplete, durationMs);
+    }
+
+    private static boolean isNegative(Number value) {
+        return value != null && value.doubleValue() < 0;
+    }
+}
@@ -0,0 +1,183 @@
+package com.healthy.backend.service;
+
+import com.healthy.backend.model.Ingredient;
+import com.healthy.backend.repository.RecipeIngredientRepository;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Матрицы для расчёта КБЖУ рецептов по ингредиентам.
+ * Нутриенты ингредиентов на 100 г — плотная матрица [нутриент][ингредиент],
+ * граммовки — разреженная матрица рецепт × ингредиент в формате CSR
+ * (плюс обратный индекс ингредиент → рецепты, чтобы пересчитывать только затронутые строки).
+ * Не потокобезопасна — доступ под блокировкой {@link NutritionEngine}.
+ */
+final class NutritionMatrix {
+
+    static final int NUTRIENTS = 4;   // [0] ккал, [1] белки, [2] жиры, [3] углеводы
+
+    final long[] recipeIds;           // строки, по возрастанию
+    final long[] ingredientIds;       // столбцы, по возрастанию
+
+    private final double[][] per100g; // [нутриент][столбец]
+    private final boolean[] missing;  // у ингредиента не заполнены нутриенты
+
+    private final int[] rowStart;     // CSR: элементы строки r — [rowStart[r], rowStart[r + 1])
+    private final int[] columns;
+    private final double[] grams;
+    private final boolean[] noAmount; // в рецепте есть ингредиент без граммовки
+
+    private final int[] colStart;     // обратный индекс: строки столбца c — usedBy[colStart[c] .. colStart[c + 1])
+    private final int[] usedBy;
+
+    private NutritionMatrix(long[] recipeIds, long[] ingredientIds, int[] rowStart, int[] columns,
+                            double[] grams, boolean[] noAmount) {
+        this.recipeIds = recipeIds;
+        this.ingredientIds = ingredientIds;
+        this.per100g = new double[NUTRIENTS][ingredientIds.length];
+        this.missing = new boolean[ingredientIds.length];
+        this.rowStart = rowStart;
+        this.columns = columns;
+        this.grams = grams;
+        this.noAmount = noAmount;
+
+        // Обратный индекс подсчётом (counting sort по столбцам)
+        this.colStart = new int[ingredientIds.length + 1];
+        for (int col : columns) {
+            colStart[col + 1]++;
+        }
+        for (int c = 0; c < ingredientIds.length; c++) {
+            colStart[c + 1] += colStart[c];
+        }
+        this.usedBy = new int[columns.length];
+        int[] fill = Arrays.copyOf(colStart, ingredientIds.length);
+        for (int r = 0; r < recipeIds.length; r++) {
+            for (int j = rowStart[r]; j < rowStart[r + 1]; j++) {
+                usedBy[fill[columns[j]]++] = r;
+            }
+        }
+    }
+
+    // amounts должны быть отсортированы по recipeId (findAllAmounts)
+    static NutritionMatrix build(List<Ingredient> ingredients, List<RecipeIngredientRepository.Amount> amounts) {
+
+        long[] ingredientIds = ingredients.stream().mapToLong(Ingredient::getId).sorted().toArray();
+
+        int rows = 0;
+        long previous = Long.MIN_VALUE;
+        for (RecipeIngredientRepository.Amount a : amounts) {
+            if (a.getRecipeId() != previous) {
+                rows++;
+                previous = a.getRecipeId();
+            }
+        }
+
+        long[] recipeIds = new long[rows];
+        int[] rowStart = new int[rows + 1];
+        int[] columns = new int[amounts.size()];
+        double[] grams = new double[amounts.size()];
+        boolean[] noAmount = new boolean[rows];
+
+        int r = -1;
+        int nnz = 0;
+        previous = Long.MIN_VALUE;
+        for (RecipeIngredientRepository.Amount a : amounts) {
+            if (a.getRecipeId() != previous) {
+                r++;
+                recipeIds[r] = a.getRecipeId();
+                rowStart[r] = nnz;
+                previous = a.getRecipeId();
+            }
+            int col = Arrays.binarySearch(ingredientIds, a.getIngredientId());
+            if (col < 0 || a.getAmountGrams() == null) {
+                noAmount[r] = true;
+                continue;
+            }
+            columns[nnz] = col;
+            grams[nnz] = a.getAmountGrams();
+            nnz++;
+        }
+        rowStart[rows] = nnz;
+
+        NutritionMatrix matrix = new NutritionMatrix(recipeIds, ingredientIds, rowStart,
+                Arrays.copyOf(columns, nnz), Arrays.copyOf(grams, nnz), noAmount);
+        for (Ingredient ingredient : ingredients) {
+            matrix.setIngredient(matrix.column(ingredient.getId()), ingredient);
+        }
+        return matrix;
+    }
+
+    int rows() {
+        return recipeIds.length;
+    }
+
+    // Столбец ингредиента или -1
+    int column(long ingredientId) {
+        int col = Arrays.binarySearch(ingredientIds, ingredientId);
+        return col < 0 ? -1 : col;
+    }
+
+    void setIngredient(int col, Ingredient ingredient) {
+        Integer calories = ingredient.getCaloriesPer100g();
+        missing[col] = calories == null || ingredient.getProteins() == null
+                || ingredient.getFats() == null || ingredient.getCarbs() == null;
+        per100g[0][col] = calories == null ? 0 : calories;
+        per100g[1][col] = ingredient.getProteins() == null ? 0 : ingredient.getProteins();
+        per100g[2][col] = ingredient.getFats() == null ? 0 : ingredient.getFats();
+        per100g[3][col] = ingredient.getCarbs() == null ? 0 : ingredient.getCarbs();
+    }
+
+    // Рецепты (строки), в которых есть ингредиент
+    int[] rowsUsing(int col) {
+        return Arrays.copyOfRange(usedBy, colStart[col], colStart[col + 1]);
+    }
+
+    // КБЖУ считается, только если у всех ингредиентов рецепта есть граммовка и нутриенты
+    boolean complete(int row) {
+        if (noAmount[row] || rowStart[row] == rowStart[row + 1]) {
+            return false;
+        }
+        for (int j = rowStart[row]; j < rowStart[row + 1]; j++) {
+            if (missing[columns[j]]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Полный пересчёт: [нутриент][строка]. Умножение граммовок на нутриенты — плоский цикл
+    // по всем ненулевым элементам, свёртка по строкам — второй проход без ветвлений
+    double[][] computeAll() {
+        int nnz = columns.length;
+        double[] products = new double[nnz];
+        double[][] result = new double[NUTRIENTS][recipeIds.length];
+
+        for (int k = 0; k < NUTRIENTS; k++) {
+            double[] nutrient = per100g[k];
+            for (int j = 0; j < nnz; j++) {
+                products[j] = grams[j] * nutrient[columns[j]];
+            }
+            double[] out = result[k];
+            for (int r = 0; r < recipeIds.length; r++) {
+                double sum = 0;
+                for (int j = rowStart[r], end = rowStart[r + 1]; j < end; j++) {
+                    sum += products[j];
+                }
+                out[r] = sum / 100.0;
+            }
+        }
+        return result;
+    }
+
+    // Пересчёт одной строки в out[нутриент]
+    void compute(int row, double[] out) {
+        for (int k = 0; k < NUTRIENTS; k++) {
+            double sum = 0;
+            for (int j = rowStart[row]; j < rowStart[row + 1]; j++) {
+                sum += grams[j] * per100g[k][columns[j]];
+            }
+            out[k] = sum / 100.0;
+        }
+    }
+}
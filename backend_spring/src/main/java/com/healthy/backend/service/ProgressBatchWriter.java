@@ -0,0 +1,205 @@
+package com.healthy.backend.service;
+
+import com.healthy.backend.model.ProgressIngestCheckpoint;
+import com.healthy.backend.repository.ProgressIngestCheckpointRepository;
+import com.healthy.backend.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Пакетная запись журнала прогресса в user_progress.
+ * Записи пачки сводятся к одной строке на (пользователь, день) по тем же правилам,
+ * что и {@link UserProgressService#record}: вес заменяется, калории суммируются.
+ * Затем одна JDBC-пачка UPDATE и одна INSERT для дней, которых ещё нет.
+ * Checkpoint журнала пишется в той же транзакции: записи с seq не больше него
+ * уже применены и при повторе пропускаются.
+ */
+@Service
+public class ProgressBatchWriter {
+
+    private static final String UPDATE =
+            "update user_progress set weight = coalesce(?, weight), " +
+            "calories_consumed = coalesce(calories_consumed + ?, calories_consumed, ?), " +
+            "calories_burned = coalesce(calories_burned + ?, calories_burned, ?) " +
+            "where user_id = ? and date = ?";
+
+    private static final String INSERT =
+            "insert into user_progress (user_id, date, weight, calories_consumed, calories_burned) " +
+            "values (?, ?, ?, ?, ?)";
+
+    private final ProgressIngestCheckpointRepository checkpointRepository;
+    private final UserProgressService userProgressService;
+    private final UserRepository userRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int batchSize;
+
+    public ProgressBatchWriter(ProgressIngestCheckpointRepository checkpointRepository,
+                               UserProgressService userProgressService,
+                               UserRepository userRepository) {
+        this.checkpointRepository = checkpointRepository;
+        this.userProgressService = userProgressService;
+        this.userRepository = userRepository;
+    }
+
+    // Записи по возрастанию seq; возвращает пользователей, чьи дни изменились
+    @Transactional
+    public Set<Long> apply(long logId, List<ProgressWal.Record> records) {
+
+        ProgressIngestCheckpoint checkpoint = checkpointRepository.findById(logId)
+                .orElseGet(() -> new ProgressIngestCheckpoint(logId));
+
+        Map<Day, Delta> days = new LinkedHashMap<>();
+        long lastSeq = checkpoint.getSeq();
+        for (ProgressWal.Record r : records) {
+            if (r.seq() <= checkpoint.getSeq()) {
+                continue;   // уже в БД: пачка была применена до сбоя
+            }
+            days.computeIfAbsent(new Day(r.userId(), r.epochDay()), d -> new Delta()).add(r);
+            lastSeq = Math.max(lastSeq, r.seq());
+        }
+        if (days.isEmpty()) {
+            return Set.of();
+        }
+
+        // Как и UserProgressService#record: дни и агрегаты пользователей пачки меняет только эта транзакция
+        Set<Long> users = new TreeSet<>();
+        for (Day day : days.keySet()) {
+            users.add(day.userId());
+        }
+        userRepository.lockForProgress(users);
+
+        entityManager.unwrap(Session.class).doWork(connection -> {
+            List<Map.Entry<Day, Delta>> rows = new ArrayList<>(days.entrySet());
+            List<Map.Entry<Day, Delta>> missing = new ArrayList<>();
+
+            try (PreparedStatement ps = connection.prepareStatement(UPDATE)) {
+                for (int from = 0; from < rows.size(); from += batchSize) {
+                    List<Map.Entry<Day, Delta>> chunk = rows.subList(from, Math.min(from + batchSize, rows.size()));
+                    for (Map.Entry<Day, Delta> e : chunk) {
+                        Delta d = e.getValue();
+                        setFloat(ps, 1, d.weight);
+                        setInt(ps, 2, d.consumed);
+                        setInt(ps, 3, d.consumed);
+                        setInt(ps, 4, d.burned);
+                        setInt(ps, 5, d.burned);
+                        ps.setLong(6, e.getKey().userId());
+                        ps.setDate(7, e.getKey().date());
+                        ps.addBatch();
+                    }
+                    int[] updated = ps.executeBatch();
+                    for (int i = 0; i < updated.length; i++) {
+                        if (updated[i] == 0) {
+                            missing.add(chunk.get(i));
+                        }
+                    }
+                }
+            }
+
+            if (!missing.isEmpty()) {
+                try (PreparedStatement ps = connection.prepareStatement(INSERT)) {
+                    int written = 0;
+                    for (Map.Entry<Day, Delta> e : missing) {
+                        Delta d = e.getValue();
+                        ps.setLong(1, e.getKey().userId());
+                        ps.setDate(2, e.getKey().date());
+                        setFloat(ps, 3, d.weight);
+                        setInt(ps, 4, d.consumed);
+                        setInt(ps, 5, d.burned);
+                        ps.addBatch();
+
+                        if (++written % batchSize == 0) {
+                            ps.executeBatch();
+                        }
+                    }
+                    ps.executeBatch();
+                }
+            }
+        });
+
+        checkpoint.setSeq(lastSeq);
+        checkpointRepository.save(checkpoint);
+
+        // Агрегаты недель и месяцев — по затронутым датам каждого пользователя
+        Map<Long, Set<LocalDate>> touched = new HashMap<>();
+        for (Day day : days.keySet()) {
+            touched.computeIfAbsent(day.userId(), id -> new TreeSet<>()).add(LocalDate.ofEpochDay(day.epochDay()));
+        }
+        touched.forEach(userProgressService::refreshRollups);
+
+        return touched.keySet();
+    }
+
+    // Записи до seq считаются применёнными (отброшенная запись, которую БД не принимает)
+    @Transactional
+    public void skip(long logId, long seq) {
+        ProgressIngestCheckpoint checkpoint = checkpointRepository.findById(logId)
+                .orElseGet(() -> new ProgressIngestCheckpoint(logId));
+        if (checkpoint.getSeq() < seq) {
+            checkpoint.setSeq(seq);
+            checkpointRepository.save(checkpoint);
+        }
+    }
+
+    private static void setFloat(PreparedStatement ps, int index, Float value) throws SQLException {
+        if (value == null) {
+            ps.setNull(index, Types.REAL);
+        } else {
+            ps.setFloat(index, value);
+        }
+    }
+
+    private static void setInt(PreparedStatement ps, int index, Integer value) throws SQLException {
+        if (value == null) {
+            ps.setNull(index, Types.INTEGER);
+        } else {
+            ps.setInt(index, value);
+        }
+    }
+
+    private record Day(long userId, long epochDay) {
+        Date date() {
+            return Date.valueOf(LocalDate.ofEpochDay(epochDay));
+        }
+    }
+
+    // Итог записей одного дня в порядке seq
+    private static final class Delta {
+
+        Float weight;
+        Integer consumed;
+        Integer burned;
+
+        void add(ProgressWal.Record r) {
+            if (r.weight() != null) {
+                weight = r.weight();
+            }
+            if (r.caloriesConsumed() != null) {
+                consumed = consumed == null ? r.caloriesConsumed() : consumed + r.caloriesConsumed();
+            }
+            if (r.caloriesBurned() != null) {
+                burned = burned == null ? r.caloriesBurned() : burned + r.caloriesBurned();
+            }
+        }
+    }
+}
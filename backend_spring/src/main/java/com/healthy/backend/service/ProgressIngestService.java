@@ -0,0 +1,298 @@
+package com.healthy.backend.service;
+
+import com.healthy.backend.dto.ProgressEntry;
+import com.healthy.backend.exception.BadRequestException;
+import com.healthy.backend.exception.ServiceBusyException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Приём записей прогресса с отложенной записью в БД.
+ * Запрос подтверждается, как только записи легли в журнал {@link ProgressWal}
+ * (файл на локальном диске) — без транзакции и соединения из пула.
+ * Фоновый поток сбрасывает журнал в user_progress пачками до batch-size записей
+ * (или раз в flush-interval), после чего сдвигает checkpoint журнала.
+ * При старте несброшенные записи журнала ставятся в очередь первыми; записи,
+ * которые успели попасть в БД до сбоя, отсеивает checkpoint в БД ({@link ProgressBatchWriter}).
+ * Пачка, которая не записывается несколько раз подряд, пишется по одной записи: запись,
+ * которую БД не примет никогда (нарушение ограничения, неверные данные), пропускается,
+ * а на временной ошибке сброс останавливается и повторяется, ничего не теряя.
+ */
+@Service
+public class ProgressIngestService {
+
+    private static final Logger log = LoggerFactory.getLogger(ProgressIngestService.class);
+
+    public static final int MAX_ENTRIES = 500;
+    private static final int MAX_ATTEMPTS = 3;
+    private static final long RETRY_DELAY_MS = 1000;
+
+    // Куда сбрасывать журнал; в приложении — ProgressBatchWriter
+    interface Sink {
+
+        // Применяет записи (по возрастанию seq) и возвращает пользователей, чьи дни изменились
+        Set<Long> apply(long logId, List<ProgressWal.Record> records);
+
+        // Помечает записи до seq применёнными, не записывая их
+        void skip(long logId, long seq);
+    }
+
+    private final ProgressWal wal;
+    private final Sink sink;
+    private final UserProgressService userProgressService;
+    private final int batchSize;
+    private final long flushIntervalMs;
+
+    private final Object lock = new Object();
+    private final ArrayDeque<ProgressWal.Record> queue = new ArrayDeque<>();   // под lock, по возрастанию seq
+
+    private volatile boolean running;
+    private Thread flusher;
+    private int failures;   // только поток сброса
+
+    @Autowired
+    public ProgressIngestService(ProgressBatchWriter progressBatchWriter,
+                                 UserProgressService userProgressService,
+                                 @Value("${progress.ingest.dir:data/progress-wal}") String dir,
+                                 @Value("${progress.ingest.wal-size-mb:64}") int walSizeMb,
+                                 @Value("${progress.ingest.batch-size:1000}") int batchSize,
+                                 @Value("${progress.ingest.flush-interval-ms:200}") long flushIntervalMs) {
+        this(openWal(Path.of(dir).resolve("progress.wal"), walSizeMb * 1024 * 1024),
+                new Sink() {
+                    @Override
+                    public Set<Long> apply(long logId, List<ProgressWal.Record> records) {
+                        return progressBatchWriter.apply(logId, records);
+                    }
+
+                    @Override
+                    public void skip(long logId, long seq) {
+                        progressBatchWriter.skip(logId, seq);
+                    }
+                },
+                userProgressService, batchSize, flushIntervalMs);
+    }
+
+    ProgressIngestService(ProgressWal wal, Sink sink, UserProgressService userProgressService,
+                          int batchSize, long flushIntervalMs) {
+        this.wal = wal;
+        this.sink = sink;
+        this.userProgressService = userProgressService;
+        this.batchSize = Math.max(1, batchSize);
+        this.flushIntervalMs = Math.max(1, flushIntervalMs);
+
+        List<ProgressWal.Record> recovered = wal.recovered();
+        queue.addAll(recovered);
+        if (!recovered.isEmpty()) {
+            log.info("Журнал прогресса: {} несброшенных записей (seq {}–{}) будут записаны повторно",
+                    recovered.size(), recovered.get(0).seq(), recovered.get(recovered.size() - 1).seq());
+        }
+    }
+
+    private static ProgressWal openWal(Path file, int size) {
+        try {
+            return ProgressWal.open(file, size);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось открыть журнал прогресса " + file, e);
+        }
+    }
+
+    // ================= ПРИЁМ =================
+    // Возвращает seq последней записи; после возврата записи переживут падение процесса
+    public long append(Long userId, List<ProgressEntry> entries) {
+
+        if (entries == null || entries.isEmpty()) {
+            throw new BadRequestException("Нет записей прогресса");
+        }
+        if (entries.size() > MAX_ENTRIES) {
+            throw new BadRequestException("Не больше " + MAX_ENTRIES + " записей за запрос");
+        }
+
+        LocalDate today = LocalDate.now();
+        List<ProgressWal.Record> records = new ArrayList<>(entries.size());
+        for (ProgressEntry entry : entries) {
+            UserProgressService.validate(entry);
+            LocalDate date = entry.date() != null ? entry.date() : today;
+            records.add(new ProgressWal.Record(0, userId, date.toEpochDay(), entry.weight(),
+                    entry.caloriesConsumed(), entry.caloriesBurned()));
+        }
+
+        synchronized (lock) {
+            List<ProgressWal.Record> written = wal.append(userId, records);
+            if (written == null) {
+                lock.notifyAll();
+                throw new ServiceBusyException("Журнал прогресса заполнен, повторите попытку позже");
+            }
+            queue.addAll(written);
+            if (queue.size() >= batchSize) {
+                lock.notifyAll();
+            }
+            return written.get(written.size() - 1).seq();
+        }
+    }
+
+    // Записи, принятые, но ещё не записанные в БД
+    public int pending() {
+        synchronized (lock) {
+            return queue.size();
+        }
+    }
+
+    // ================= СБРОС =================
+    // Одна пачка из головы очереди; записи уходят из очереди только после записи в БД
+    int flushOnce() {
+
+        List<ProgressWal.Record> batch = new ArrayList<>();
+        synchronized (lock) {
+            Iterator<ProgressWal.Record> it = queue.iterator();
+            while (it.hasNext() && batch.size() < batchSize) {
+                batch.add(it.next());
+            }
+        }
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        Set<Long> users;
+        try {
+            users = sink.apply(wal.logId(), batch);
+            failures = 0;
+        } catch (RuntimeException e) {
+            if (++failures < MAX_ATTEMPTS) {
+                throw e;
+            }
+            failures = 0;
+            return applyOneByOne(batch);
+        }
+
+        complete(batch, users);
+        return batch.size();
+    }
+
+    // Пачка не записывается несколько раз подряд: по одной. Запись с постоянной ошибкой пропускаем;
+    // на временной — снимаем с очереди то, что уже записано, и отдаём ошибку на повтор
+    private int applyOneByOne(List<ProgressWal.Record> batch) {
+        Set<Long> users = new HashSet<>();
+        int done = 0;
+        try {
+            for (ProgressWal.Record record : batch) {
+                try {
+                    users.addAll(sink.apply(wal.logId(), List.of(record)));
+                } catch (RuntimeException e) {
+                    if (!permanent(e)) {
+                        throw e;
+                    }
+                    log.error("Запись прогресса seq={} пользователя {} отброшена: {}",
+                            record.seq(), record.userId(), e.getMessage());
+                    sink.skip(wal.logId(), record.seq());
+                }
+                done++;
+            }
+        } finally {
+            if (done > 0) {
+                complete(batch.subList(0, done), users);
+            }
+        }
+        return done;
+    }
+
+    // Записи из головы очереди в БД: снимаем их с очереди и сдвигаем checkpoint журнала
+    private void complete(List<ProgressWal.Record> records, Set<Long> users) {
+        synchronized (lock) {
+            for (int i = 0; i < records.size(); i++) {
+                queue.pollFirst();
+            }
+            wal.checkpoint(records.get(records.size() - 1).seq());
+        }
+        // Кольца сводки этих пользователей перечитаются уже с новыми днями
+        userProgressService.forget(users);
+    }
+
+    // Повтор не поможет: нарушено ограничение БД (нет пользователя, дубликат) или неверные данные (SQLSTATE 22/23)
+    private static boolean permanent(Throwable e) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof DataIntegrityViolationException || t instanceof BadRequestException) {
+                return true;
+            }
+            if (t instanceof SQLException sql && sql.getSQLState() != null
+                    && (sql.getSQLState().startsWith("22") || sql.getSQLState().startsWith("23"))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        flusher = new Thread(this::run, "progress-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                synchronized (lock) {
+                    if (running && queue.size() < batchSize) {
+                        lock.wait(flushIntervalMs);
+                    }
+                }
+                while (flushOnce() == batchSize) {
+                    // полная пачка — в очереди может быть ещё
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.warn("Сброс журнала прогресса не удался, повтор через {} мс: {}", RETRY_DELAY_MS, e.getMessage());
+                try {
+                    Thread.sleep(RETRY_DELAY_MS);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    // Остаток очереди пытаемся сбросить; что не успело — останется в журнале до следующего старта
+    @PreDestroy
+    public void shutdown() throws IOException, InterruptedException {
+        running = false;
+        if (flusher != null) {
+            synchronized (lock) {
+                lock.notifyAll();
+            }
+            flusher.join(10_000);
+            if (!flusher.isAlive()) {
+                try {
+                    while (flushOnce() > 0) {
+                        // до пустой очереди
+                    }
+                } catch (RuntimeException e) {
+                    log.warn("Журнал прогресса сброшен не полностью, остаток ({}) будет записан при следующем запуске",
+                            pending());
+                }
+            }
+        }
+        wal.close();
+    }
+}
@@ -0,0 +1,241 @@
+package com.healthy.backend.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * Журнал упреждающей записи прогресса в отображённом в память файле фиксированного размера.
+ * Заголовок хранит id журнала и checkpoint — последний seq, уже записанный в БД.
+ * Записи фиксированной длины с CRC; append возвращает управление после force(),
+ * т.е. когда записи на диске. Слоты — кольцо: записи идут подряд по seq и за концом файла
+ * продолжаются с первого слота, затирая только записи с seq ≤ checkpoint. Журнал полон,
+ * лишь когда несброшенных записей (seq от checkpoint до последнего) больше, чем слотов.
+ * При открытии файл просматривается целиком — повреждённые (недописанные) записи
+ * пропускаются, записи с seq > checkpoint возвращаются для повторной обработки,
+ * запись продолжается со слота за записью с наибольшим seq.
+ * Файл блокируется на время работы. Не потокобезопасен: вызывающий сериализует append и checkpoint.
+ */
+final class ProgressWal implements AutoCloseable {
+
+    // Запись журнала: одна запись прогресса пользователя за день
+    record Record(long seq, long userId, long epochDay, Float weight, Integer caloriesConsumed,
+                  Integer caloriesBurned) {
+    }
+
+    private static final int MAGIC = 0x5057414C;          // "PWAL"
+    private static final int VERSION = 1;
+    private static final int RECORD_MAGIC = 0x50524F47;   // "PROG"
+
+    static final int HEADER_SIZE = 64;
+    static final int RECORD_SIZE = 40;
+
+    private static final int LOG_ID_OFFSET = 8;
+    private static final int CHECKPOINT_OFFSET = 16;
+    private static final int ABSENT = Integer.MIN_VALUE;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final long logId;
+    private final List<Record> recovered;
+
+    private final int slots;
+
+    private long checkpoint;
+    private long lastSeq;
+    private int head;   // слот следующей записи
+
+    private ProgressWal(FileChannel channel, MappedByteBuffer buffer) {
+        this.channel = channel;
+        this.buffer = buffer;
+        this.logId = buffer.getLong(LOG_ID_OFFSET);
+        this.slots = (buffer.capacity() - HEADER_SIZE) / RECORD_SIZE;
+        this.checkpoint = buffer.getLong(CHECKPOINT_OFFSET);
+        this.recovered = scan();
+    }
+
+    // Открывает журнал или создаёт новый размером size байт
+    static ProgressWal open(Path file, int size) throws IOException {
+
+        if (size < HEADER_SIZE + RECORD_SIZE) {
+            throw new IllegalArgumentException("Слишком маленький журнал: " + size + " байт");
+        }
+        Files.createDirectories(file.toAbsolutePath().getParent());
+
+        FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            // Журнал пишет один процесс: второй экземпляр приложения на том же каталоге не стартует
+            if (channel.tryLock() == null) {
+                throw new IOException("Журнал прогресса уже открыт другим процессом: " + file);
+            }
+            boolean created = channel.size() == 0;
+            int capacity = created ? size : (int) channel.size();
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+
+            if (created) {
+                buffer.putInt(0, MAGIC);
+                buffer.putInt(4, VERSION);
+                buffer.putLong(LOG_ID_OFFSET, new SecureRandom().nextLong() & Long.MAX_VALUE);
+                buffer.putLong(CHECKPOINT_OFFSET, 0);
+                buffer.force(0, HEADER_SIZE);
+            } else if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+                throw new IOException("Файл не является журналом прогресса: " + file);
+            }
+            return new ProgressWal(channel, buffer);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    // ================= RECOVERY =================
+    // Несброшенные записи по возрастанию seq; запись продолжается за самой свежей записью файла
+    private List<Record> scan() {
+
+        List<Record> pending = new ArrayList<>();
+        long maxSeq = checkpoint;
+        int next = 0;
+
+        for (int slot = 0; slot < slots; slot++) {
+            Record record = read(offset(slot));
+            if (record == null) {
+                continue;
+            }
+            if (record.seq() > maxSeq) {
+                maxSeq = record.seq();
+                next = (slot + 1) % slots;
+            }
+            if (record.seq() > checkpoint) {
+                pending.add(record);
+            }
+        }
+
+        pending.sort(Comparator.comparingLong(Record::seq));
+        List<Record> unique = new ArrayList<>(pending.size());
+        for (Record record : pending) {
+            if (unique.isEmpty() || unique.get(unique.size() - 1).seq() != record.seq()) {
+                unique.add(record);
+            }
+        }
+
+        this.lastSeq = maxSeq;
+        this.head = next;
+        return unique;
+    }
+
+    // Записи, которые были в журнале, но не дошли до БД до остановки
+    List<Record> recovered() {
+        return recovered;
+    }
+
+    // ================= APPEND =================
+    // Записывает записи подряд и возвращает их с присвоенными seq; null — несброшенные записи заняли все слоты
+    List<Record> append(long userId, List<Record> entries) {
+
+        if (used() + entries.size() > slots) {
+            return null;
+        }
+
+        List<Record> written = new ArrayList<>(entries.size());
+        int start = head;
+        for (Record entry : entries) {
+            Record record = new Record(++lastSeq, userId, entry.epochDay(), entry.weight(),
+                    entry.caloriesConsumed(), entry.caloriesBurned());
+            write(offset(head), record);
+            head = (head + 1) % slots;
+            written.add(record);
+        }
+
+        // Через конец файла — два участка
+        int tail = Math.min(entries.size(), slots - start);
+        buffer.force(offset(start), tail * RECORD_SIZE);
+        if (tail < entries.size()) {
+            buffer.force(offset(0), (entries.size() - tail) * RECORD_SIZE);
+        }
+        return written;
+    }
+
+    // Всё до seq включительно записано в БД; слоты этих записей можно занимать снова
+    void checkpoint(long seq) {
+        if (seq <= checkpoint) {
+            return;
+        }
+        checkpoint = seq;
+        buffer.putLong(CHECKPOINT_OFFSET, seq);
+        buffer.force(0, HEADER_SIZE);
+    }
+
+    long logId() {
+        return logId;
+    }
+
+    long checkpointSeq() {
+        return checkpoint;
+    }
+
+    int capacity() {
+        return slots;
+    }
+
+    // Слоты несброшенных записей
+    int used() {
+        return (int) (lastSeq - checkpoint);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private static int offset(int slot) {
+        return HEADER_SIZE + slot * RECORD_SIZE;
+    }
+
+    // ================= FORMAT =================
+    // magic:int seq:long userId:long day:int weight:float consumed:int burned:int crc:int
+    private void write(int offset, Record r) {
+        ByteBuffer b = buffer.slice(offset, RECORD_SIZE);
+        b.putInt(RECORD_MAGIC)
+                .putLong(r.seq())
+                .putLong(r.userId())
+                .putInt((int) r.epochDay())
+                .putFloat(r.weight() == null ? Float.NaN : r.weight())
+                .putInt(r.caloriesConsumed() == null ? ABSENT : r.caloriesConsumed())
+                .putInt(r.caloriesBurned() == null ? ABSENT : r.caloriesBurned());
+        b.putInt(crc(offset));   // CRC последним: запись без него при разборе считается недописанной
+    }
+
+    // null — пустой слот или недописанная запись
+    private Record read(int offset) {
+        ByteBuffer b = buffer.slice(offset, RECORD_SIZE);
+        if (b.getInt(0) != RECORD_MAGIC || b.getInt(RECORD_SIZE - 4) != crc(offset)) {
+            return null;
+        }
+        float weight = b.getFloat(24);
+        int consumed = b.getInt(28);
+        int burned = b.getInt(32);
+        return new Record(
+                b.getLong(4),
+                b.getLong(12),
+                b.getInt(20),
+                Float.isNaN(weight) ? null : weight,
+                consumed == ABSENT ? null : consumed,
+                burned == ABSENT ? null : burned);
+    }
+
+    private int crc(int offset) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(offset, RECORD_SIZE - 4));
+        return (int) crc.getValue();
+    }
+}
@@ -0,0 +1,88 @@
+package com.healthy.backend.service;
+
+import com.healthy.backend.model.Ingredient;
+import com.healthy.backend.repository.RecipeIngredientRepository;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Неизменяемая таблица «рецепт → (ингредиент, граммы)» в формате CSR:
+ * строки рецепта лежат подряд в ingredientIds / grams с позиции rowStart[r].
+ * Граммовка NaN — в рецепте не указана. Безопасна для чтения из любых потоков.
+ */
+final class RecipeAmountTable {
+
+    private final long[] recipeIds;       // по возрастанию
+    private final int[] rowStart;
+    private final long[] ingredientIds;
+    private final double[] grams;
+    private final Map<Long, String> names;
+
+    private RecipeAmountTable(long[] recipeIds, int[] rowStart, long[] ingredientIds, double[] grams,
+                              Map<Long, String> names) {
+        this.recipeIds = recipeIds;
+        this.rowStart = rowStart;
+        this.ingredientIds = ingredientIds;
+        this.grams = grams;
+        this.names = names;
+    }
+
+    // amounts должны быть отсортированы по recipeId (findAllAmounts)
+    static RecipeAmountTable build(List<RecipeIngredientRepository.Amount> amounts, List<Ingredient> ingredients) {
+
+        int rows = 0;
+        long previous = Long.MIN_VALUE;
+        for (RecipeIngredientRepository.Amount a : amounts) {
+            if (a.getRecipeId() != previous) {
+                rows++;
+                previous = a.getRecipeId();
+            }
+        }
+
+        long[] recipeIds = new long[rows];
+        int[] rowStart = new int[rows + 1];
+        long[] ingredientIds = new long[amounts.size()];
+        double[] grams = new double[amounts.size()];
+
+        int r = -1;
+        previous = Long.MIN_VALUE;
+        for (int j = 0; j < amounts.size(); j++) {
+            RecipeIngredientRepository.Amount a = amounts.get(j);
+            if (a.getRecipeId() != previous) {
+                r++;
+                recipeIds[r] = a.getRecipeId();
+                rowStart[r] = j;
+                previous = a.getRecipeId();
+            }
+            ingredientIds[j] = a.getIngredientId();
+            grams[j] = a.getAmountGrams() == null ? Double.NaN : a.getAmountGrams();
+        }
+        rowStart[rows] = amounts.size();
+
+        Map<Long, String> names = new HashMap<>(ingredients.size() * 2);
+        for (Ingredient ingredient : ingredients) {
+            names.put(ingredient.getId(), ingredient.getName());
+        }
+
+        return new RecipeAmountTable(recipeIds, rowStart, ingredientIds, grams, names);
+    }
+
+    // Добавляет ингредиенты рецепта в totals (times раз); false — рецепта в таблице нет
+    boolean addTo(IngredientTotals totals, long recipeId, int times) {
+        int r = Arrays.binarySearch(recipeIds, recipeId);
+        if (r < 0) {
+            return false;
+        }
+        for (int j = rowStart[r]; j < rowStart[r + 1]; j++) {
+            totals.add(ingredientIds[j], grams[j], times);
+        }
+        return true;
+    }
+
+    String name(long ingredientId) {
+        return names.get(ingredientId);
+    }
+}
@@ -0,0 +1,100 @@
+package com.healthy.backend.service;
+
+import com.healthy.backend.model.Diet;
+import com.healthy.backend.model.Ingredient;
+import com.healthy.backend.model.Recipe;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.Cache;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Пакетная запись рецептов: вставка при импорте и обновление КБЖУ после пересчёта.
+ * id рецептов берутся из sequence с пулом, диета и ингредиенты подставляются
+ * ссылками getReference — INSERT-ы рецептов и строк recipe_ingredients
+ * уходят JDBC-пачками без лишних SELECT.
+ */
+@Service
+public class RecipeBatchWriter {
+
+    // Рецепт с уже разрешёнными id диеты и ингредиентов
+    public record Row(Recipe recipe, Long dietId, long[] ingredientIds) {
+    }
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+    private int batchSize;
+
+    @Transactional
+    public int insertAll(List<Row> rows) {
+
+        int written = 0;
+
+        for (Row row : rows) {
+            Recipe recipe = row.recipe();
+            if (row.dietId() != null) {
+                recipe.setDiet(entityManager.getReference(Diet.class, row.dietId()));
+            }
+
+            List<Ingredient> ingredients = new ArrayList<>(row.ingredientIds().length);
+            for (long id : row.ingredientIds()) {
+                ingredients.add(entityManager.getReference(Ingredient.class, id));
+            }
+            recipe.setIngredients(ingredients);
+
+            entityManager.persist(recipe);
+
+            if (++written % batchSize == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+
+        entityManager.flush();
+        entityManager.clear();
+        return written;
+    }
+
+    // КБЖУ по id рецепта: [ккал, белки, жиры, углеводы]. Сущности не загружаем —
+    // UPDATE по первичному ключу идёт JDBC-пачками
+    @Transactional
+    public int updateNutrition(Map<Long, double[]> macros) {
+
+        int[] written = {0};
+        entityManager.unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement ps = connection.prepareStatement(
+                    "update recipes set calories = ?, proteins = ?, fats = ?, carbs = ? where id = ?")) {
+                for (Map.Entry<Long, double[]> e : macros.entrySet()) {
+                    double[] m = e.getValue();
+                    ps.setInt(1, (int) m[0]);
+                    ps.setFloat(2, (float) m[1]);
+                    ps.setFloat(3, (float) m[2]);
+                    ps.setFloat(4, (float) m[3]);
+                    ps.setLong(5, e.getKey());
+                    ps.addBatch();
+
+                    if (++written[0] % batchSize == 0) {
+                        ps.executeBatch();
+                    }
+                }
+                ps.executeBatch();
+            }
+        });
+
+        // UPDATE прошёл мимо Hibernate — сбрасываем эти рецепты в кэше второго уровня и кэш запросов
+        Cache cache = entityManager.unwrap(Session.class).getSessionFactory().getCache();
+        macros.keySet().forEach(id -> cache.evictEntityData(Recipe.class, id));
+        cache.evictQueryRegions();
+        return written[0];
+    }
+}
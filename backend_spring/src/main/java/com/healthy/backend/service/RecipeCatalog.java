@@ -0,0 +1,171 @@
+package com.healthy.backend.service;
+
+import com.healthy.backend.dto.RecipeSummary;
+import com.healthy.backend.exception.NotFoundException;
+import com.healthy.backend.model.Recipe;
+import com.healthy.backend.repository.RecipeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Каталог рецептов в памяти.
+ * Чтения обслуживаются из текущего {@link RecipeCatalogSnapshot} без обращения к БД;
+ * любая запись через {@link #save}/{@link #delete} пересобирает снимок и атомарно его подменяет,
+ * после чего уведомляет {@link RecipeCatalogListener}.
+ */
+@Service
+public class RecipeCatalog {
+
+    private static final Logger log = LoggerFactory.getLogger(RecipeCatalog.class);
+
+    private final RecipeRepository recipeRepository;
+    private final TransactionTemplate readTx;
+    private final ObjectProvider<RecipeCatalogListener> listeners;
+
+    private final AtomicReference<RecipeCatalogSnapshot> current = new AtomicReference<>();
+    private final AtomicLong versions = new AtomicLong();
+    // Версии начинаются заново после рестарта — метка запуска делает ETag уникальными между запусками
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final Object rebuildLock = new Object();
+
+    public RecipeCatalog(RecipeRepository recipeRepository,
+                         PlatformTransactionManager transactionManager,
+                         ObjectProvider<RecipeCatalogListener> listeners) {
+        this.recipeRepository = recipeRepository;
+        this.listeners = listeners;
+
+        // Отдельный persistence context: иначе open-in-view отдаст в снимок
+        // те же (возможно, частично заполненные) объекты, что пришли в запросе
+        this.readTx = new TransactionTemplate(transactionManager);
+        this.readTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.readTx.setReadOnly(true);
+    }
+
+    // ================= READ =================
+    public RecipeCatalogSnapshot snapshot() {
+        RecipeCatalogSnapshot snapshot = current.get();
+        if (snapshot != null) {
+            return snapshot;
+        }
+        synchronized (rebuildLock) {
+            snapshot = current.get();
+            if (snapshot != null) {
+                return snapshot;
+            }
+            snapshot = rebuild();
+            notifyRebuilt(snapshot);
+            return snapshot;
+        }
+    }
+
+    public long version() {
+        return snapshot().getVersion();
+    }
+
+    // ETag всего каталога: меняется при любой записи рецепта
+    public String catalogTag() {
+        return epoch + "-" + version();
+    }
+
+    // ETag одного рецепта: меняется только при изменении этого рецепта; null — рецепта нет
+    public String recipeTag(Long id) {
+        long itemVersion = snapshot().versionOf(id);
+        return itemVersion < 0 ? null : "r" + id + "-" + epoch + "-" + itemVersion;
+    }
+
+    // find и getById отдают общие экземпляры снимка: менять их нельзя, правка — через save
+    public List<Recipe> find(String search, String diet) {
+        return snapshot().filter(search, diet);
+    }
+
+    public List<RecipeSummary> findSummaries(String search, String diet) {
+        return snapshot().filterSummaries(search, diet);
+    }
+
+    public Recipe getById(Long id) {
+        Recipe recipe = snapshot().findById(id);
+        if (recipe == null) {
+            throw new NotFoundException("Recipe not found");
+        }
+        return recipe;
+    }
+
+    // ================= WRITE =================
+    public Recipe save(Recipe recipe) {
+        Recipe saved = recipeRepository.save(recipe);
+
+        synchronized (rebuildLock) {
+            boolean loadedBefore = current.get() != null;
+            RecipeCatalogSnapshot snapshot = rebuild(saved.getId());
+            Recipe loaded = snapshot.findById(saved.getId());
+
+            if (!loadedBefore || loaded == null) {
+                notifyRebuilt(snapshot);
+            } else {
+                listeners.orderedStream().forEach(l -> l.onRecipeSaved(loaded, snapshot));
+            }
+            return loaded != null ? loaded : saved;
+        }
+    }
+
+    public void delete(Long id) {
+
+        if (!recipeRepository.existsById(id)) {
+            throw new NotFoundException("Recipe not found");
+        }
+
+        recipeRepository.deleteById(id);
+
+        synchronized (rebuildLock) {
+            boolean loadedBefore = current.get() != null;
+            RecipeCatalogSnapshot snapshot = rebuild(id);
+
+            if (!loadedBefore) {
+                notifyRebuilt(snapshot);
+            } else {
+                listeners.orderedStream().forEach(l -> l.onRecipeDeleted(id, snapshot));
+            }
+        }
+    }
+
+    public RecipeCatalogSnapshot reload() {
+        synchronized (rebuildLock) {
+            RecipeCatalogSnapshot snapshot = rebuild();
+            notifyRebuilt(snapshot);
+            return snapshot;
+        }
+    }
+
+    private RecipeCatalogSnapshot rebuild() {
+        return rebuild(null);
+    }
+
+    // changedId — единственный изменённый рецепт; null — изменённым считается весь каталог
+    private RecipeCatalogSnapshot rebuild(Long changedId) {
+        long started = System.nanoTime();
+
+        List<Recipe> recipes = readTx.execute(status -> recipeRepository.findAllWithDetails());
+        RecipeCatalogSnapshot previous = changedId == null ? null : current.get();
+        RecipeCatalogSnapshot snapshot =
+                RecipeCatalogSnapshot.of(versions.incrementAndGet(), recipes, previous, changedId);
+
+        current.set(snapshot);
+
+        log.debug("Каталог рецептов v{} собран: {} рецептов за {} мс",
+                snapshot.getVersion(), snapshot.size(), (System.nanoTime() - started) / 1_000_000);
+        return snapshot;
+    }
+
+    private void notifyRebuilt(RecipeCatalogSnapshot snapshot) {
+        listeners.orderedStream().forEach(l -> l.onCatalogRebuilt(snapshot));
+    }
+}
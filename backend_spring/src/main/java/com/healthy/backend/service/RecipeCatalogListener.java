@@ -0,0 +1,23 @@
+package com.healthy.backend.service;
+
+import com.healthy.backend.model.Recipe;
+
+/**
+ * Подписчик на изменения {@link RecipeCatalog}: индексы и кэши,
+ * построенные поверх снимка каталога.
+ * Все вызовы приходят последовательно, под блокировкой пересборки каталога.
+ */
+public interface RecipeCatalogListener {
+
+    // Каталог загружен или перезагружен целиком
+    void onCatalogRebuilt(RecipeCatalogSnapshot snapshot);
+
+    // Рецепт создан или изменён; recipe — экземпляр из нового снимка
+    default void onRecipeSaved(Recipe recipe, RecipeCatalogSnapshot snapshot) {
+        onCatalogRebuilt(snapshot);
+    }
+
+    default void onRecipeDeleted(Long id, RecipeCatalogSnapshot snapshot) {
+        onCatalogRebuilt(snapshot);
+    }
+}
@@ -0,0 +1,181 @@
+package com.healthy.backend.service;
+
+import com.healthy.backend.dto.RecipeSummary;
+import com.healthy.backend.model.Recipe;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Снимок каталога рецептов: собирается целиком при изменении каталога и дальше только читается,
+ * поэтому его можно раздавать любым потокам без блокировок.
+ * Неизменяемы списки, индексы и карточки {@link RecipeSummary}. Сами {@link Recipe} — отсоединённые
+ * сущности, общие для всех потоков: их можно только читать. Изменение рецепта — новый экземпляр
+ * через {@link RecipeCatalog#save}, который соберёт следующий снимок.
+ */
+public final class RecipeCatalogSnapshot {
+
+    private final long version;
+    private final List<Recipe> recipes;              // отсортированы по id
+    private final List<RecipeSummary> summaries;     // карточки в том же порядке
+    private final long[] ids;                        // id в том же порядке — для keyset-пагинации
+    private final long[] itemVersions;               // версия снимка, в которой рецепт менялся последний раз
+    private final String[] lowerTitles;              // title.toLowerCase() в том же порядке
+    private final Map<Long, Integer> positions;      // id → позиция
+    private final Map<String, int[]> byDiet;         // имя диеты в нижнем регистре → позиции
+
+    private RecipeCatalogSnapshot(long version, List<Recipe> sorted,
+                                  RecipeCatalogSnapshot previous, Long changedId) {
+        int size = sorted.size();
+
+        this.version = version;
+        this.recipes = Collections.unmodifiableList(sorted);
+        this.ids = new long[size];
+        this.itemVersions = new long[size];
+        this.lowerTitles = new String[size];
+
+        List<RecipeSummary> cards = new ArrayList<>(size);
+        Map<Long, Integer> index = new HashMap<>(size * 2);
+        Map<String, List<Integer>> diets = new HashMap<>();
+
+        for (int i = 0; i < size; i++) {
+            Recipe recipe = sorted.get(i);
+            ids[i] = recipe.getId();
+            itemVersions[i] = previous == null || recipe.getId().equals(changedId)
+                    ? version
+                    : previous.versionOf(recipe.getId(), version);
+            lowerTitles[i] = lower(recipe.getTitle());
+            cards.add(RecipeSummary.of(recipe));
+            index.put(recipe.getId(), i);
+
+            String diet = dietKey(recipe);
+            if (diet != null) {
+                diets.computeIfAbsent(diet, k -> new ArrayList<>()).add(i);
+            }
+        }
+
+        Map<String, int[]> dietPositions = new HashMap<>();
+        diets.forEach((k, v) -> dietPositions.put(k, v.stream().mapToInt(Integer::intValue).toArray()));
+
+        this.summaries = Collections.unmodifiableList(cards);
+        this.positions = Collections.unmodifiableMap(index);
+        this.byDiet = Collections.unmodifiableMap(dietPositions);
+    }
+
+    public static RecipeCatalogSnapshot of(long version, List<Recipe> recipes) {
+        return of(version, recipes, null, null);
+    }
+
+    // Снимок после изменения одного рецепта: остальные сохраняют версии из previous
+    public static RecipeCatalogSnapshot of(long version, List<Recipe> recipes,
+                                           RecipeCatalogSnapshot previous, Long changedId) {
+        List<Recipe> sorted = new ArrayList<>(recipes);
+        sorted.sort(Comparator.comparing(Recipe::getId));
+        return new RecipeCatalogSnapshot(version, sorted, previous, changedId);
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    // Общие экземпляры снимка — только для чтения
+    public List<Recipe> getRecipes() {
+        return recipes;
+    }
+
+    public List<RecipeSummary> getSummaries() {
+        return summaries;
+    }
+
+    public int size() {
+        return recipes.size();
+    }
+
+    // Общий экземпляр снимка — только для чтения
+    public Recipe findById(Long id) {
+        Integer pos = id == null ? null : positions.get(id);
+        return pos == null ? null : recipes.get(pos);
+    }
+
+    // Версия рецепта (для ETag) или -1, если его нет в снимке
+    public long versionOf(Long id) {
+        return versionOf(id, -1);
+    }
+
+    private long versionOf(Long id, long absent) {
+        Integer pos = id == null ? null : positions.get(id);
+        return pos == null ? absent : itemVersions[pos];
+    }
+
+    public RecipeSummary summaryOf(Long id) {
+        Integer pos = id == null ? null : positions.get(id);
+        return pos == null ? null : summaries.get(pos);
+    }
+
+    public List<RecipeSummary> summariesOf(List<Recipe> list) {
+        List<RecipeSummary> result = new ArrayList<>(list.size());
+        for (Recipe recipe : list) {
+            RecipeSummary summary = summaryOf(recipe.getId());
+            result.add(summary != null ? summary : RecipeSummary.of(recipe));
+        }
+        return result;
+    }
+
+    // Карточки рецептов с id > afterId, не больше size штук
+    public List<RecipeSummary> page(Long afterId, int size) {
+        int from = 0;
+        if (afterId != null) {
+            int pos = Arrays.binarySearch(ids, afterId);
+            from = pos >= 0 ? pos + 1 : -pos - 1;
+        }
+        int to = Math.min(from + size, ids.length);
+        return from >= to ? List.of() : summaries.subList(from, to);
+    }
+
+    // 🔍 Та же семантика, что и у findByTitleContainingIgnoreCase / findByDiet_NameIgnoreCase;
+    // рецепты — общие экземпляры снимка, только для чтения
+    public List<Recipe> filter(String search, String diet) {
+        return select(recipes, search, diet);
+    }
+
+    public List<RecipeSummary> filterSummaries(String search, String diet) {
+        return select(summaries, search, diet);
+    }
+
+    private <T> List<T> select(List<T> source, String search, String diet) {
+
+        boolean hasSearch = search != null && !search.isBlank();
+        boolean hasDiet = diet != null && !diet.isBlank();
+
+        if (!hasSearch && !hasDiet) {
+            return source;
+        }
+
+        int[] candidates = hasDiet ? byDiet.getOrDefault(lower(diet), new int[0]) : null;
+        int count = candidates != null ? candidates.length : source.size();
+        String needle = hasSearch ? lower(search) : null;
+
+        List<T> result = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            int pos = candidates != null ? candidates[i] : i;
+            if (needle == null || (lowerTitles[pos] != null && lowerTitles[pos].contains(needle))) {
+                result.add(source.get(pos));
+            }
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    private static String dietKey(Recipe recipe) {
+        return recipe.getDiet() == null ? null : lower(recipe.getDiet().getName());
+    }
+
+    private static String lower(String value) {
+        return value == null ? null : value.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,64 @@
+package com.healthy.backend.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.healthy.backend.model.Recipe;
+import com.healthy.backend.repository.RecipeRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Выгрузка всего каталога в NDJSON (один рецепт — одна строка).
+ * Рецепты читаются из БД курсором и сразу отсоединяются от persistence context,
+ * так что память не растёт с размером каталога.
+ */
+@Service
+public class RecipeExportService {
+
+    private static final int FLUSH_EVERY = 100;
+
+    private final RecipeRepository recipeRepository;
+    private final ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public RecipeExportService(RecipeRepository recipeRepository, ObjectMapper objectMapper) {
+        this.recipeRepository = recipeRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    @Transactional(readOnly = true)
+    public long writeNdjson(OutputStream out) throws IOException {
+
+        long written = 0;
+
+        try (Stream<Recipe> recipes = recipeRepository.streamAllOrderedById();
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+
+            generator.setRootValueSeparator(null);
+
+            Iterator<Recipe> it = recipes.iterator();
+            while (it.hasNext()) {
+                Recipe recipe = it.next();
+
+                generator.writeObject(recipe);
+                generator.writeRaw('\n');
+                entityManager.detach(recipe);
+
+                if (++written % FLUSH_EVERY == 0) {
+                    generator.flush();
+                }
+            }
+        }
+
+        return written;
+    }
+}
@@ -0,0 +1,243 @@
+package com.healthy.backend.service;
+
+import com.healthy.backend.dto.FacetCount;
+import com.healthy.backend.dto.RecipeFacetPage;
+import com.healthy.backend.dto.RecipeSummary;
+import com.healthy.backend.exception.BadRequestException;
+import com.healthy.backend.model.Recipe;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Фасетный просмотр каталога: рецепты по фильтрам и счётчики по диете, сложности,
+ * времени приготовления и калорийности за один проход.
+ * Поля рецептов разложены по колонкам (int-массивы кодов и корзин), колонки
+ * собираются один раз на версию снимка. Счётчик фасета учитывает все фильтры,
+ * кроме своего — видно, сколько рецептов даст другое значение.
+ */
+@Component
+public class RecipeFacets {
+
+    public static final int MAX_LIMIT = 100;
+
+    private static final int ANY = -1;
+    private static final int UNKNOWN = -2;   // значение фильтра, которого нет в каталоге
+
+    // Верхние границы корзин (включительно); последняя корзина — без границы
+    private static final int[] TIME_BOUNDS = {15, 30, 60};
+    private static final String[] TIME_BUCKETS = {"0-15", "16-30", "31-60", "61+"};
+    private static final int[] CALORIE_BOUNDS = {299, 499, 699};
+    private static final String[] CALORIE_BUCKETS = {"0-299", "300-499", "500-699", "700+"};
+
+    private final RecipeCatalog recipeCatalog;
+    private final AtomicReference<Columns> columns = new AtomicReference<>();
+
+    public RecipeFacets(RecipeCatalog recipeCatalog) {
+        this.recipeCatalog = recipeCatalog;
+    }
+
+    // ================= QUERY =================
+    public RecipeFacetPage browse(String diet, String difficulty, String time, String calories,
+                                  int offset, int limit) {
+
+        if (offset < 0) {
+            throw new BadRequestException("offset не может быть отрицательным");
+        }
+        int pageSize = Math.max(1, Math.min(limit, MAX_LIMIT));
+
+        RecipeCatalogSnapshot snapshot = recipeCatalog.snapshot();
+        Columns c = columns(snapshot);
+
+        int wantDiet = c.diets.code(diet);
+        int wantDifficulty = c.difficulties.code(difficulty);
+        int wantTime = bucketCode(TIME_BUCKETS, time);
+        int wantCalories = bucketCode(CALORIE_BUCKETS, calories);
+
+        int[] dietCounts = new int[c.diets.size()];
+        int[] difficultyCounts = new int[c.difficulties.size()];
+        int[] timeCounts = new int[TIME_BUCKETS.length];
+        int[] calorieCounts = new int[CALORIE_BUCKETS.length];
+
+        int[] matches = new int[c.size];
+        int total = 0;
+
+        for (int i = 0; i < c.size; i++) {
+            int d = c.diet[i];
+            int f = c.difficulty[i];
+            int t = c.time[i];
+            int k = c.calories[i];
+
+            boolean okDiet = wantDiet == ANY || d == wantDiet;
+            boolean okDifficulty = wantDifficulty == ANY || f == wantDifficulty;
+            boolean okTime = wantTime == ANY || t == wantTime;
+            boolean okCalories = wantCalories == ANY || k == wantCalories;
+
+            int failed = (okDiet ? 0 : 1) + (okDifficulty ? 0 : 1) + (okTime ? 0 : 1) + (okCalories ? 0 : 1);
+            if (failed > 1) {
+                continue;
+            }
+            if (failed == 0) {
+                matches[total++] = i;
+            }
+            // Не прошёл ровно один фильтр — рецепт идёт только в счётчик этого фасета
+            if (okDifficulty && okTime && okCalories && d >= 0) {
+                dietCounts[d]++;
+            }
+            if (okDiet && okTime && okCalories && f >= 0) {
+                difficultyCounts[f]++;
+            }
+            if (okDiet && okDifficulty && okCalories && t >= 0) {
+                timeCounts[t]++;
+            }
+            if (okDiet && okDifficulty && okTime && k >= 0) {
+                calorieCounts[k]++;
+            }
+        }
+
+        List<RecipeSummary> items = new ArrayList<>();
+        List<RecipeSummary> summaries = snapshot.getSummaries();
+        for (int j = offset; j < total && items.size() < pageSize; j++) {
+            items.add(summaries.get(matches[j]));
+        }
+
+        Map<String, List<FacetCount>> facets = new LinkedHashMap<>();
+        facets.put("diet", c.diets.counts(dietCounts));
+        facets.put("difficulty", c.difficulties.counts(difficultyCounts));
+        facets.put("cookingTime", bucketCounts(TIME_BUCKETS, timeCounts));
+        facets.put("calories", bucketCounts(CALORIE_BUCKETS, calorieCounts));
+
+        return new RecipeFacetPage(items, total, facets);
+    }
+
+    // Все значения сложности в каталоге, по алфавиту
+    public List<String> difficulties() {
+        List<String> names = new ArrayList<>(columns(recipeCatalog.snapshot()).difficulties.names);
+        names.sort(String.CASE_INSENSITIVE_ORDER);
+        return names;
+    }
+
+    private Columns columns(RecipeCatalogSnapshot snapshot) {
+        Columns current = columns.get();
+        if (current == null || current.version != snapshot.getVersion()) {
+            current = new Columns(snapshot);
+            columns.set(current);
+        }
+        return current;
+    }
+
+    private static int bucketCode(String[] buckets, String value) {
+        if (value == null || value.isBlank()) {
+            return ANY;
+        }
+        int code = Arrays.asList(buckets).indexOf(value.trim());
+        if (code < 0) {
+            throw new BadRequestException("Неизвестный диапазон: " + value + ", допустимо " + Arrays.toString(buckets));
+        }
+        return code;
+    }
+
+    private static int bucket(Integer value, int[] bounds) {
+        if (value == null || value < 0) {
+            return ANY;
+        }
+        int b = 0;
+        while (b < bounds.length && value > bounds[b]) {
+            b++;
+        }
+        return b;
+    }
+
+    private static List<FacetCount> bucketCounts(String[] buckets, int[] counts) {
+        List<FacetCount> result = new ArrayList<>(buckets.length);
+        for (int b = 0; b < buckets.length; b++) {
+            result.add(new FacetCount(buckets[b], counts[b]));
+        }
+        return result;
+    }
+
+    // ================= COLUMNS =================
+    // Колонки в порядке снимка (по id): позиция i — рецепт snapshot.getRecipes().get(i)
+    private static final class Columns {
+
+        final long version;
+        final int size;
+        final Dictionary diets = new Dictionary();
+        final Dictionary difficulties = new Dictionary();
+        final int[] diet;
+        final int[] difficulty;
+        final int[] time;
+        final int[] calories;
+
+        Columns(RecipeCatalogSnapshot snapshot) {
+            List<Recipe> recipes = snapshot.getRecipes();
+            this.version = snapshot.getVersion();
+            this.size = recipes.size();
+            this.diet = new int[size];
+            this.difficulty = new int[size];
+            this.time = new int[size];
+            this.calories = new int[size];
+
+            for (int i = 0; i < size; i++) {
+                Recipe recipe = recipes.get(i);
+                diet[i] = diets.add(recipe.getDiet() == null ? null : recipe.getDiet().getName());
+                difficulty[i] = difficulties.add(recipe.getDifficulty());
+                time[i] = bucket(recipe.getCookingTime(), TIME_BOUNDS);
+                calories[i] = bucket(recipe.getCalories(), CALORIE_BOUNDS);
+            }
+        }
+    }
+
+    // Строка → код; сравнение без учёта регистра, отображается первое встреченное написание
+    private static final class Dictionary {
+
+        final List<String> names = new ArrayList<>();
+        final Map<String, Integer> codes = new HashMap<>();
+
+        int add(String name) {
+            if (name == null || name.isBlank()) {
+                return ANY;
+            }
+            return codes.computeIfAbsent(key(name), k -> {
+                names.add(name.trim());
+                return names.size() - 1;
+            });
+        }
+
+        int code(String name) {
+            if (name == null || name.isBlank()) {
+                return ANY;
+            }
+            return codes.getOrDefault(key(name), UNKNOWN);
+        }
+
+        int size() {
+            return names.size();
+        }
+
+        // Значения с ненулевым счётчиком, самые частые первыми
+        List<FacetCount> counts(int[] counts) {
+            List<FacetCount> result = new ArrayList<>();
+            for (int code = 0; code < counts.length; code++) {
+                if (counts[code] > 0) {
+                    result.add(new FacetCount(names.get(code), counts[code]));
+                }
+            }
+            result.sort(Comparator.comparingInt(FacetCount::count).reversed()
+                    .thenComparing(FacetCount::value, String.CASE_INSENSITIVE_ORDER));
+            return result;
+        }
+
+        private static String key(String name) {
+            return name.trim().toLowerCase(Locale.ROOT);
+        }
+    }
+}
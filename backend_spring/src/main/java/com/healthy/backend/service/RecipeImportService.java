@@ -0,0 +1,273 @@
+package com.healthy.backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import com.healthy.backend.dto.RecipeImportReport;
+import com.healthy.backend.dto.RecipeImportRow;
+import com.healthy.backend.model.Diet;
+import com.healthy.backend.model.Ingredient;
+import com.healthy.backend.model.Recipe;
+import com.healthy.backend.repository.DietRepository;
+import com.healthy.backend.repository.IngredientRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Массовый импорт рецептов из JSON-массива или CSV.
+ * Вход читается потоково (строка за строкой), диеты и ингредиенты разрешаются
+ * по названию через словари в памяти, а валидные строки пишутся порциями
+ * через {@link RecipeBatchWriter}. Ошибочная строка не прерывает импорт — она
+ * попадает в отчёт. Порция, которую не приняла БД, откатывается и пишется заново
+ * по одной строке: записываются все строки, кроме отклонённых, а отклонённые
+ * попадают в отчёт с ошибкой БД. Если хоть что-то записано, каталог пересобирается
+ * один раз — в том числе когда импорт оборвался.
+ */
+@Service
+public class RecipeImportService {
+
+    private static final Logger log = LoggerFactory.getLogger(RecipeImportService.class);
+
+    public static final String CSV = "text/csv";
+    static final int MAX_LENGTH = 255;   // varchar-колонки recipes
+
+    private final ObjectMapper objectMapper;
+    private final CsvMapper csvMapper = new CsvMapper();
+    private final DietRepository dietRepository;
+    private final IngredientRepository ingredientRepository;
+    private final RecipeBatchWriter recipeBatchWriter;
+    private final RecipeCatalog recipeCatalog;
+    private final int chunkSize;
+
+    public RecipeImportService(ObjectMapper objectMapper,
+                               DietRepository dietRepository,
+                               IngredientRepository ingredientRepository,
+                               RecipeBatchWriter recipeBatchWriter,
+                               RecipeCatalog recipeCatalog,
+                               @Value("${recipes.import.chunk-size:1000}") int chunkSize) {
+        this.objectMapper = objectMapper;
+        this.dietRepository = dietRepository;
+        this.ingredientRepository = ingredientRepository;
+        this.recipeBatchWriter = recipeBatchWriter;
+        this.recipeCatalog = recipeCatalog;
+        this.chunkSize = chunkSize;
+    }
+
+    public RecipeImportReport importRecipes(InputStream in, boolean csv) throws IOException {
+
+        long started = System.nanoTime();
+        Progress progress = new Progress(
+                names(dietRepository.findAll(), Diet::getName, Diet::getId),
+                names(ingredientRepository.findAll(), Ingredient::getName, Ingredient::getId));
+
+        try (MappingIterator<RecipeImportRow> rows = csv ? csvRows(in) : jsonRows(in)) {
+            while (true) {
+                RecipeImportRow row;
+                try {
+                    if (!rows.hasNextValue()) {
+                        break;
+                    }
+                    row = rows.nextValue();
+                } catch (JsonMappingException e) {
+                    // Ошибка типа в строке — MappingIterator пропускает её и читает дальше
+                    progress.error(++progress.rows, e.getOriginalMessage());
+                    continue;
+                } catch (JsonProcessingException e) {
+                    // Синтаксическая ошибка — дальше читать нечего, записанное остаётся
+                    progress.error(++progress.rows, "Некорректный формат: " + e.getOriginalMessage());
+                    break;
+                }
+                progress.rows++;
+                progress.accept(row);
+                if (progress.chunk.size() >= chunkSize) {
+                    flush(progress);
+                }
+            }
+        } finally {
+            // Ошибки строк flush собирает в отчёт; каталог перечитываем, даже если импорт оборвался
+            try {
+                flush(progress);
+            } finally {
+                if (progress.imported > 0) {
+                    recipeCatalog.reload();
+                }
+            }
+        }
+
+        long durationMs = (System.nanoTime() - started) / 1_000_000;
+        log.info("Импорт рецептов: строк {}, записано {}, ошибок {} за {} мс",
+                progress.rows, progress.imported, progress.failed, durationMs);
+
+        return new RecipeImportReport(progress.rows, progress.imported, progress.failed, durationMs, progress.errors);
+    }
+
+    // Корневой массив разворачивается MappingIterator-ом: элементы читаются по одному
+    private MappingIterator<RecipeImportRow> jsonRows(InputStream in) throws IOException {
+        return objectMapper.readerFor(RecipeImportRow.class).readValues(in);
+    }
+
+    private MappingIterator<RecipeImportRow> csvRows(InputStream in) throws IOException {
+        ObjectReader reader = csvMapper.readerFor(RecipeImportRow.class)
+                .with(CsvSchema.emptySchema().withHeader())
+                .with(CsvParser.Feature.TRIM_SPACES)
+                .with(CsvParser.Feature.EMPTY_STRING_AS_NULL);
+        return reader.readValues(in);
+    }
+
+    // Порция забирается из progress до записи: при ошибке её строки не попадут в запись повторно
+    private void flush(Progress progress) {
+        if (progress.chunk.isEmpty()) {
+            return;
+        }
+        List<Pending> chunk = progress.chunk;
+        progress.chunk = new ArrayList<>(chunkSize);
+
+        List<RecipeBatchWriter.Row> rows = new ArrayList<>(chunk.size());
+        for (Pending pending : chunk) {
+            rows.add(pending.row());
+        }
+        try {
+            progress.imported += recipeBatchWriter.insertAll(rows);
+        } catch (RuntimeException e) {
+            log.warn("Импорт рецептов: порция из {} строк отклонена ({}), запись по одной",
+                    rows.size(), NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+            insertOneByOne(progress, chunk);
+        }
+    }
+
+    // Транзакция порции откатилась: id, выданные при persist, недействительны
+    private void insertOneByOne(Progress progress, List<Pending> chunk) {
+        for (Pending pending : chunk) {
+            pending.row().recipe().setId(null);
+            try {
+                progress.imported += recipeBatchWriter.insertAll(List.of(pending.row()));
+            } catch (RuntimeException e) {
+                progress.error(pending.line(),
+                        "Не записана: " + NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+            }
+        }
+    }
+
+    // Словарь «название в нижнем регистре → id»
+    private static <T> Map<String, Long> names(List<T> entities, Function<T, String> name, Function<T, Long> id) {
+        Map<String, Long> byName = new HashMap<>();
+        for (T entity : entities) {
+            if (name.apply(entity) != null) {
+                byName.putIfAbsent(key(name.apply(entity)), id.apply(entity));
+            }
+        }
+        return byName;
+    }
+
+    private static String key(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // ================= STATE =================
+    // Строка, ожидающая записи, и её номер во входе
+    private record Pending(long line, RecipeBatchWriter.Row row) {
+    }
+
+    private final class Progress {
+
+        final Map<String, Long> diets;
+        final Map<String, Long> ingredients;
+        final List<RecipeImportReport.RowError> errors = new ArrayList<>();
+
+        List<Pending> chunk = new ArrayList<>(chunkSize);
+        long rows;
+        long imported;
+        long failed;
+
+        Progress(Map<String, Long> diets, Map<String, Long> ingredients) {
+            this.diets = diets;
+            this.ingredients = ingredients;
+        }
+
+        void accept(RecipeImportRow row) {
+
+            if (row.title() == null || row.title().isBlank()) {
+                error(rows, "Не указано название");
+                return;
+            }
+            if (tooLong(row.title()) || tooLong(row.imageUrl()) || tooLong(row.difficulty())) {
+                error(rows, "Название, ссылка на изображение или сложность длиннее " + MAX_LENGTH + " символов");
+                return;
+            }
+            if (isNegative(row.calories()) || isNegative(row.proteins()) || isNegative(row.fats())
+                    || isNegative(row.carbs()) || isNegative(row.cookingTime())) {
+                error(rows, "Отрицательное значение калорий, БЖУ или времени");
+                return;
+            }
+
+            Long dietId = null;
+            if (row.diet() != null && !row.diet().isBlank()) {
+                dietId = diets.get(key(row.diet()));
+                if (dietId == null) {
+                    error(rows, "Неизвестная диета: " + row.diet());
+                    return;
+                }
+            }
+
+            List<String> names = new ArrayList<>();
+            if (row.ingredients() != null) {
+                for (String value : row.ingredients()) {
+                    if (value == null) {
+                        continue;
+                    }
+                    for (String name : value.split(";")) {
+                        if (!name.isBlank()) {
+                            names.add(name);
+                        }
+                    }
+                }
+            }
+
+            long[] ingredientIds = new long[names.size()];
+            for (int i = 0; i < ingredientIds.length; i++) {
+                Long id = ingredients.get(key(names.get(i)));
+                if (id == null) {
+                    error(rows, "Неизвестный ингредиент: " + names.get(i).trim());
+                    return;
+                }
+                ingredientIds[i] = id;
+            }
+
+            Recipe recipe = new Recipe(row.title().trim(), row.description(), row.calories(), row.proteins(),
+                    row.fats(), row.carbs(), row.imageUrl(), row.cookingTime(), row.difficulty());
+            chunk.add(new Pending(rows, new RecipeBatchWriter.Row(recipe, dietId, ingredientIds)));
+        }
+
+        void error(long row, String message) {
+            failed++;
+            if (errors.size() < RecipeImportReport.MAX_ERRORS) {
+                errors.add(new RecipeImportReport.RowError(row, message));
+            }
+        }
+
+        private boolean tooLong(String value) {
+            return value != null && value.length() > MAX_LENGTH;
+        }
+
+        private boolean isNegative(Number value) {
+            return value != null && value.doubleValue() < 0;
+        }
+    }
+}
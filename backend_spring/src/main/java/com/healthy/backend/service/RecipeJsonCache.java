@@ -0,0 +1,120 @@
+package com.healthy.backend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.healthy.backend.dto.RecipeSummary;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Готовый JSON карточек каталога: весь список и выборки по диете.
+ * Сериализуется один раз на версию снимка в UTF-8 и сразу сжимается gzip,
+ * дальше байты отдаются в ответ как есть. При записи рецепта версия снимка
+ * меняется, и кэш собирается заново при следующем обращении.
+ */
+@Component
+public class RecipeJsonCache {
+
+    private static final String ALL = "";
+
+    // Закодированное представление: исходные байты и gzip-вариант
+    public record Encoded(byte[] identity, byte[] gzip) {
+    }
+
+    private final RecipeCatalog recipeCatalog;
+    private final ObjectMapper objectMapper;
+    private final AtomicReference<Entries> entries = new AtomicReference<>();
+
+    public RecipeJsonCache(RecipeCatalog recipeCatalog, ObjectMapper objectMapper) {
+        this.recipeCatalog = recipeCatalog;
+        this.objectMapper = objectMapper;
+    }
+
+    // Карточки всего каталога или одной диеты; null — для такой диеты рецептов нет (не кэшируем)
+    public Encoded summaries(String diet) {
+
+        RecipeCatalogSnapshot snapshot = recipeCatalog.snapshot();
+        Entries current = entries.get();
+        if (current == null || current.version != snapshot.getVersion()) {
+            current = new Entries(snapshot.getVersion());
+            entries.set(current);
+        }
+
+        String key = diet == null || diet.isBlank() ? ALL : diet.toLowerCase(Locale.ROOT);
+        Encoded cached = current.byDiet.get(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        List<RecipeSummary> cards = snapshot.filterSummaries(null, key);
+        if (cards.isEmpty() && !key.equals(ALL)) {
+            return null;
+        }
+        return current.byDiet.computeIfAbsent(key, k -> encode(cards));
+    }
+
+    // Принимает ли клиент gzip (с учётом q=0)
+    public static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String part : acceptEncoding.split(",")) {
+            String[] tokens = part.trim().split(";");
+            String coding = tokens[0].trim();
+            if (!coding.equalsIgnoreCase("gzip") && !coding.equals("*")) {
+                continue;
+            }
+            for (int i = 1; i < tokens.length; i++) {
+                String param = tokens[i].trim().replace(" ", "");
+                if (param.startsWith("q=") && param.substring(2).matches("0(\\.0{0,3})?")) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private Encoded encode(List<RecipeSummary> cards) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(cards);
+            return new Encoded(json, gzip(json));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Не удалось сериализовать каталог", e);
+        }
+    }
+
+    private static byte[] gzip(byte[] data) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 4 + 64);
+        // Сжимаем один раз на версию — можно позволить максимальный уровень
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out) {
+            {
+                def.setLevel(Deflater.BEST_COMPRESSION);
+            }
+        }) {
+            gzip.write(data);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private static final class Entries {
+        final long version;
+        final Map<String, Encoded> byDiet = new ConcurrentHashMap<>();
+
+        Entries(long version) {
+            this.version = version;
+        }
+    }
+}
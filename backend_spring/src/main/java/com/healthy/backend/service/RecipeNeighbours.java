@@ -0,0 +1,473 @@
+package com.healthy.backend.service;
+
+import com.healthy.backend.model.Ingredient;
+import com.healthy.backend.model.Recipe;
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Таблица K ближайших соседей каждого рецепта снимка каталога.
+ * Рецепт — вектор признаков: КБЖУ и время приготовления (z-оценки по каталогу),
+ * сложность (EASY → HARD на отрезке [0, 1]), диета и множество ингредиентов.
+ * Сходство — взвешенная сумма близости числовых признаков, совпадения диеты,
+ * близости сложности и коэффициента Жаккара по ингредиентам.
+ * Кандидаты строки — рецепты с общим ингредиентом или той же диетой (битмапы
+ * «ингредиент → строки» и «диета → строки»). Остальные набирают не больше
+ * W_NUTRITION + W_DIFFICULTY и просматриваются, только если K-й сосед из кандидатов
+ * не лучше этого предела, — соседи те же, что при сравнении всех пар.
+ * Полная сборка считает строки параллельно в fork/join. Сохранение или удаление рецепта
+ * даёт новую таблицу: его строка считается заново, остальные сравниваются только с ним
+ * (строки, где он был соседом, — заново); z-оценки — по средним последней полной сборки.
+ * Неизменяема.
+ */
+final class RecipeNeighbours {
+
+    private static final int DIMS = 5;           // calories, proteins, fats, carbs, cookingTime
+    private static final float MAX_Z = 3f;       // выбросы не должны перевешивать остальные признаки
+    private static final int ROWS_PER_TASK = 64;
+
+    private static final float W_NUTRITION = 0.4f;
+    private static final float W_INGREDIENTS = 0.3f;
+    private static final float W_DIET = 0.2f;
+    private static final float W_DIFFICULTY = 0.1f;
+
+    // Наибольшее сходство рецептов без общих ингредиентов и общей диеты
+    private static final float OUTSIDE_LIMIT = W_NUTRITION + W_DIFFICULTY;
+
+    private static final Map<String, Float> DIFFICULTY_LEVELS = Map.of(
+            "easy", 0f,
+            "medium", 0.5f,
+            "hard", 1f);
+    private static final float UNKNOWN_DIFFICULTY = 0.5f;
+
+    private final long version;
+    private final int k;
+    private final Features features;
+    private final int[] counts;        // сколько соседей у строки (≤ k)
+    private final long[] neighbours;   // строка r — [r * k, r * k + counts[r]), по убыванию сходства
+    private final float[] scores;
+
+    private RecipeNeighbours(long version, int k, Features features, int[] counts, long[] neighbours, float[] scores) {
+        this.version = version;
+        this.k = k;
+        this.features = features;
+        this.counts = counts;
+        this.neighbours = neighbours;
+        this.scores = scores;
+    }
+
+    static RecipeNeighbours build(RecipeCatalogSnapshot snapshot, int k, ForkJoinPool pool) {
+
+        Features features = Features.of(snapshot.getRecipes());
+        int n = features.size;
+
+        int[] counts = new int[n];
+        long[] neighbours = new long[n * k];
+        float[] scores = new float[n * k];
+
+        pool.invoke(new Rows(features, k, counts, neighbours, scores, 0, n));
+
+        return new RecipeNeighbours(snapshot.getVersion(), k, features, counts, neighbours, scores);
+    }
+
+    // ================= UPDATE =================
+    // Рецепт создан или изменён в снимке version
+    RecipeNeighbours withRecipe(Recipe recipe, long version) {
+        Features f = features.with(recipe);
+        return update(f, f.row(recipe.getId()), recipe.getId(), version);
+    }
+
+    RecipeNeighbours withoutRecipe(long recipeId, long version) {
+        if (features.row(recipeId) < 0) {
+            return new RecipeNeighbours(version, k, features, counts, neighbours, scores);
+        }
+        return update(features.without(recipeId), -1, recipeId, version);
+    }
+
+    // changedRow — строка рецепта в f; -1 — рецепт удалён
+    private RecipeNeighbours update(Features f, int changedRow, long changedId, long version) {
+
+        int n = f.size;
+        int[] c = Arrays.copyOf(counts, n);
+        long[] nb = Arrays.copyOf(neighbours, n * k);
+        float[] sc = Arrays.copyOf(scores, n * k);
+
+        if (changedRow >= 0) {
+            Rows.row(f, k, changedRow, c, nb, sc);
+        } else {
+            c[features.row(changedId)] = 0;
+        }
+
+        for (int r = 0; r < n; r++) {
+            if (r == changedRow || f.removed[r]) {
+                continue;
+            }
+            int base = r * k;
+            if (contains(nb, base, c[r], changedId)) {
+                // Сходство с рецептом стало другим или рецепта нет — его место мог занять любой
+                Rows.row(f, k, r, c, nb, sc);
+            } else if (changedRow >= 0) {
+                c[r] = insert(nb, sc, base, c[r], k, changedId, f.similarity(r, changedRow));
+            }
+        }
+        return new RecipeNeighbours(version, k, f, c, nb, sc);
+    }
+
+    long version() {
+        return version;
+    }
+
+    // Позиция строки рецепта; -1 — рецепта в таблице нет (добавлен после сборки)
+    int row(long recipeId) {
+        return features.row(recipeId);
+    }
+
+    int count(int row) {
+        return counts[row];
+    }
+
+    long neighbour(int row, int j) {
+        return neighbours[row * k + j];
+    }
+
+    float score(int row, int j) {
+        return scores[row * k + j];
+    }
+
+    private static boolean contains(long[] neighbours, int base, int count, long id) {
+        for (int j = 0; j < count; j++) {
+            if (neighbours[base + j] == id) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Вставка в строку [base, base + size), отсортированную по убыванию сходства; возвращает новый размер
+    private static int insert(long[] neighbours, float[] scores, int base, int size, int k, long id, float s) {
+        if (size == k && !before(s, id, scores[base + k - 1], neighbours[base + k - 1])) {
+            return size;
+        }
+        int i = size < k ? size++ : k - 1;
+        while (i > 0 && before(s, id, scores[base + i - 1], neighbours[base + i - 1])) {
+            neighbours[base + i] = neighbours[base + i - 1];
+            scores[base + i] = scores[base + i - 1];
+            i--;
+        }
+        neighbours[base + i] = id;
+        scores[base + i] = s;
+        return size;
+    }
+
+    // Выше в списке: большее сходство, при равенстве — меньший id
+    private static boolean before(float s, long id, float otherScore, long otherId) {
+        return s > otherScore || (s == otherScore && id < otherId);
+    }
+
+    // ================= BUILD =================
+    // Строки [from, to) — каждая сравнивается с кандидатами и держит top-K
+    private static final class Rows extends RecursiveAction {
+
+        private final Features features;
+        private final int k;
+        private final int[] counts;
+        private final long[] neighbours;
+        private final float[] scores;
+        private final int from;
+        private final int to;
+
+        Rows(Features features, int k, int[] counts, long[] neighbours, float[] scores, int from, int to) {
+            this.features = features;
+            this.k = k;
+            this.counts = counts;
+            this.neighbours = neighbours;
+            this.scores = scores;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= ROWS_PER_TASK) {
+                for (int r = from; r < to; r++) {
+                    if (!features.removed[r]) {
+                        row(features, k, r, counts, neighbours, scores);
+                    }
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new Rows(features, k, counts, neighbours, scores, from, mid),
+                    new Rows(features, k, counts, neighbours, scores, mid, to));
+        }
+
+        static void row(Features f, int k, int r, int[] counts, long[] neighbours, float[] scores) {
+            int base = r * k;
+            int size = 0;
+
+            RoaringBitmap candidates = f.candidates(r);
+            IntIterator it = candidates.getIntIterator();
+            while (it.hasNext()) {
+                int c = it.next();
+                size = insert(neighbours, scores, base, size, k, f.ids[c], f.similarity(r, c));
+            }
+
+            // Остальные рецепты выше OUTSIDE_LIMIT не наберут — смотрим их, только если могут войти в top-K
+            if (size < k || scores[base + k - 1] <= OUTSIDE_LIMIT) {
+                for (int c = 0; c < f.size; c++) {
+                    if (c != r && !f.removed[c] && !candidates.contains(c)) {
+                        size = insert(neighbours, scores, base, size, k, f.ids[c], f.similarity(r, c));
+                    }
+                }
+            }
+            counts[r] = size;
+        }
+    }
+
+    // ================= FEATURES =================
+    // Признаки по строкам. Полная сборка — в порядке снимка; новые рецепты дописываются в конец,
+    // удалённые остаются строками с пометкой removed до следующей полной сборки.
+    // Массивы не меняются после публикации: with/without копируют то, что трогают
+    private static final class Features {
+
+        final int size;
+        final long[] ids;
+        final boolean[] removed;
+        final float[] numeric;        // size * DIMS, z-оценки
+        final int[] diet;             // код диеты, -1 — не указана
+        final float[] difficulty;
+        final long[][] ingredients;   // отсортированные id
+
+        final double[] mean;          // нормировка полной сборки
+        final double[] std;
+        final Map<String, Integer> diets;
+        final Map<Long, Integer> rows;                     // id → строка, без удалённых
+        final Map<Long, RoaringBitmap> rowsByIngredient;
+        final Map<Integer, RoaringBitmap> rowsByDiet;
+
+        private Features(int size, long[] ids, boolean[] removed, float[] numeric, int[] diet, float[] difficulty,
+                         long[][] ingredients, double[] mean, double[] std, Map<String, Integer> diets,
+                         Map<Long, Integer> rows, Map<Long, RoaringBitmap> rowsByIngredient,
+                         Map<Integer, RoaringBitmap> rowsByDiet) {
+            this.size = size;
+            this.ids = ids;
+            this.removed = removed;
+            this.numeric = numeric;
+            this.diet = diet;
+            this.difficulty = difficulty;
+            this.ingredients = ingredients;
+            this.mean = mean;
+            this.std = std;
+            this.diets = diets;
+            this.rows = rows;
+            this.rowsByIngredient = rowsByIngredient;
+            this.rowsByDiet = rowsByDiet;
+        }
+
+        static Features of(List<Recipe> recipes) {
+            int n = recipes.size();
+
+            // Z-оценка по каждому признаку; пропуски (NaN) — среднее, т.е. 0
+            double[] mean = new double[DIMS];
+            double[] std = new double[DIMS];
+            for (int d = 0; d < DIMS; d++) {
+                double sum = 0;
+                double squares = 0;
+                int present = 0;
+                for (Recipe recipe : recipes) {
+                    double v = raw(recipe, d);
+                    if (!Double.isNaN(v)) {
+                        sum += v;
+                        squares += v * v;
+                        present++;
+                    }
+                }
+                mean[d] = present == 0 ? 0 : sum / present;
+                double variance = present == 0 ? 0 : squares / present - mean[d] * mean[d];
+                std[d] = variance > 1e-9 ? Math.sqrt(variance) : 1;
+            }
+
+            Features f = new Features(n, new long[n], new boolean[n], new float[n * DIMS], new int[n],
+                    new float[n], new long[n][], mean, std, new HashMap<>(), new HashMap<>(),
+                    new HashMap<>(), new HashMap<>());
+            for (int r = 0; r < n; r++) {
+                f.set(r, recipes.get(r));
+            }
+            f.rowsByIngredient.values().forEach(RoaringBitmap::runOptimize);
+            return f;
+        }
+
+        // Копия с рецептом: существующая строка заменяется, новая дописывается
+        Features with(Recipe recipe) {
+            Integer existing = rows.get(recipe.getId());
+            int r = existing != null ? existing : size;
+            int n = existing != null ? size : size + 1;
+
+            Features f = new Features(n, Arrays.copyOf(ids, n), Arrays.copyOf(removed, n),
+                    Arrays.copyOf(numeric, n * DIMS), Arrays.copyOf(diet, n), Arrays.copyOf(difficulty, n),
+                    Arrays.copyOf(ingredients, n), mean, std, new HashMap<>(diets), new HashMap<>(rows),
+                    new HashMap<>(rowsByIngredient), new HashMap<>(rowsByDiet));
+            if (existing != null) {
+                f.unlink(r);
+            }
+            f.set(r, recipe);
+            return f;
+        }
+
+        Features without(long recipeId) {
+            int r = rows.get(recipeId);
+            Features f = new Features(size, ids, Arrays.copyOf(removed, size), numeric, diet, difficulty,
+                    ingredients, mean, std, diets, new HashMap<>(rows),
+                    new HashMap<>(rowsByIngredient), new HashMap<>(rowsByDiet));
+            f.unlink(r);
+            f.rows.remove(recipeId);
+            f.removed[r] = true;
+            return f;
+        }
+
+        int row(long recipeId) {
+            Integer r = rows.get(recipeId);
+            return r == null ? -1 : r;
+        }
+
+        // Рецепты с общим ингредиентом или той же диетой, без самой строки
+        RoaringBitmap candidates(int r) {
+            RoaringBitmap result = new RoaringBitmap();
+            for (long ingredientId : ingredients[r]) {
+                result.or(rowsByIngredient.get(ingredientId));
+            }
+            if (diet[r] >= 0) {
+                result.or(rowsByDiet.get(diet[r]));
+            }
+            result.remove(r);
+            return result;
+        }
+
+        float similarity(int a, int b) {
+            float distance = 0;
+            for (int d = 0; d < DIMS; d++) {
+                float delta = numeric[a * DIMS + d] - numeric[b * DIMS + d];
+                distance += delta * delta;
+            }
+            float nutrition = 1f / (1f + (float) Math.sqrt(distance / DIMS));
+            float sameDiet = diet[a] >= 0 && diet[a] == diet[b] ? 1f : 0f;
+            float closeDifficulty = 1f - Math.abs(difficulty[a] - difficulty[b]);
+
+            return W_NUTRITION * nutrition
+                    + W_INGREDIENTS * jaccard(ingredients[a], ingredients[b])
+                    + W_DIET * sameDiet
+                    + W_DIFFICULTY * closeDifficulty;
+        }
+
+        // Только для ещё не опубликованной копии
+        private void set(int r, Recipe recipe) {
+            ids[r] = recipe.getId();
+            removed[r] = false;
+            rows.put(recipe.getId(), r);
+
+            for (int d = 0; d < DIMS; d++) {
+                double v = raw(recipe, d);
+                float z = Double.isNaN(v) ? 0f : (float) ((v - mean[d]) / std[d]);
+                numeric[r * DIMS + d] = Math.max(-MAX_Z, Math.min(MAX_Z, z));
+            }
+
+            String dietName = recipe.getDiet() == null ? null : recipe.getDiet().getName();
+            diet[r] = dietName == null || dietName.isBlank()
+                    ? -1
+                    : diets.computeIfAbsent(key(dietName), name -> diets.size());
+
+            difficulty[r] = recipe.getDifficulty() == null
+                    ? UNKNOWN_DIFFICULTY
+                    : DIFFICULTY_LEVELS.getOrDefault(key(recipe.getDifficulty()), UNKNOWN_DIFFICULTY);
+
+            ingredients[r] = ingredientIds(recipe);
+
+            for (long ingredientId : ingredients[r]) {
+                rowsByIngredient.put(ingredientId, plus(rowsByIngredient.get(ingredientId), r));
+            }
+            if (diet[r] >= 0) {
+                rowsByDiet.put(diet[r], plus(rowsByDiet.get(diet[r]), r));
+            }
+        }
+
+        // Убирает строку из битмапов копии; сами битмапы общие с прежней таблицей — меняем клоны
+        private void unlink(int r) {
+            for (long ingredientId : ingredients[r]) {
+                RoaringBitmap left = RoaringBitmap.remove(rowsByIngredient.get(ingredientId), r, r + 1L);
+                if (left.isEmpty()) {
+                    rowsByIngredient.remove(ingredientId);
+                } else {
+                    rowsByIngredient.put(ingredientId, left);
+                }
+            }
+            if (diet[r] >= 0) {
+                rowsByDiet.put(diet[r], RoaringBitmap.remove(rowsByDiet.get(diet[r]), r, r + 1L));
+            }
+        }
+
+        private static RoaringBitmap plus(RoaringBitmap bitmap, int r) {
+            RoaringBitmap result = bitmap == null ? new RoaringBitmap() : bitmap.clone();
+            result.add(r);
+            return result;
+        }
+
+        private static float jaccard(long[] a, long[] b) {
+            if (a.length == 0 || b.length == 0) {
+                return 0f;
+            }
+            int common = 0;
+            int i = 0;
+            int j = 0;
+            while (i < a.length && j < b.length) {
+                if (a[i] == b[j]) {
+                    common++;
+                    i++;
+                    j++;
+                } else if (a[i] < b[j]) {
+                    i++;
+                } else {
+                    j++;
+                }
+            }
+            return (float) common / (a.length + b.length - common);
+        }
+
+        private static long[] ingredientIds(Recipe recipe) {
+            List<Ingredient> list = recipe.getIngredients();
+            if (list == null) {
+                return new long[0];
+            }
+            return list.stream()
+                    .mapToLong(Ingredient::getId)
+                    .sorted()
+                    .distinct()
+                    .toArray();
+        }
+
+        private static double raw(Recipe recipe, int d) {
+            return switch (d) {
+                case 0 -> value(recipe.getCalories());
+                case 1 -> value(recipe.getProteins());
+                case 2 -> value(recipe.getFats());
+                case 3 -> value(recipe.getCarbs());
+                default -> value(recipe.getCookingTime());
+            };
+        }
+
+        private static double value(Number number) {
+            return number == null ? Double.NaN : number.doubleValue();
+        }
+
+        private static String key(String value) {
+            return value.trim().toLowerCase(Locale.ROOT);
+        }
+    }
+}
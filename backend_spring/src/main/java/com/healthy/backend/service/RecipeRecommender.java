@@ -0,0 +1,265 @@
+package com.healthy.backend.service;
+
+import com.healthy.backend.dto.RecipeRecommendation;
+import com.healthy.backend.dto.RecipeSummary;
+import com.healthy.backend.exception.NotFoundException;
+import com.healthy.backend.model.Recipe;
+import com.healthy.backend.repository.MealPlanRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Рекомендации рецептов по таблице ближайших соседей {@link RecipeNeighbours}.
+ * «Похожие» — готовые K соседей рецепта; «для вас» — соседи рецептов из планов
+ * пользователя за последние недели, взвешенные по давности.
+ * Таблица обновляется только в фоне: перезагрузка каталога — полная сборка,
+ * сохранение или удаление рецепта — пересчёт его строки. Изменения, пришедшие во время
+ * обновления, применяются следующим проходом по порядку; до его окончания отвечает
+ * предыдущая таблица. Пока первой таблицы нет, рекомендаций нет — поток запроса её не строит.
+ */
+@Service
+public class RecipeRecommender implements RecipeCatalogListener {
+
+    private static final Logger log = LoggerFactory.getLogger(RecipeRecommender.class);
+
+    public static final int MAX_LIMIT = 50;
+    public static final int HISTORY_DAYS = 60;
+    private static final double HALF_LIFE_DAYS = 14;
+
+    // Изменение одного рецепта; snapshot — снимок сразу после него
+    private record Change(RecipeCatalogSnapshot snapshot, Recipe saved, Long deletedId) {
+    }
+
+    private final RecipeCatalog recipeCatalog;
+    private final MealPlanRepository mealPlanRepository;
+    private final int neighbours;
+    private final ForkJoinPool pool;
+
+    private final Object updatesLock = new Object();
+    private RecipeCatalogSnapshot rebuildFrom;                // под updatesLock: собрать таблицу заново
+    private final List<Change> changes = new ArrayList<>();  // под updatesLock: после rebuildFrom, по порядку
+    private boolean updating;                                // под updatesLock: фоновый проход запущен
+    private volatile RecipeNeighbours table;
+
+    public RecipeRecommender(RecipeCatalog recipeCatalog,
+                             MealPlanRepository mealPlanRepository,
+                             @Value("${recipes.recommendations.neighbours:20}") int neighbours,
+                             @Value("${recipes.recommendations.parallelism:0}") int parallelism) {
+        this.recipeCatalog = recipeCatalog;
+        this.mealPlanRepository = mealPlanRepository;
+        this.neighbours = Math.max(1, Math.min(neighbours, MAX_LIMIT));
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+    }
+
+    // ================= QUERY =================
+    // Похожие рецепты: K готовых соседей, без пересчёта
+    public List<RecipeRecommendation> similar(Long recipeId, int limit) {
+
+        RecipeCatalogSnapshot snapshot = recipeCatalog.snapshot();
+        if (snapshot.findById(recipeId) == null) {
+            throw new NotFoundException("Recipe not found");
+        }
+
+        RecipeNeighbours t = table;
+        int row = t == null ? -1 : t.row(recipeId);
+        if (row < 0) {
+            return List.of(); // таблица ещё строится или рецепт новее её — соседи появятся после обновления
+        }
+
+        int top = Math.max(1, Math.min(limit, MAX_LIMIT));
+        List<RecipeRecommendation> result = new ArrayList<>(Math.min(top, t.count(row)));
+        for (int j = 0; j < t.count(row) && result.size() < top; j++) {
+            RecipeSummary summary = snapshot.summaryOf(t.neighbour(row, j));
+            if (summary != null) {
+                result.add(new RecipeRecommendation(summary, round(t.score(row, j))));
+            }
+        }
+        return result;
+    }
+
+    // Для пользователя: соседи рецептов из его планов, кроме уже запланированных
+    public List<RecipeRecommendation> recommendFor(Long userId, int limit) {
+
+        LocalDate today = LocalDate.now();
+        Map<Long, Double> history = new HashMap<>();
+        for (MealPlanRepository.CalendarRow row : mealPlanRepository.findCalendar(
+                userId, Date.valueOf(today.minusDays(HISTORY_DAYS)), Date.valueOf(today))) {
+            long age = ChronoUnit.DAYS.between(row.getPlanDate().toLocalDate(), today);
+            double weight = Math.pow(0.5, age / HALF_LIFE_DAYS);
+            addWeight(history, row.getBreakfastId(), weight);
+            addWeight(history, row.getLunchId(), weight);
+            addWeight(history, row.getDinnerId(), weight);
+        }
+        if (history.isEmpty()) {
+            return List.of();
+        }
+
+        RecipeCatalogSnapshot snapshot = recipeCatalog.snapshot();
+        RecipeNeighbours t = table;
+        if (t == null) {
+            return List.of();
+        }
+
+        // O(история × K)
+        Map<Long, Double> scores = new HashMap<>();
+        history.forEach((recipeId, weight) -> {
+            int row = t.row(recipeId);
+            if (row < 0) {
+                return;
+            }
+            for (int j = 0; j < t.count(row); j++) {
+                long candidate = t.neighbour(row, j);
+                if (!history.containsKey(candidate)) {
+                    scores.merge(candidate, weight * t.score(row, j), Double::sum);
+                }
+            }
+        });
+
+        int top = Math.max(1, Math.min(limit, MAX_LIMIT));
+        List<RecipeRecommendation> result = new ArrayList<>(top);
+        scores.entrySet().stream()
+                .sorted(Map.Entry.<Long, Double>comparingByValue(Comparator.reverseOrder())
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .forEach(e -> {
+                    RecipeSummary summary = snapshot.summaryOf(e.getKey());
+                    if (summary != null && result.size() < top) {
+                        result.add(new RecipeRecommendation(summary, round(e.getValue())));
+                    }
+                });
+        return result;
+    }
+
+    // Версия каталога, по которой построена таблица; -1 — таблицы ещё нет
+    public long tableVersion() {
+        RecipeNeighbours t = table;
+        return t == null ? -1 : t.version();
+    }
+
+    // ================= UPDATES =================
+    // Вызываются под блокировкой каталога — только запоминаем изменение и будим фоновый проход
+    @Override
+    public void onCatalogRebuilt(RecipeCatalogSnapshot snapshot) {
+        synchronized (updatesLock) {
+            rebuildFrom = snapshot;
+            changes.clear();   // полная сборка их уже учтёт
+        }
+        scheduleUpdate();
+    }
+
+    @Override
+    public void onRecipeSaved(Recipe recipe, RecipeCatalogSnapshot snapshot) {
+        synchronized (updatesLock) {
+            changes.add(new Change(snapshot, recipe, null));
+        }
+        scheduleUpdate();
+    }
+
+    @Override
+    public void onRecipeDeleted(Long id, RecipeCatalogSnapshot snapshot) {
+        synchronized (updatesLock) {
+            changes.add(new Change(snapshot, null, id));
+        }
+        scheduleUpdate();
+    }
+
+    private void scheduleUpdate() {
+        synchronized (updatesLock) {
+            if (updating) {
+                return;
+            }
+            updating = true;
+        }
+        pool.execute(this::update);
+    }
+
+    // Один проход за раз; флаг снимается под той же блокировкой, под которой видно, что очередь пуста
+    private void update() {
+        while (true) {
+            RecipeCatalogSnapshot full;
+            List<Change> batch;
+            synchronized (updatesLock) {
+                full = rebuildFrom;
+                batch = List.copyOf(changes);
+                rebuildFrom = null;
+                changes.clear();
+                if (full == null && batch.isEmpty()) {
+                    updating = false;
+                    return;
+                }
+            }
+
+            try {
+                RecipeNeighbours t = full != null ? build(full) : table;
+                if (t == null) {
+                    // Прошлая сборка не удалась — собираем по снимку последнего изменения
+                    t = build(batch.get(batch.size() - 1).snapshot());
+                }
+                for (Change change : batch) {
+                    t = apply(t, change);
+                }
+                table = t;
+            } catch (RuntimeException e) {
+                log.error("Не удалось обновить таблицу похожих рецептов", e);
+                if (full == null) {
+                    // Строки таблицы могли разойтись с каталогом — следующий проход соберёт её целиком
+                    synchronized (updatesLock) {
+                        if (rebuildFrom == null) {
+                            rebuildFrom = batch.get(batch.size() - 1).snapshot();
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private RecipeNeighbours apply(RecipeNeighbours t, Change change) {
+        long version = change.snapshot().getVersion();
+        if (version <= t.version()) {
+            return t;   // уже в таблице
+        }
+        long started = System.nanoTime();
+        RecipeNeighbours updated = change.saved() != null
+                ? t.withRecipe(change.saved(), version)
+                : t.withoutRecipe(change.deletedId(), version);
+        log.debug("Таблица похожих рецептов: рецепт {} пересчитан за {} мс (версия каталога {})",
+                change.saved() != null ? change.saved().getId() : change.deletedId(),
+                (System.nanoTime() - started) / 1_000_000, version);
+        return updated;
+    }
+
+    private RecipeNeighbours build(RecipeCatalogSnapshot snapshot) {
+        long started = System.nanoTime();
+        RecipeNeighbours built = RecipeNeighbours.build(snapshot, neighbours, pool);
+        log.info("Таблица похожих рецептов: {} рецептов × {} соседей за {} мс (версия каталога {})",
+                snapshot.size(), neighbours, (System.nanoTime() - started) / 1_000_000, snapshot.getVersion());
+        return built;
+    }
+
+    private static void addWeight(Map<Long, Double> history, Long recipeId, double weight) {
+        if (recipeId != null) {
+            history.merge(recipeId, weight, Double::sum);
+        }
+    }
+
+    private static double round(double score) {
+        return Math.round(score * 1000) / 1000.0;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+}
@@ -0,0 +1,412 @@
+package com.healthy.backend.service;
+
+import com.healthy.backend.model.Ingredient;
+import com.healthy.backend.model.Recipe;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Инвертированный индекс по рецептам: название, описание, диета и ингредиенты.
+ * Термы нормализуются (нижний регистр, ё → е, без диакритики), запрос ищет точное
+ * совпадение, затем префиксы по отсортированному словарю, а для опечаток — термы
+ * с похожим набором триграмм. Индекс обновляется по одному рецепту на каждую запись.
+ */
+@Component
+public class RecipeSearchIndex implements RecipeCatalogListener {
+
+    public static final int MAX_LIMIT = 200;
+
+    private static final float TITLE_WEIGHT = 3f;
+    private static final float DIET_WEIGHT = 2f;
+    private static final float INGREDIENT_WEIGHT = 2f;
+    private static final float DESCRIPTION_WEIGHT = 1f;
+
+    private static final float PREFIX_FACTOR = 0.6f;
+    private static final float TRIGRAM_FACTOR = 0.4f;
+    private static final double MIN_TRIGRAM_SIMILARITY = 0.5;
+    private static final int MAX_EXPANSIONS = 64;
+    private static final int MAX_QUERY_TERMS = 16;
+    private static final int MIN_TERM_LENGTH = 2;
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    private static final ThreadLocal<ScoreBuffer> BUFFERS = ThreadLocal.withInitial(ScoreBuffer::new);
+
+    private final RecipeCatalog recipeCatalog;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private Index index = new Index(); // под lock
+
+    public RecipeSearchIndex(RecipeCatalog recipeCatalog) {
+        this.recipeCatalog = recipeCatalog;
+    }
+
+    // ================= QUERY =================
+    public List<Recipe> search(String query, int limit) {
+
+        List<String> terms = new ArrayList<>(tokenize(query));
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+        if (terms.size() > MAX_QUERY_TERMS) {
+            terms = terms.subList(0, MAX_QUERY_TERMS);
+        }
+        int top = Math.max(1, Math.min(limit, MAX_LIMIT));
+
+        recipeCatalog.snapshot(); // read-through: индекс строится при первой загрузке каталога
+
+        lock.readLock().lock();
+        try {
+            return index.search(terms, top);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ================= UPDATES =================
+    @Override
+    public void onCatalogRebuilt(RecipeCatalogSnapshot snapshot) {
+        Index fresh = new Index();
+        for (Recipe recipe : snapshot.getRecipes()) {
+            fresh.add(recipe);
+        }
+
+        lock.writeLock().lock();
+        try {
+            index = fresh;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void onRecipeSaved(Recipe recipe, RecipeCatalogSnapshot snapshot) {
+        lock.writeLock().lock();
+        try {
+            index.remove(recipe.getId());
+            index.add(recipe);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        compactIfNeeded(snapshot);
+    }
+
+    @Override
+    public void onRecipeDeleted(Long id, RecipeCatalogSnapshot snapshot) {
+        lock.writeLock().lock();
+        try {
+            index.remove(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+        compactIfNeeded(snapshot);
+    }
+
+    // Удалённые документы остаются в постингах как «надгробия»; когда их много — пересобираем
+    private void compactIfNeeded(RecipeCatalogSnapshot snapshot) {
+        boolean fragmented;
+        lock.readLock().lock();
+        try {
+            fragmented = index.deleted > 64 && index.deleted > index.live / 4;
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (fragmented) {
+            onCatalogRebuilt(snapshot);
+        }
+    }
+
+    // ================= TEXT =================
+    static String normalize(String text) {
+        String lower = text.toLowerCase(Locale.ROOT).replace('ё', 'е');
+        return COMBINING_MARKS.matcher(Normalizer.normalize(lower, Normalizer.Form.NFD)).replaceAll("");
+    }
+
+    static Set<String> tokenize(String text) {
+        Set<String> tokens = new LinkedHashSet<>();
+        if (text == null || text.isBlank()) {
+            return tokens;
+        }
+
+        String normalized = normalize(text);
+        int start = -1;
+        for (int i = 0; i <= normalized.length(); i++) {
+            boolean word = i < normalized.length() && Character.isLetterOrDigit(normalized.charAt(i));
+            if (word && start < 0) {
+                start = i;
+            } else if (!word && start >= 0) {
+                if (i - start >= MIN_TERM_LENGTH) {
+                    tokens.add(normalized.substring(start, i));
+                }
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    private static List<String> trigrams(String term) {
+        String padded = "$" + term + "$";
+        List<String> grams = new ArrayList<>(padded.length());
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            grams.add(padded.substring(i, i + 3));
+        }
+        return grams;
+    }
+
+    // ================= STRUCTURES =================
+    private static final class Index {
+
+        final List<Recipe> docs = new ArrayList<>();             // ordinal → рецепт (null, если удалён)
+        final Map<Long, Integer> ordinals = new HashMap<>();      // id рецепта → ordinal
+        final TreeMap<String, Postings> terms = new TreeMap<>();
+        final Map<String, List<String>> trigramTerms = new HashMap<>();
+        int live;
+        int deleted;
+
+        void add(Recipe recipe) {
+            int doc = docs.size();
+            docs.add(recipe);
+            ordinals.put(recipe.getId(), doc);
+            live++;
+
+            Map<String, Float> weights = new HashMap<>();
+            collect(weights, recipe.getTitle(), TITLE_WEIGHT);
+            collect(weights, recipe.getDescription(), DESCRIPTION_WEIGHT);
+            if (recipe.getDiet() != null) {
+                collect(weights, recipe.getDiet().getName(), DIET_WEIGHT);
+            }
+            if (recipe.getIngredients() != null) {
+                for (Ingredient ingredient : recipe.getIngredients()) {
+                    collect(weights, ingredient.getName(), INGREDIENT_WEIGHT);
+                }
+            }
+
+            weights.forEach((term, weight) -> postingsFor(term).add(doc, weight));
+        }
+
+        void remove(Long recipeId) {
+            Integer doc = ordinals.remove(recipeId);
+            if (doc != null) {
+                docs.set(doc, null);
+                live--;
+                deleted++;
+            }
+        }
+
+        private static void collect(Map<String, Float> weights, String text, float weight) {
+            for (String term : tokenize(text)) {
+                weights.merge(term, weight, Float::sum);
+            }
+        }
+
+        private Postings postingsFor(String term) {
+            Postings postings = terms.get(term);
+            if (postings == null) {
+                postings = new Postings();
+                terms.put(term, postings);
+                for (String gram : trigrams(term)) {
+                    trigramTerms.computeIfAbsent(gram, k -> new ArrayList<>()).add(term);
+                }
+            }
+            return postings;
+        }
+
+        List<Recipe> search(List<String> query, int limit) {
+            ScoreBuffer buffer = BUFFERS.get();
+            buffer.reset(docs.size());
+
+            for (int i = 0; i < query.size(); i++) {
+                String term = query.get(i);
+                int bit = 1 << i;
+
+                Postings exact = terms.get(term);
+                if (exact != null) {
+                    accumulate(buffer, exact, 1f, bit);
+                }
+
+                int expansions = 0;
+                NavigableMap<String, Postings> prefixed =
+                        terms.subMap(term, false, term + Character.MAX_VALUE, false);
+                for (Postings postings : prefixed.values()) {
+                    accumulate(buffer, postings, PREFIX_FACTOR, bit);
+                    if (++expansions >= MAX_EXPANSIONS) {
+                        break;
+                    }
+                }
+
+                if (exact == null && expansions == 0 && term.length() >= 3) {
+                    fuzzy(buffer, term, bit);
+                }
+            }
+
+            return buffer.top(docs, limit);
+        }
+
+        // Термы с похожим набором триграмм (коэффициент Дайса) — для опечаток и словоформ
+        private void fuzzy(ScoreBuffer buffer, String term, int bit) {
+            List<String> grams = trigrams(term);
+            Map<String, Integer> shared = new HashMap<>();
+            for (String gram : grams) {
+                List<String> candidates = trigramTerms.get(gram);
+                if (candidates != null) {
+                    for (String candidate : candidates) {
+                        shared.merge(candidate, 1, Integer::sum);
+                    }
+                }
+            }
+
+            List<Map.Entry<String, Double>> similar = new ArrayList<>();
+            for (Map.Entry<String, Integer> e : shared.entrySet()) {
+                double similarity = 2.0 * e.getValue() / (grams.size() + e.getKey().length());
+                if (similarity >= MIN_TRIGRAM_SIMILARITY) {
+                    similar.add(Map.entry(e.getKey(), similarity));
+                }
+            }
+            similar.sort(Map.Entry.<String, Double>comparingByValue().reversed());
+
+            for (int i = 0; i < similar.size() && i < MAX_EXPANSIONS; i++) {
+                Map.Entry<String, Double> e = similar.get(i);
+                accumulate(buffer, terms.get(e.getKey()), (float) (TRIGRAM_FACTOR * e.getValue()), bit);
+            }
+        }
+
+        private void accumulate(ScoreBuffer buffer, Postings postings, float factor, int bit) {
+            float idf = (float) Math.log(1.0 + (double) Math.max(live, 1) / postings.size);
+            float scale = factor * idf;
+            for (int i = 0; i < postings.size; i++) {
+                int doc = postings.docs[i];
+                if (docs.get(doc) != null) {
+                    buffer.add(doc, postings.weights[i] * scale, bit);
+                }
+            }
+        }
+    }
+
+    private static final class Postings {
+        int[] docs = new int[4];
+        float[] weights = new float[4];
+        int size;
+
+        void add(int doc, float weight) {
+            if (size == docs.length) {
+                docs = Arrays.copyOf(docs, size * 2);
+                weights = Arrays.copyOf(weights, size * 2);
+            }
+            docs[size] = doc;
+            weights[size] = weight;
+            size++;
+        }
+    }
+
+    // Переиспользуемый на поток аккумулятор очков: сбрасываются только затронутые документы
+    private static final class ScoreBuffer {
+        float[] scores = new float[0];
+        int[] masks = new int[0];
+        int[] touched = new int[64];
+        int touchedCount;
+
+        void reset(int capacity) {
+            for (int i = 0; i < touchedCount; i++) {
+                scores[touched[i]] = 0f;
+                masks[touched[i]] = 0;
+            }
+            touchedCount = 0;
+            if (scores.length < capacity) {
+                scores = new float[capacity];
+                masks = new int[capacity];
+            }
+        }
+
+        void add(int doc, float score, int bit) {
+            if (masks[doc] == 0) {
+                if (touchedCount == touched.length) {
+                    touched = Arrays.copyOf(touched, touchedCount * 2);
+                }
+                touched[touchedCount++] = doc;
+            }
+            masks[doc] |= bit;
+            scores[doc] += score;
+        }
+
+        // Сначала больше совпавших слов запроса, затем больший вес
+        private boolean better(int a, int b) {
+            int ma = Integer.bitCount(masks[a]);
+            int mb = Integer.bitCount(masks[b]);
+            return ma != mb ? ma > mb : scores[a] > scores[b];
+        }
+
+        List<Recipe> top(List<Recipe> docs, int limit) {
+            // min-heap из limit лучших документов
+            int[] heap = new int[Math.min(limit, touchedCount)];
+            int size = 0;
+
+            for (int i = 0; i < touchedCount; i++) {
+                int doc = touched[i];
+                if (size < heap.length) {
+                    heap[size] = doc;
+                    siftUp(heap, size++);
+                } else if (heap.length > 0 && better(doc, heap[0])) {
+                    heap[0] = doc;
+                    siftDown(heap, size);
+                }
+            }
+
+            Recipe[] result = new Recipe[size];
+            for (int i = size - 1; i >= 0; i--) {
+                result[i] = docs.get(heap[0]);
+                heap[0] = heap[i];
+                siftDown(heap, i);
+            }
+            return List.of(result);
+        }
+
+        private void siftUp(int[] heap, int i) {
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (!better(heap[parent], heap[i])) {
+                    break;
+                }
+                swap(heap, i, parent);
+                i = parent;
+            }
+        }
+
+        private void siftDown(int[] heap, int size) {
+            int i = 0;
+            while (true) {
+                int left = 2 * i + 1;
+                int right = left + 1;
+                int worst = i;
+                if (left < size && better(heap[worst], heap[left])) {
+                    worst = left;
+                }
+                if (right < size && better(heap[worst], heap[right])) {
+                    worst = right;
+                }
+                if (worst == i) {
+                    return;
+                }
+                swap(heap, i, worst);
+                i = worst;
+            }
+        }
+
+        private static void swap(int[] heap, int a, int b) {
+            int tmp = heap[a];
+            heap[a] = heap[b];
+            heap[b] = tmp;
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.healthy.backend.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.healthy.backend.dto.ShoppingItem;
+import com.healthy.backend.exception.BadRequestException;
+import com.healthy.backend.repository.IngredientRepository;
+import com.healthy.backend.repository.MealPlanRepository;
+import com.healthy.backend.repository.RecipeIngredientRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Список покупок по планам питания за период: граммы каждого ингредиента,
+ * просуммированные по всем завтракам, обедам и ужинам.
+ * Планы читаются одним запросом (только id рецептов), состав рецептов берётся
+ * из таблицы граммовок в памяти, а суммы копятся в примитивной хэш-таблице —
+ * на запрос ровно один SQL, сколько бы рецептов ни было в периоде.
+ * Таблица граммовок перестраивается при следующем запросе после изменения каталога.
+ */
+@Service
+public class ShoppingListService implements RecipeCatalogListener {
+
+    private static final Logger log = LoggerFactory.getLogger(ShoppingListService.class);
+
+    public static final int MAX_DAYS = 62;
+
+    private final MealPlanRepository mealPlanRepository;
+    private final RecipeIngredientRepository recipeIngredientRepository;
+    private final IngredientRepository ingredientRepository;
+    private final ObjectMapper objectMapper;
+
+    private volatile RecipeAmountTable table;
+    private volatile boolean stale = true;
+
+    public ShoppingListService(MealPlanRepository mealPlanRepository,
+                               RecipeIngredientRepository recipeIngredientRepository,
+                               IngredientRepository ingredientRepository,
+                               ObjectMapper objectMapper) {
+        this.mealPlanRepository = mealPlanRepository;
+        this.recipeIngredientRepository = recipeIngredientRepository;
+        this.ingredientRepository = ingredientRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    // Строки списка по алфавиту
+    public List<ShoppingItem> build(Long userId, LocalDate from, LocalDate to) {
+
+        if (from.isAfter(to)) {
+            throw new BadRequestException("Дата начала позже даты окончания");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_DAYS) {
+            throw new BadRequestException("Период не может быть длиннее " + MAX_DAYS + " дней");
+        }
+
+        // Сколько раз каждый рецепт встречается в периоде
+        Map<Long, Integer> servings = new HashMap<>();
+        for (MealPlanRepository.CalendarRow row :
+                mealPlanRepository.findCalendar(userId, Date.valueOf(from), Date.valueOf(to))) {
+            count(servings, row.getBreakfastId());
+            count(servings, row.getLunchId());
+            count(servings, row.getDinnerId());
+        }
+
+        RecipeAmountTable amounts = table();
+        IngredientTotals totals = new IngredientTotals(servings.size() * 8);
+        servings.forEach((recipeId, times) -> amounts.addTo(totals, recipeId, times));
+
+        List<ShoppingItem> items = new ArrayList<>(totals.size());
+        totals.forEach((ingredientId, grams, uses, unmeasured) -> items.add(new ShoppingItem(
+                ingredientId,
+                amounts.name(ingredientId),
+                Math.round(grams * 10) / 10.0,
+                uses,
+                unmeasured
+        )));
+        items.sort(Comparator.comparing(ShoppingItem::name, Comparator.nullsLast(String.CASE_INSENSITIVE_ORDER))
+                .thenComparing(ShoppingItem::ingredientId));
+        return items;
+    }
+
+    // NDJSON: одна строка — один ингредиент
+    public long writeNdjson(Long userId, LocalDate from, LocalDate to, OutputStream out) throws IOException {
+
+        List<ShoppingItem> items = build(userId, from, to);
+
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.setRootValueSeparator(null);
+            for (ShoppingItem item : items) {
+                generator.writeObject(item);
+                generator.writeRaw('\n');
+            }
+        }
+        return items.size();
+    }
+
+    // ================= UPDATES =================
+    // Состав рецептов мог измениться — перестроим при следующем запросе
+    @Override
+    public void onCatalogRebuilt(RecipeCatalogSnapshot snapshot) {
+        stale = true;
+    }
+
+    private RecipeAmountTable table() {
+        RecipeAmountTable current = table;
+        if (current != null && !stale) {
+            return current;
+        }
+        synchronized (this) {
+            if (table == null || stale) {
+                stale = false;
+                long started = System.nanoTime();
+                table = RecipeAmountTable.build(recipeIngredientRepository.findAllAmounts(), ingredientRepository.findAll());
+                log.debug("Таблица граммовок для списков покупок собрана за {} мс",
+                        (System.nanoTime() - started) / 1_000_000);
+            }
+            return table;
+        }
+    }
+
+    private static void count(Map<Long, Integer> servings, Long recipeId) {
+        if (recipeId != null) {
+            servings.merge(recipeId, 1, Integer::sum);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.healthy.backend.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Рассылка событий в /topic/updates пачками.
+ * Потоки запросов только кладут событие в кольцевой буфер без блокировок,
+ * а раз в flush-interval все накопленные события уходят одним кадром.
+ * При переполнении события отбрасываются и попадают в кадр лишь счётчиком.
+ */
+@Component
+public class UpdatesBroadcaster {
+
+    public static final String DESTINATION = "/topic/updates";
+
+    private static final Logger log = LoggerFactory.getLogger(UpdatesBroadcaster.class);
+
+    private final ObjectProvider<SimpMessagingTemplate> messagingTemplateProvider;
+    private final RingBuffer buffer;
+    private final int maxEventsPerFrame;
+
+    // Отброшено с момента прошлого кадра (буфер был полон)
+    private final AtomicLong dropped = new AtomicLong();
+
+    public UpdatesBroadcaster(ObjectProvider<SimpMessagingTemplate> messagingTemplateProvider,
+                              @Value("${ws.updates.buffer-size:4096}") int bufferSize,
+                              @Value("${ws.updates.max-events-per-frame:100}") int maxEventsPerFrame) {
+        this.messagingTemplateProvider = messagingTemplateProvider;
+        this.buffer = new RingBuffer(bufferSize);
+        this.maxEventsPerFrame = maxEventsPerFrame;
+    }
+
+    // Вызывается из любого потока; никогда не блокирует
+    public void publish(String message) {
+        if (message == null) {
+            return;
+        }
+        if (!buffer.offer(message)) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${ws.updates.flush-interval-ms:100}")
+    public void flush() {
+
+        List<String> events = new ArrayList<>();
+        int drained = buffer.drain(events, maxEventsPerFrame);
+        long omitted = dropped.getAndSet(0) + (drained - events.size());
+
+        if (events.isEmpty() && omitted == 0) {
+            return;
+        }
+
+        SimpMessagingTemplate messagingTemplate = messagingTemplateProvider.getIfAvailable();
+        if (messagingTemplate == null) {
+            return;
+        }
+
+        Map<String, Object> frame = new LinkedHashMap<>();
+        frame.put("events", events);
+        frame.put("omitted", omitted);
+        frame.put("timestamp", Instant.now().toString());
+
+        if (omitted > 0) {
+            log.debug("WS /topic/updates: {} событий в кадре, {} пропущено", events.size(), omitted);
+        }
+
+        messagingTemplate.convertAndSend(DESTINATION, frame);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    // ================= RING BUFFER =================
+    // Много производителей, один потребитель (flush выполняется в одном потоке планировщика)
+    static final class RingBuffer {
+
+        private final AtomicReferenceArray<String> slots;
+        private final int capacity;
+        private final int mask;
+
+        private final AtomicLong tail = new AtomicLong();   // следующий свободный номер
+        private volatile long head;                         // пишет только потребитель
+
+        RingBuffer(int requestedCapacity) {
+            int size = Integer.highestOneBit(Math.max(requestedCapacity, 2) - 1) << 1;
+            this.slots = new AtomicReferenceArray<>(size);
+            this.capacity = size;
+            this.mask = size - 1;
+        }
+
+        boolean offer(String event) {
+            while (true) {
+                long t = tail.get();
+                if (t - head >= capacity) {
+                    return false;
+                }
+                if (tail.compareAndSet(t, t + 1)) {
+                    slots.lazySet((int) (t & mask), event);
+                    return true;
+                }
+            }
+        }
+
+        // Забирает все опубликованные события; в sink попадают первые limit, возвращает сколько забрано
+        synchronized int drain(List<String> sink, int limit) {
+            long h = head;
+            long t = tail.get();
+            int count = 0;
+
+            while (h < t) {
+                int idx = (int) (h & mask);
+                String event = slots.get(idx);
+                if (event == null) {
+                    break;   // номер занят, но событие ещё не записано — заберём в следующий раз
+                }
+                slots.lazySet(idx, null);
+                h++;
+                if (count++ < limit) {
+                    sink.add(event);
+                }
+            }
+
+            head = h;
+            return count;
+        }
+    }
+}
@@ -0,0 +1,444 @@
+package com.healthy.backend.service;
+
+import com.healthy.backend.dto.ProgressEntry;
+import com.healthy.backend.dto.ProgressPoint;
+import com.healthy.backend.dto.ProgressSeries;
+import com.healthy.backend.dto.ProgressSummary;
+import com.healthy.backend.dto.ProgressWindow;
+import com.healthy.backend.exception.BadRequestException;
+import com.healthy.backend.model.ProgressRollup;
+import com.healthy.backend.model.UserProgress;
+import com.healthy.backend.repository.ProgressRollupRepository;
+import com.healthy.backend.repository.UserProgressRepository;
+import com.healthy.backend.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Date;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Прогресс пользователя (вес, калории) и его скользящие средние за 7/30/90 дней.
+ * На пользователя хранится кольцо из 90 дневных корзин: запись прогресса
+ * добавляется в свою корзину, а сводка считается по фиксированным 90 корзинам —
+ * время ответа не зависит от длины истории. Кольцо загружается из БД при первом
+ * обращении, число пользователей в кэше ограничено. Запросы к БД идут вне блокировок
+ * карты колец: загрузка, с которой разошлась закоммиченная запись, кольцо не публикует.
+ * Для длинных графиков при каждой записи пересчитываются агрегаты её недели и месяца
+ * (progress_rollups), так что ряд за годы читается из сотен строк, а не из тысяч дней.
+ */
+@Service
+public class UserProgressService {
+
+    static final int WINDOW_DAYS = 90;
+    static final int MAX_DAY_POINTS = 1000;   // длиннее — только недельные или месячные точки
+
+    private static final LocalDate MIN_DATE = LocalDate.of(1900, 1, 1);
+    private static final int STAMPS = 256;
+
+    private final UserProgressRepository userProgressRepository;
+    private final ProgressRollupRepository progressRollupRepository;
+    private final UserRepository userRepository;
+    private final int maxUsers;
+
+    private final Map<Long, DailyRing> rings = new ConcurrentHashMap<>();
+    // Счётчик закоммиченных изменений по пользователям (полосами): загрузка кольца сверяет его до и после
+    private final AtomicLongArray stamps = new AtomicLongArray(STAMPS);
+
+    public UserProgressService(UserProgressRepository userProgressRepository,
+                               ProgressRollupRepository progressRollupRepository,
+                               UserRepository userRepository,
+                               @Value("${progress.cache.max-users:50000}") int maxUsers) {
+        this.userProgressRepository = userProgressRepository;
+        this.progressRollupRepository = progressRollupRepository;
+        this.userRepository = userRepository;
+        this.maxUsers = maxUsers;
+    }
+
+    // ================= ЗАПИСЬ =================
+    // Запись за уже заполненный день дополняет его: вес заменяется, калории суммируются.
+    // Строка пользователя заблокирована до коммита, так что чтение дня, слияние и пересчёт
+    // агрегатов не пересекаются с другой записью того же пользователя
+    @Transactional
+    public UserProgress record(Long userId, ProgressEntry entry) {
+
+        validate(entry);
+
+        LocalDate date = entry.date() != null ? entry.date() : LocalDate.now();
+
+        userRepository.lockForProgress(List.of(userId));
+        UserProgress day = userProgressRepository.findByUserIdAndDate(userId, Date.valueOf(date))
+                .orElseGet(() -> new UserProgress(Date.valueOf(date), null, null, null,
+                        userRepository.getReferenceById(userId)));
+        if (entry.weight() != null) {
+            day.setWeight(entry.weight());
+        }
+        if (entry.caloriesConsumed() != null) {
+            day.setCaloriesConsumed(sum(day.getCaloriesConsumed(), entry.caloriesConsumed()));
+        }
+        if (entry.caloriesBurned() != null) {
+            day.setCaloriesBurned(sum(day.getCaloriesBurned(), entry.caloriesBurned()));
+        }
+        UserProgress saved = userProgressRepository.save(day);
+
+        refreshRollups(userId, List.of(date));
+
+        // Кольцо — только после коммита: до него строка видна лишь этой транзакции
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                refreshRing(userId, date);
+            }
+        });
+
+        return saved;
+    }
+
+    // Корзина дня перечитывается из БД под блокировкой кольца: повтор для той же строки ничего
+    // не удвоит — слот просто повторяет строку, а читается последняя закоммиченная строка,
+    // поэтому порядок вызовов после коммитов не важен. Кольцо, которое ещё грузится, увидит
+    // сдвинутый счётчик и не будет опубликовано (см. ring)
+    private void refreshRing(Long userId, LocalDate date) {
+        stamps.incrementAndGet(stripe(userId));
+        DailyRing ring = rings.get(userId);
+        if (ring == null) {
+            return;
+        }
+        ring.lock.lock();
+        try {
+            userProgressRepository.findByUserIdAndDate(userId, Date.valueOf(date))
+                    .ifPresent(p -> ring.put(p, LocalDate.now()));
+        } finally {
+            ring.lock.unlock();
+        }
+    }
+
+    static void validate(ProgressEntry entry) {
+        if (entry == null || (entry.weight() == null
+                && entry.caloriesConsumed() == null && entry.caloriesBurned() == null)) {
+            throw new BadRequestException("Нужно указать вес или калории");
+        }
+        if (entry.weight() != null && entry.weight() <= 0) {
+            throw new BadRequestException("Вес должен быть больше нуля");
+        }
+    }
+
+    // Дни пользователей записаны в обход сервиса (журнал прогресса) — кольца перечитаются из БД
+    void forget(Collection<Long> userIds) {
+        for (Long userId : userIds) {
+            stamps.incrementAndGet(stripe(userId));
+            rings.remove(userId);
+        }
+    }
+
+    // История за [from, to] по возрастанию даты; null — без ограничения с этой стороны
+    public List<UserProgress> history(Long userId, LocalDate from, LocalDate to) {
+        LocalDate start = from != null ? from : MIN_DATE;
+        LocalDate end = to != null ? to : LocalDate.now();
+        if (start.isAfter(end)) {
+            throw new BadRequestException("Дата начала позже даты окончания");
+        }
+        return userProgressRepository.findByUserIdAndDateBetweenOrderByDateAsc(
+                userId, Date.valueOf(start), Date.valueOf(end));
+    }
+
+    private static Integer sum(Integer current, Integer added) {
+        return current == null ? added : current + added;
+    }
+
+    // ================= РЯД ДЛЯ ГРАФИКА =================
+    // resolution: day — строки дней, week / month — готовые агрегаты;
+    // по умолчанию 90 дней, 52 недели или 36 месяцев до to
+    public ProgressSeries series(Long userId, String resolution, LocalDate from, LocalDate to) {
+
+        String unit = resolution == null ? "day" : resolution.trim().toLowerCase(Locale.ROOT);
+        LocalDate end = to != null ? to : LocalDate.now();
+
+        switch (unit) {
+            case "day" -> {
+                LocalDate start = from != null ? from : end.minusDays(WINDOW_DAYS - 1);
+                checkRange(start, end);
+                if (ChronoUnit.DAYS.between(start, end) >= MAX_DAY_POINTS) {
+                    throw new BadRequestException("Больше " + MAX_DAY_POINTS + " дней — используйте resolution=week или month");
+                }
+                List<ProgressPoint> points = userProgressRepository
+                        .findByUserIdAndDateBetweenOrderByDateAsc(userId, Date.valueOf(start), Date.valueOf(end))
+                        .stream()
+                        .map(UserProgressService::dayPoint)
+                        .toList();
+                return new ProgressSeries(unit, start, end, points);
+            }
+            case "week" -> {
+                LocalDate start = weekStart(from != null ? from : end.minusWeeks(51));
+                return rollupSeries(userId, unit, ProgressRollup.Period.WEEK, start, end);
+            }
+            case "month" -> {
+                LocalDate start = (from != null ? from : end.minusMonths(35)).withDayOfMonth(1);
+                return rollupSeries(userId, unit, ProgressRollup.Period.MONTH, start, end);
+            }
+            default -> throw new BadRequestException("resolution: day, week или month");
+        }
+    }
+
+    private ProgressSeries rollupSeries(Long userId, String unit, ProgressRollup.Period period,
+                                        LocalDate start, LocalDate end) {
+        checkRange(start, end);
+        List<ProgressPoint> points = progressRollupRepository
+                .findByUserIdAndPeriodAndPeriodStartBetweenOrderByPeriodStartAsc(
+                        userId, period, Date.valueOf(start), Date.valueOf(end))
+                .stream()
+                .map(r -> new ProgressPoint(r.getPeriodStart().toLocalDate(), r.getDays(),
+                        r.getWeightAvg(), r.getWeightMin(), r.getWeightMax(),
+                        r.getCaloriesConsumed(), r.getCaloriesBurned()))
+                .toList();
+        return new ProgressSeries(unit, start, end, points);
+    }
+
+    private static void checkRange(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new BadRequestException("Дата начала позже даты окончания");
+        }
+    }
+
+    private static ProgressPoint dayPoint(UserProgress p) {
+        return new ProgressPoint(p.getDate().toLocalDate(), 1, p.getWeight(), p.getWeight(), p.getWeight(),
+                p.getCaloriesConsumed() == null ? 0 : p.getCaloriesConsumed(),
+                p.getCaloriesBurned() == null ? 0 : p.getCaloriesBurned());
+    }
+
+    // ================= АГРЕГАТЫ =================
+    // Недели и месяцы дат пересчитываются целиком из дневных строк — одним запросом на все периоды.
+    // Вызывающий держит блокировку пользователя (lockForProgress): иначе параллельный пересчёт
+    // мог бы не увидеть чужой ещё не закоммиченный день и затереть агрегат
+    void refreshRollups(Long userId, Collection<LocalDate> dates) {
+
+        TreeSet<LocalDate> weeks = new TreeSet<>();
+        TreeSet<LocalDate> months = new TreeSet<>();
+        for (LocalDate date : dates) {
+            weeks.add(weekStart(date));
+            months.add(date.withDayOfMonth(1));
+        }
+        if (weeks.isEmpty()) {
+            return;
+        }
+
+        LocalDate from = weeks.first().isBefore(months.first()) ? weeks.first() : months.first();
+        LocalDate lastWeekEnd = weeks.last().plusDays(6);
+        LocalDate lastMonthEnd = months.last().plusMonths(1).minusDays(1);
+        LocalDate to = lastWeekEnd.isAfter(lastMonthEnd) ? lastWeekEnd : lastMonthEnd;
+        List<UserProgress> days = userProgressRepository.findByUserIdAndDateBetweenOrderByDateAsc(
+                userId, Date.valueOf(from), Date.valueOf(to));
+
+        for (LocalDate weekStart : weeks) {
+            saveRollup(userId, ProgressRollup.Period.WEEK, weekStart, weekStart.plusDays(6), days);
+        }
+        for (LocalDate monthStart : months) {
+            saveRollup(userId, ProgressRollup.Period.MONTH, monthStart, monthStart.plusMonths(1).minusDays(1), days);
+        }
+    }
+
+    private void saveRollup(Long userId, ProgressRollup.Period period, LocalDate start, LocalDate end,
+                            List<UserProgress> days) {
+
+        int count = 0;
+        int weights = 0;
+        double weightSum = 0;
+        float min = Float.MAX_VALUE;
+        float max = -Float.MAX_VALUE;
+        long consumed = 0;
+        long burned = 0;
+
+        for (UserProgress p : days) {
+            LocalDate d = p.getDate().toLocalDate();
+            if (d.isBefore(start) || d.isAfter(end)) {
+                continue;
+            }
+            count++;
+            if (p.getWeight() != null) {
+                weights++;
+                weightSum += p.getWeight();
+                min = Math.min(min, p.getWeight());
+                max = Math.max(max, p.getWeight());
+            }
+            consumed += p.getCaloriesConsumed() == null ? 0 : p.getCaloriesConsumed();
+            burned += p.getCaloriesBurned() == null ? 0 : p.getCaloriesBurned();
+        }
+
+        ProgressRollup rollup = progressRollupRepository
+                .findForUpdateByUserIdAndPeriodAndPeriodStart(userId, period, Date.valueOf(start))
+                .orElseGet(() -> new ProgressRollup(userId, period, Date.valueOf(start)));
+        rollup.setDays(count);
+        rollup.setWeightAvg(weights == 0 ? null : (float) (Math.round(weightSum / weights * 10) / 10.0));
+        rollup.setWeightMin(weights == 0 ? null : min);
+        rollup.setWeightMax(weights == 0 ? null : max);
+        rollup.setCaloriesConsumed(consumed);
+        rollup.setCaloriesBurned(burned);
+        progressRollupRepository.save(rollup);
+    }
+
+    private static LocalDate weekStart(LocalDate date) {
+        return date.minusDays(date.getDayOfWeek().getValue() - DayOfWeek.MONDAY.getValue());
+    }
+
+    // ================= СВОДКА =================
+    public ProgressSummary summary(Long userId) {
+
+        LocalDate today = LocalDate.now();
+        DailyRing ring = ring(userId, today);
+
+        synchronized (ring) {
+            return new ProgressSummary(
+                    userId,
+                    today,
+                    ring.window(7, today),
+                    ring.window(30, today),
+                    ring.window(WINDOW_DAYS, today)
+            );
+        }
+    }
+
+    private DailyRing ring(Long userId, LocalDate today) {
+
+        DailyRing ring = rings.get(userId);
+        if (ring != null) {
+            return ring;
+        }
+
+        if (rings.size() >= maxUsers) {
+            evict();
+        }
+
+        // Запрос вне карты. Запись, закоммиченная во время загрузки, сдвигает счётчик раньше,
+        // чем ищет кольцо: либо она найдёт опубликованное кольцо и обновит его, либо загрузка
+        // после публикации увидит новый счётчик и уберёт своё кольцо — следующее чтение загрузит заново
+        long stamp = stamps.get(stripe(userId));
+        DailyRing loaded = new DailyRing();
+        Date from = Date.valueOf(today.minusDays(WINDOW_DAYS - 1));
+        for (UserProgress p : userProgressRepository.findByUserIdAndDateGreaterThanEqual(userId, from)) {
+            loaded.put(p, today);
+        }
+
+        DailyRing published = rings.putIfAbsent(userId, loaded);
+        if (published != null) {
+            return published;
+        }
+        if (stamps.get(stripe(userId)) != stamp) {
+            rings.remove(userId, loaded);
+        }
+        return loaded;
+    }
+
+    private static int stripe(Long userId) {
+        return Long.hashCode(userId) & (STAMPS - 1);
+    }
+
+    // Выбрасываем произвольную десятую часть — кольца восстановятся из БД
+    private void evict() {
+        int excess = rings.size() - maxUsers + Math.max(1, maxUsers / 10);
+        Iterator<Long> it = rings.keySet().iterator();
+        while (excess-- > 0 && it.hasNext()) {
+            it.next();
+            it.remove();
+        }
+    }
+
+    // ================= RING =================
+    // Корзина дня d лежит в слоте d % 90; устаревший день в слоте затирается более новым.
+    // На день одна строка user_progress, поэтому корзина просто повторяет её значения
+    static final class DailyRing {
+
+        private static final long EMPTY = Long.MIN_VALUE;
+
+        final ReentrantLock lock = new ReentrantLock();   // перечитывание дня после коммита
+        final long[] day = new long[WINDOW_DAYS];
+        final double[] weightSum = new double[WINDOW_DAYS];
+        final int[] weightCount = new int[WINDOW_DAYS];
+        final long[] consumed = new long[WINDOW_DAYS];
+        final long[] burned = new long[WINDOW_DAYS];
+
+        DailyRing() {
+            Arrays.fill(day, EMPTY);
+        }
+
+        synchronized void put(UserProgress p, LocalDate today) {
+
+            if (p.getDate() == null) {
+                return;
+            }
+            long d = p.getDate().toLocalDate().toEpochDay();
+            long now = today.toEpochDay();
+            if (d > now || d <= now - WINDOW_DAYS) {
+                return;   // в окна сводки не попадает
+            }
+
+            int slot = (int) Math.floorMod(d, (long) WINDOW_DAYS);
+            if (day[slot] > d) {
+                return;
+            }
+
+            day[slot] = d;
+            weightSum[slot] = p.getWeight() == null ? 0 : p.getWeight();
+            weightCount[slot] = p.getWeight() == null ? 0 : 1;
+            consumed[slot] = p.getCaloriesConsumed() == null ? 0 : p.getCaloriesConsumed();
+            burned[slot] = p.getCaloriesBurned() == null ? 0 : p.getCaloriesBurned();
+        }
+
+        ProgressWindow window(int days, LocalDate today) {
+
+            long to = today.toEpochDay();
+            long from = to - days + 1;
+
+            int logged = 0;
+            int weights = 0;
+            double weight = 0;
+            long in = 0;
+            long out = 0;
+
+            for (int slot = 0; slot < WINDOW_DAYS; slot++) {
+                long d = day[slot];
+                if (d < from || d > to) {
+                    continue;
+                }
+                logged++;
+                weight += weightSum[slot];
+                weights += weightCount[slot];
+                in += consumed[slot];
+                out += burned[slot];
+            }
+
+            if (logged == 0) {
+                return new ProgressWindow(days, 0, null, null, null, null);
+            }
+
+            double avgIn = (double) in / logged;
+            double avgOut = (double) out / logged;
+            return new ProgressWindow(
+                    days,
+                    logged,
+                    weights == 0 ? null : round(weight / weights),
+                    round(avgIn),
+                    round(avgOut),
+                    round(avgIn - avgOut)
+            );
+        }
+
+        private static double round(double value) {
+            return Math.round(value * 10) / 10.0;
+        }
+    }
+}
@@ -5,15 +5,16 @@ import com.healthy.backend.exception.BadRequestException;
 import com.healthy.backend.exception.NotFoundException;
 import com.healthy.backend.repository.UserRepository;
 import com.healthy.backend.security.JwtUtil;
-import org.springframework.beans.factory.ObjectProvider;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import com.healthy.backend.security.PasswordHashingService;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -21,27 +22,32 @@ import org.slf4j.LoggerFactory;
 @Service
 public class UserService {
 
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
     private final UserRepository userRepository;
     private final JwtUtil jwtUtil;
-    private final ObjectProvider<SimpMessagingTemplate> messagingTemplateProvider;
+    private final UpdatesBroadcaster updatesBroadcaster;
+    private final Executor taskExecutor;
 
     private static final Logger log = LoggerFactory.getLogger(UserService.class);
 
     public UserService(
             UserRepository userRepository,
             JwtUtil jwtUtil,
-            ObjectProvider<SimpMessagingTemplate> messagingTemplateProvider,
-            PasswordEncoder passwordEncoder
+            UpdatesBroadcaster updatesBroadcaster,
+            PasswordHashingService passwordHashingService,
+            @Qualifier("applicationTaskExecutor") Executor taskExecutor
     ) {
         this.userRepository = userRepository;
         this.jwtUtil = jwtUtil;
-        this.messagingTemplateProvider = messagingTemplateProvider;
-        this.passwordEncoder = passwordEncoder;
+        this.updatesBroadcaster = updatesBroadcaster;
+        this.passwordHashingService = passwordHashingService;
+        this.taskExecutor = taskExecutor;
     }
 
     // ================= REGISTRATION =================
-    public Map<String, Object> registerUser(User user) {
+    // BCrypt считается на пуле PasswordHashingService, поток запроса не блокируется.
+    // Запись в БД и событие — уже на общем пуле задач: потоки хэширования заняты только BCrypt
+    public CompletableFuture<Map<String, Object>> registerUser(User user) {
 
         if (userRepository.findByEmail(user.getEmail()).isPresent()) {
             throw new BadRequestException("Пользователь с таким email уже существует");
@@ -51,34 +57,46 @@ public class UserService {
             user.setRole("USER");
         }
 
-        user.setPassword(passwordEncoder.encode(user.getPassword()));
+        return passwordHashingService.encode(user.getPassword()).thenApplyAsync(hash -> {
 
-        User saved = userRepository.save(user);
+            user.setPassword(hash);
 
-        sendWs("Новый пользователь: " + saved.getEmail());
+            User saved = userRepository.save(user);
 
-        String token = jwtUtil.generateToken(saved.getEmail());
+            sendWs("Новый пользователь: " + saved.getEmail());
 
-        Map<String, Object> response = new HashMap<>();
-        response.put("token", token);
-        response.put("role", saved.getRole());
-        response.put("email", saved.getEmail());
-        response.put("fullName", saved.getFullName());
-
-        return response;
+            return tokenResponse(saved);
+        }, taskExecutor);
     }
 
     // ================= LOGIN =================
-    public Map<String, Object> login(String email, String password) {
+    public CompletableFuture<Map<String, Object>> login(String email, String password) {
 
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new BadRequestException("Неверный email или пароль"));
 
-        if (!passwordEncoder.matches(password, user.getPassword())) {
-            throw new BadRequestException("Неверный email или пароль");
-        }
+        return passwordHashingService.verify(password, user.getPassword()).thenApplyAsync(result -> {
+
+            if (!result.matches()) {
+                throw new BadRequestException("Неверный email или пароль");
+            }
 
-        String token = jwtUtil.generateToken(email);
+            // Хэш со старой стоимостью BCrypt — сохраняем пересчитанный
+            if (result.rehashed() != null) {
+                user.setPassword(result.rehashed());
+                userRepository.save(user);
+                log.info("Хэш пароля обновлён для {}", email);
+            }
+
+            sendWs("Пользователь вошёл: " + email);
+
+            return tokenResponse(user);
+        }, taskExecutor);
+    }
+
+    private Map<String, Object> tokenResponse(User user) {
+
+        String token = jwtUtil.generateToken(user);
 
         Map<String, Object> response = new HashMap<>();
         response.put("token", token);
@@ -86,19 +104,20 @@ public class UserService {
         response.put("email", user.getEmail());
         response.put("fullName", user.getFullName());
 
-        sendWs("Пользователь вошёл: " + email);
-
         return response;
     }
 
     // ================= RESET PASSWORD ПО EMAIL (твоя версия оставлена) =================
-    public void resetPassword(String email, String newPassword) {
+    // Как и регистрация — future: отказ пула хэширования доходит до обработчика как 503, а не 500
+    public CompletableFuture<Void> resetPassword(String email, String newPassword) {
 
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new NotFoundException("Пользователь не найден"));
 
-        user.setPassword(passwordEncoder.encode(newPassword));
-        userRepository.save(user);
+        return passwordHashingService.encode(newPassword).thenAcceptAsync(hash -> {
+            user.setPassword(hash);
+            userRepository.save(user);
+        }, taskExecutor);
     }
 
     // ================= НОВЫЙ RESET ЧЕРЕЗ ТОКЕН =================
@@ -117,7 +136,7 @@ public class UserService {
         log.info("Reset token создан для {}: {}", email, token);
     }
 
-    public void resetPasswordByToken(String token, String newPassword) {
+    public CompletableFuture<Void> resetPasswordByToken(String token, String newPassword) {
 
         User user = userRepository.findByResetToken(token)
                 .orElseThrow(() -> new BadRequestException("Неверный токен"));
@@ -127,17 +146,17 @@ public class UserService {
             throw new BadRequestException("Токен истёк");
         }
 
-        user.setPassword(passwordEncoder.encode(newPassword));
-        user.setResetToken(null);
-        user.setResetTokenExpiry(null);
+        return passwordHashingService.encode(newPassword).thenAcceptAsync(hash -> {
+            user.setPassword(hash);
+            user.setResetToken(null);
+            user.setResetTokenExpiry(null);
 
-        userRepository.save(user);
+            userRepository.save(user);
+        }, taskExecutor);
     }
 
+    // Событие уходит в /topic/updates со следующим кадром UpdatesBroadcaster
     private void sendWs(String msg) {
-        SimpMessagingTemplate messagingTemplate = messagingTemplateProvider.getIfAvailable();
-        if (messagingTemplate != null) {
-            messagingTemplate.convertAndSend("/topic/updates", msg);
-        }
+        updatesBroadcaster.publish(msg);
     }
 }
\ No newline at end of file
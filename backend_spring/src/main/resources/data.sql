@@ -29,21 +29,24 @@ INSERT INTO ingredients (name, calories_per100g, proteins, fats, carbs) VALUES
 
 -- ================= RECIPES =================
 -- ================= RECIPES =================
-INSERT INTO recipes (title, description, calories, proteins, fats, carbs, image_url, diet_id, cooking_time, difficulty) VALUES
-('Овсянка с бананом и орехами','Питательный завтрак',320,10,9,55,'https://images.unsplash.com/photo-1512621776951-a57141f2eefd?w=800&q=80',1,10,'EASY'),
-('Смузи из шпината и банана','Зелёный смузи',180,5,2,30,'https://images.unsplash.com/photo-1505253213348-cd54c92b37f6?w=800&q=80',4,5,'EASY'),
-('Куриная грудка с брокколи','Белковое блюдо',250,35,6,8,'https://images.unsplash.com/photo-1604908176997-431b1e0f2b1b?w=800&q=80',2,25,'MEDIUM'),
-('Салат с авокадо и лососем','Свежий салат',280,22,18,7,'https://images.unsplash.com/photo-1546069901-ba9599a7e63c?w=800&q=80',5,15,'MEDIUM'),
-('Творог с ягодами','Белковый перекус',150,16,3,10,'https://images.unsplash.com/photo-1504674900247-0877df9cc836?w=800&q=80',1,5,'EASY'),
-('Овощной боул','Боул с овощами',310,12,8,45,'https://images.unsplash.com/photo-1490645935967-10de6ba17061?w=800&q=80',4,20,'MEDIUM'),
-('Рис с курицей и овощами','Классическое блюдо',400,30,10,55,'https://images.unsplash.com/photo-1603133872878-684f208fb84b?w=800&q=80',1,30,'MEDIUM'),
-('Омлет с овощами','Белковый завтрак',210,14,15,5,'https://images.unsplash.com/photo-1551782450-a2132b4ba21d?w=800&q=80',1,10,'EASY'),
-('Фруктовый салат','Освежающий десерт',120,2,1,28,'https://images.unsplash.com/photo-1490474418585-ba9bad8fd0ea?w=800&q=80',4,10,'EASY'),
-('Лосось с киноа','Полноценный ужин',450,32,20,30,'https://images.unsplash.com/photo-1467003909585-2f8a72700288?w=800&q=80',5,25,'MEDIUM'),
-('Греческий салат','Овощи и фета',220,6,17,12,'https://images.unsplash.com/photo-1523987355523-c7b5b0dd90a7?w=800&q=80',5,10,'EASY'),
-('Паста цельнозерновая','Много клетчатки',380,15,8,60,'https://images.unsplash.com/photo-1473093295043-cdd812d0e601?w=800&q=80',1,20,'MEDIUM'),
-('Киноа с фруктами','Альтернатива овсянке',290,8,6,45,'https://images.unsplash.com/photo-1512058564366-c9e3e0467d5d?w=800&q=80',1,15,'EASY'),
-('Тост с авокадо и яйцом','Заряд энергии',310,13,20,18,'https://images.unsplash.com/photo-1482049016688-2d3e1b311543?w=800&q=80',5,10,'EASY');
+INSERT INTO recipes (id, title, description, calories, proteins, fats, carbs, image_url, diet_id, cooking_time, difficulty) VALUES
+(1, 'Овсянка с бананом и орехами','Питательный завтрак',320,10,9,55,'https://images.unsplash.com/photo-1512621776951-a57141f2eefd?w=800&q=80',1,10,'EASY'),
+(2, 'Смузи из шпината и банана','Зелёный смузи',180,5,2,30,'https://images.unsplash.com/photo-1505253213348-cd54c92b37f6?w=800&q=80',4,5,'EASY'),
+(3, 'Куриная грудка с брокколи','Белковое блюдо',250,35,6,8,'https://images.unsplash.com/photo-1604908176997-431b1e0f2b1b?w=800&q=80',2,25,'MEDIUM'),
+(4, 'Салат с авокадо и лососем','Свежий салат',280,22,18,7,'https://images.unsplash.com/photo-1546069901-ba9599a7e63c?w=800&q=80',5,15,'MEDIUM'),
+(5, 'Творог с ягодами','Белковый перекус',150,16,3,10,'https://images.unsplash.com/photo-1504674900247-0877df9cc836?w=800&q=80',1,5,'EASY'),
+(6, 'Овощной боул','Боул с овощами',310,12,8,45,'https://images.unsplash.com/photo-1490645935967-10de6ba17061?w=800&q=80',4,20,'MEDIUM'),
+(7, 'Рис с курицей и овощами','Классическое блюдо',400,30,10,55,'https://images.unsplash.com/photo-1603133872878-684f208fb84b?w=800&q=80',1,30,'MEDIUM'),
+(8, 'Омлет с овощами','Белковый завтрак',210,14,15,5,'https://images.unsplash.com/photo-1551782450-a2132b4ba21d?w=800&q=80',1,10,'EASY'),
+(9, 'Фруктовый салат','Освежающий десерт',120,2,1,28,'https://images.unsplash.com/photo-1490474418585-ba9bad8fd0ea?w=800&q=80',4,10,'EASY'),
+(10, 'Лосось с киноа','Полноценный ужин',450,32,20,30,'https://images.unsplash.com/photo-1467003909585-2f8a72700288?w=800&q=80',5,25,'MEDIUM'),
+(11, 'Греческий салат','Овощи и фета',220,6,17,12,'https://images.unsplash.com/photo-1523987355523-c7b5b0dd90a7?w=800&q=80',5,10,'EASY'),
+(12, 'Паста цельнозерновая','Много клетчатки',380,15,8,60,'https://images.unsplash.com/photo-1473093295043-cdd812d0e601?w=800&q=80',1,20,'MEDIUM'),
+(13, 'Киноа с фруктами','Альтернатива овсянке',290,8,6,45,'https://images.unsplash.com/photo-1512058564366-c9e3e0467d5d?w=800&q=80',1,15,'EASY'),
+(14, 'Тост с авокадо и яйцом','Заряд энергии',310,13,20,18,'https://images.unsplash.com/photo-1482049016688-2d3e1b311543?w=800&q=80',5,10,'EASY');
+
+-- id рецептов выше заданы явно (на них ссылаются ингредиенты и планы) — sequence начинаем после них
+ALTER SEQUENCE recipes_seq RESTART WITH 101;
 
 -- ================= RECIPE INGREDIENTS =================
 INSERT INTO recipe_ingredients (recipe_id, ingredient_id, amount_grams) VALUES
@@ -53,9 +56,9 @@ INSERT INTO recipe_ingredients (recipe_id, ingredient_id, amount_grams) VALUES
 (5,9,100);
 
 -- ================= MEAL PLAN =================
-INSERT INTO meal_plans (user_id, plan_date, breakfast_id, lunch_id, dinner_id, total_calories) VALUES
-(1, CURRENT_DATE, 1, 3, 4, 850),
-(1, CURRENT_DATE - INTERVAL '1 day', 2, 7, 10, 950);
+INSERT INTO meal_plans (id, user_id, plan_date, breakfast_id, lunch_id, dinner_id, total_calories) VALUES
+(nextval('meal_plans_seq'), 1, CURRENT_DATE, 1, 3, 4, 850),
+(nextval('meal_plans_seq'), 1, CURRENT_DATE - INTERVAL '1 day', 2, 7, 10, 950);
 
 -- ================= USER PROGRESS =================
 INSERT INTO user_progress (user_id, date, weight, calories_consumed, calories_burned) VALUES
@@ -66,3 +69,19 @@ INSERT INTO user_progress (user_id, date, weight, calories_consumed, calories_bu
 (1, CURRENT_DATE - INTERVAL '2 day', 60.4, 1500, 370),
 (1, CURRENT_DATE - INTERVAL '1 day', 60.3, 1450, 400),
 (1, CURRENT_DATE, 60.1, 1400, 410);
+
+-- ================= PROGRESS ROLLUPS =================
+-- Недельные и месячные агрегаты для загруженной истории (дальше их обновляет UserProgressService)
+INSERT INTO progress_rollups (user_id, period, period_start, days, weight_avg, weight_min, weight_max, calories_consumed, calories_burned)
+SELECT user_id, 'WEEK', CAST(date_trunc('week', date) AS date), COUNT(*),
+       ROUND(CAST(AVG(weight) AS numeric), 1), MIN(weight), MAX(weight),
+       COALESCE(SUM(calories_consumed), 0), COALESCE(SUM(calories_burned), 0)
+FROM user_progress
+GROUP BY user_id, date_trunc('week', date);
+
+INSERT INTO progress_rollups (user_id, period, period_start, days, weight_avg, weight_min, weight_max, calories_consumed, calories_burned)
+SELECT user_id, 'MONTH', CAST(date_trunc('month', date) AS date), COUNT(*),
+       ROUND(CAST(AVG(weight) AS numeric), 1), MIN(weight), MAX(weight),
+       COALESCE(SUM(calories_consumed), 0), COALESCE(SUM(calories_burned), 0)
+FROM user_progress
+GROUP BY user_id, date_trunc('month', date);
@@ -0,0 +1,39 @@
+-- Необязательная раскладка user_progress для PostgreSQL: секционирование по месяцам.
+-- Не выполняется автоматически (схему создаёт Hibernate, ddl-auto); применяется вручную
+-- на рабочей БД вместо таблицы от Hibernate, когда история становится большой.
+-- Ключ секционирования должен входить в первичный ключ, поэтому ключ — (user_id, date);
+-- столбец id остаётся для JPA и заполняется из identity.
+
+CREATE TABLE user_progress (
+    id                BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    user_id           BIGINT NOT NULL REFERENCES users (id) ON DELETE CASCADE,
+    date              DATE   NOT NULL,
+    weight            REAL,
+    calories_consumed INTEGER,
+    calories_burned   INTEGER,
+    PRIMARY KEY (user_id, date)
+) PARTITION BY RANGE (date);
+
+-- Строки вне созданных секций (старые или далёкие даты); секцию на месяц нужно создать
+-- до того, как в DEFAULT попадут его строки
+CREATE TABLE user_progress_default PARTITION OF user_progress DEFAULT;
+
+-- Секции на месяц: months_ahead месяцев вперёд от текущего; повторный вызов безопасен
+CREATE OR REPLACE FUNCTION create_user_progress_partitions(months_back INT, months_ahead INT)
+RETURNS VOID AS $$
+DECLARE
+    month_start DATE;
+    part_name   TEXT;
+BEGIN
+    FOR i IN -months_back..months_ahead LOOP
+        month_start := CAST(date_trunc('month', CURRENT_DATE) AS DATE) + make_interval(months => i);
+        part_name := 'user_progress_' || to_char(month_start, 'YYYY_MM');
+        EXECUTE format(
+            'CREATE TABLE IF NOT EXISTS %I PARTITION OF user_progress FOR VALUES FROM (%L) TO (%L)',
+            part_name, month_start, month_start + INTERVAL '1 month');
+    END LOOP;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Два года истории и полгода вперёд; дальше — раз в месяц по расписанию (pg_cron и т.п.)
+SELECT create_user_progress_partitions(24, 6);
@@ -0,0 +1,96 @@
+package com.healthy.backend.controller;
+
+import com.healthy.backend.security.PasswordHashingService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doAnswer;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Пул хэширования из одного потока с очередью на одну задачу: пока поток и очередь заняты,
+ * регистрация сразу получает 503 с Retry-After, а не ждёт в очереди; после освобождения — снова 200.
+ */
+@SpringBootTest(properties = {
+		"test.db.name=backpressure",
+		"security.hashing.threads=1",
+		"security.hashing.queue-capacity=1"})
+@AutoConfigureMockMvc
+@ActiveProfiles("h2")
+class AuthBackpressureTests {
+
+	private static final String HOLD = "hold-the-pool";
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private PasswordHashingService passwordHashingService;
+
+	@MockitoSpyBean
+	private PasswordEncoder passwordEncoder;
+
+	@Test
+	void fullHashingQueueAnswers503WithRetryAfter() throws Exception {
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		doAnswer(invocation -> {
+			started.countDown();
+			release.await(10, TimeUnit.SECONDS);
+			return "held";
+		}).when(passwordEncoder).encode(HOLD);
+
+		// Первая задача занимает единственный поток, вторая — единственное место в очереди
+		CompletableFuture<String> running = passwordHashingService.encode(HOLD);
+		CompletableFuture<String> queued = passwordHashingService.encode(HOLD);
+		try {
+			assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+
+			mockMvc.perform(post("/api/users/register")
+							.contentType(MediaType.APPLICATION_JSON)
+							.content(user("busy@test.local")))
+					.andExpect(status().isServiceUnavailable())
+					.andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"))
+					.andExpect(jsonPath("$.status").value(503))
+					.andExpect(jsonPath("$.error").value("SERVICE_BUSY"))
+					.andExpect(jsonPath("$.path").value("/api/users/register"));
+		} finally {
+			release.countDown();
+		}
+		assertThat(running.get(10, TimeUnit.SECONDS)).isEqualTo("held");
+		assertThat(queued.get(10, TimeUnit.SECONDS)).isEqualTo("held");
+
+		// Пул свободен — тот же запрос проходит
+		MvcResult accepted = mockMvc.perform(post("/api/users/register")
+						.contentType(MediaType.APPLICATION_JSON)
+						.content(user("busy@test.local")))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		mockMvc.perform(asyncDispatch(accepted))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.token").isNotEmpty());
+	}
+
+	private static String user(String email) {
+		return "{\"fullName\":\"Busy\",\"email\":\"" + email + "\",\"password\":\"busy-password\"}";
+	}
+}
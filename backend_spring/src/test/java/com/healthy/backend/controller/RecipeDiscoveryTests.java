@@ -0,0 +1,259 @@
+package com.healthy.backend.controller;
+
+import com.healthy.backend.dto.RecipeRecommendation;
+import com.healthy.backend.entity.User;
+import com.healthy.backend.model.Diet;
+import com.healthy.backend.model.Ingredient;
+import com.healthy.backend.model.MealPlan;
+import com.healthy.backend.model.Recipe;
+import com.healthy.backend.repository.DietRepository;
+import com.healthy.backend.repository.IngredientRepository;
+import com.healthy.backend.repository.MealPlanRepository;
+import com.healthy.backend.repository.RecipeRepository;
+import com.healthy.backend.repository.UserRepository;
+import com.healthy.backend.service.RecipeCatalog;
+import com.healthy.backend.service.RecipeRecommender;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Подбор рецептов на разнородном каталоге: фасеты и их счётчики, подбор по продуктам,
+ * похожие рецепты и рекомендации по истории планов.
+ * Рецепты различаются диетой, сложностью, временем, калорийностью и составом;
+ * время и калории стоят на границах корзин (15/16 минут, 299/300 ккал).
+ */
+@SpringBootTest(properties = "test.db.name=discovery")
+@AutoConfigureMockMvc
+@ActiveProfiles("h2")
+class RecipeDiscoveryTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private RecipeCatalog recipeCatalog;
+
+	@Autowired
+	private RecipeRepository recipeRepository;
+
+	@Autowired
+	private DietRepository dietRepository;
+
+	@Autowired
+	private IngredientRepository ingredientRepository;
+
+	@Autowired
+	private RecipeRecommender recipeRecommender;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private MealPlanRepository mealPlanRepository;
+
+	@BeforeEach
+	void setUp() {
+		if (recipeRepository.count() == 0) {
+			Diet keto = diet("Кето");
+			Diet vegan = diet("Веган");
+
+			Map<String, Ingredient> i = Map.of(
+					"salmon", ingredientRepository.save(new Ingredient("Лосось", 208, 20f, 13f, 0f)),
+					"avocado", ingredientRepository.save(new Ingredient("Авокадо", 160, 2f, 15f, 9f)),
+					"egg", ingredientRepository.save(new Ingredient("Яйцо", 155, 13f, 11f, 1.1f)),
+					"tofu", ingredientRepository.save(new Ingredient("Тофу", 76, 8f, 4.8f, 1.9f)),
+					"rice", ingredientRepository.save(new Ingredient("Рис", 130, 2.7f, 0.3f, 28f)),
+					"spinach", ingredientRepository.save(new Ingredient("Шпинат", 23, 2.9f, 0.4f, 3.6f)));
+
+			// Порядок сохранения = порядок id = порядок снимка
+			recipe("Лосось с авокадо", 299, 25f, 20f, 5f, 15, "EASY", keto, i.get("salmon"), i.get("avocado"));
+			recipe("Омлет со шпинатом", 300, 20f, 22f, 4f, 16, "EASY", keto, i.get("egg"), i.get("spinach"));
+			recipe("Лосось с рисом", 520, 30f, 15f, 60f, 30, "MEDIUM", null,
+					i.get("salmon"), i.get("rice"), i.get("spinach"));
+			recipe("Тофу с рисом", 450, 18f, 10f, 65f, 31, "MEDIUM", vegan, i.get("tofu"), i.get("rice"));
+			recipe("Боул с тофу", 480, 20f, 12f, 60f, 25, "MEDIUM", vegan,
+					i.get("tofu"), i.get("rice"), i.get("avocado"), i.get("spinach"));
+			recipe("Яичница с авокадо", 310, 18f, 24f, 6f, 10, "EASY", keto, i.get("egg"), i.get("avocado"));
+			recipe("Запечённый лосось", 700, 40f, 35f, 20f, 61, "HARD", keto,
+					i.get("salmon"), i.get("avocado"), i.get("egg"), i.get("spinach"));
+		}
+		recipeCatalog.reload();
+		// Таблица соседей строится в фоне после перезагрузки
+		await().until(() -> recipeRecommender.tableVersion() >= recipeCatalog.version());
+	}
+
+	// ===== Фасеты =====
+	@Test
+	void facetCountsIgnoreOnlyTheirOwnFilter() throws Exception {
+		mockMvc.perform(get("/api/recipes/facets").param("diet", "кето").param("time", "0-15"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.total").value(2))
+				.andExpect(jsonPath("$.items[*].title", contains("Лосось с авокадо", "Яичница с авокадо")))
+				// диета: только фильтр времени
+				.andExpect(jsonPath("$.facets.diet[*].value", contains("Кето")))
+				.andExpect(jsonPath("$.facets.diet[*].count", contains(2)))
+				// время: только фильтр диеты — 15 минут ещё в «0-15», 16 уже в «16-30»
+				.andExpect(jsonPath("$.facets.cookingTime[*].value", contains("0-15", "16-30", "31-60", "61+")))
+				.andExpect(jsonPath("$.facets.cookingTime[*].count", contains(2, 1, 0, 1)))
+				// калории: оба фильтра — 299 ккал в «0-299», 310 в «300-499»
+				.andExpect(jsonPath("$.facets.calories[*].count", contains(1, 1, 0, 0)))
+				.andExpect(jsonPath("$.facets.difficulty[*].value", contains("EASY")))
+				.andExpect(jsonPath("$.facets.difficulty[*].count", contains(2)));
+	}
+
+	@Test
+	void bucketEdgesAndUnfilteredCounts() throws Exception {
+		mockMvc.perform(get("/api/recipes/facets"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.total").value(7))
+				.andExpect(jsonPath("$.facets.diet[*].value", contains("Кето", "Веган")))
+				.andExpect(jsonPath("$.facets.diet[*].count", contains(4, 2)))
+				.andExpect(jsonPath("$.facets.difficulty[*].value", contains("EASY", "MEDIUM", "HARD")))
+				.andExpect(jsonPath("$.facets.difficulty[*].count", contains(3, 3, 1)))
+				.andExpect(jsonPath("$.facets.cookingTime[*].count", contains(2, 3, 1, 1)))
+				.andExpect(jsonPath("$.facets.calories[*].count", contains(1, 4, 1, 1)));
+
+		// 16 минут и 300 ккал — уже следующие корзины
+		mockMvc.perform(get("/api/recipes/facets").param("time", "16-30").param("calories", "300-499"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.total").value(2))
+				.andExpect(jsonPath("$.items[*].title", contains("Омлет со шпинатом", "Боул с тофу")));
+
+		mockMvc.perform(get("/api/recipes/facets").param("time", "0-15").param("calories", "0-299"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.items[*].title", contains("Лосось с авокадо")));
+
+		// Страница отфильтрованного списка
+		mockMvc.perform(get("/api/recipes/facets").param("diet", "Кето").param("offset", "1").param("limit", "2"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.total").value(4))
+				.andExpect(jsonPath("$.items[*].title", contains("Омлет со шпинатом", "Яичница с авокадо")));
+	}
+
+	// ===== Подбор по продуктам =====
+	@Test
+	void pantryMatchesAreRankedByMissingThenCoverage() throws Exception {
+		// Лосось, авокадо, яйцо: «Тофу с рисом» не кандидат, «Боулу с тофу» не хватает трёх
+		mockMvc.perform(get("/api/recipes/by-ingredients").param("names", "лосось", "Авокадо", "ЯЙЦО")
+						.param("maxMissing", "2"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.recipes[*].recipe.title", contains(
+						"Лосось с авокадо", "Яичница с авокадо",   // ничего не хватает, при равенстве — по id
+						"Запечённый лосось", "Омлет со шпинатом",  // не хватает одного: покрытие 3/4, затем 1/2
+						"Лосось с рисом")))                        // не хватает двух
+				.andExpect(jsonPath("$.recipes[*].matched", contains(2, 2, 3, 1, 1)))
+				.andExpect(jsonPath("$.recipes[*].total", contains(2, 2, 4, 2, 3)))
+				.andExpect(jsonPath("$.recipes[2].coverage").value(0.75))
+				.andExpect(jsonPath("$.recipes[2].missing", contains("Шпинат")))
+				.andExpect(jsonPath("$.recipes[4].missing", containsInAnyOrder("Рис", "Шпинат")));
+
+		mockMvc.perform(get("/api/recipes/by-ingredients").param("names", "лосось", "Авокадо", "ЯЙЦО"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.recipes[*].recipe.title", contains("Лосось с авокадо", "Яичница с авокадо")));
+
+		mockMvc.perform(get("/api/recipes/by-ingredients").param("names", "лосось", "Авокадо", "ЯЙЦО")
+						.param("maxMissing", "3"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.count").value(6))
+				.andExpect(jsonPath("$.recipes[5].recipe.title").value("Боул с тофу"))
+				.andExpect(jsonPath("$.recipes[5].missing", containsInAnyOrder("Тофу", "Рис", "Шпинат")));
+
+		// limit режет уже отсортированный список, в том числе посреди уровня
+		mockMvc.perform(get("/api/recipes/by-ingredients").param("names", "лосось", "Авокадо", "ЯЙЦО")
+						.param("maxMissing", "2").param("limit", "3"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.recipes[*].recipe.title", contains(
+						"Лосось с авокадо", "Яичница с авокадо", "Запечённый лосось")));
+	}
+
+	// ===== Похожие рецепты =====
+	@Test
+	void similarRecipesAreRankedByDietIngredientsAndMacros() throws Exception {
+		// Кето с авокадо и близким КБЖУ — выше всех; веганский рис без общих продуктов — ниже всех
+		mockMvc.perform(get("/api/recipes/{id}/similar", id("Лосось с авокадо")))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.count").value(6))
+				.andExpect(jsonPath("$.recipes[*].recipe.title", contains(
+						"Яичница с авокадо", "Омлет со шпинатом", "Запечённый лосось",
+						"Лосось с рисом", "Боул с тофу", "Тофу с рисом")))
+				.andExpect(jsonPath("$.recipes[0].score").value(0.667))
+				.andExpect(jsonPath("$.recipes[5].score").value(0.217));
+
+		// Та же диета и общие тофу с рисом; «Лосось с рисом» — рис и КБЖУ, хоть и без диеты
+		mockMvc.perform(get("/api/recipes/{id}/similar", id("Тофу с рисом")).param("limit", "2"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.recipes[*].recipe.title", contains("Боул с тофу", "Лосось с рисом")));
+	}
+
+	// ===== Рекомендации =====
+	@Test
+	void recommendationsSkipPlannedRecipesAndFavourRecentHistory() {
+		LocalDate today = LocalDate.now();
+		Recipe salmonAvocado = recipeCatalog.snapshot().findById(id("Лосось с авокадо"));
+		Recipe tofuRice = recipeCatalog.snapshot().findById(id("Тофу с рисом"));
+
+		// Лосось — вчера, тофу — 40 дней назад: вес тофу меньше в 2^(39/14) ≈ 7 раз
+		User recentSalmon = userRepository.save(new User("Лосось", "salmon@test.local", "x", "USER"));
+		mealPlanRepository.saveAll(List.of(
+				new MealPlan(Date.valueOf(today.minusDays(1)), 299, recentSalmon, null, salmonAvocado, null),
+				new MealPlan(Date.valueOf(today.minusDays(40)), 450, recentSalmon, null, tofuRice, null)));
+
+		// Та же история наоборот
+		User recentTofu = userRepository.save(new User("Тофу", "tofu@test.local", "x", "USER"));
+		mealPlanRepository.saveAll(List.of(
+				new MealPlan(Date.valueOf(today.minusDays(40)), 299, recentTofu, null, salmonAvocado, null),
+				new MealPlan(Date.valueOf(today.minusDays(1)), 450, recentTofu, null, tofuRice, null)));
+
+		// Запланированные рецепты не предлагаются; ближе к вчерашнему лососю — выше
+		assertThat(titles(recipeRecommender.recommendFor(recentSalmon.getId(), 10))).containsExactly(
+				"Яичница с авокадо", "Омлет со шпинатом", "Запечённый лосось", "Боул с тофу", "Лосось с рисом");
+		assertThat(titles(recipeRecommender.recommendFor(recentTofu.getId(), 10))).containsExactly(
+				"Боул с тофу", "Лосось с рисом", "Яичница с авокадо", "Омлет со шпинатом", "Запечённый лосось");
+
+		// Без истории — пусто
+		User newcomer = userRepository.save(new User("Новичок", "newcomer@test.local", "x", "USER"));
+		assertThat(recipeRecommender.recommendFor(newcomer.getId(), 10)).isEmpty();
+	}
+
+	private Long id(String title) {
+		return recipeCatalog.snapshot().getRecipes().stream()
+				.filter(r -> r.getTitle().equals(title))
+				.findFirst().orElseThrow().getId();
+	}
+
+	private static List<String> titles(List<RecipeRecommendation> recommendations) {
+		return recommendations.stream().map(r -> r.recipe().title()).toList();
+	}
+
+	private Diet diet(String name) {
+		Diet diet = new Diet();
+		diet.setName(name);
+		return dietRepository.save(diet);
+	}
+
+	private void recipe(String title, int calories, float proteins, float fats, float carbs, int minutes,
+						String difficulty, Diet diet, Ingredient... ingredients) {
+		Recipe recipe = new Recipe(title, "", calories, proteins, fats, carbs, "", minutes, difficulty);
+		recipe.setDiet(diet);
+		recipe.setIngredients(List.of(ingredients));
+		recipeRepository.save(recipe);
+	}
+}
@@ -0,0 +1,261 @@
+package com.healthy.backend.controller;
+
+import com.healthy.backend.model.Diet;
+import com.healthy.backend.model.Ingredient;
+import com.healthy.backend.model.Recipe;
+import com.healthy.backend.repository.DietRepository;
+import com.healthy.backend.repository.IngredientRepository;
+import com.healthy.backend.repository.RecipeRepository;
+import com.healthy.backend.service.RecipeCatalog;
+import com.healthy.backend.service.RecipeRecommender;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasItem;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Проверяет число SQL-запросов на каждый эндпоинт рецептов через статистику Hibernate,
+ * чтобы возврат к N+1 по ингредиентам ловился тестом.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("h2")
+class RecipeFetchPlanTests {
+
+	private static final int RECIPES = 25;
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private RecipeCatalog recipeCatalog;
+
+	@Autowired
+	private RecipeRecommender recipeRecommender;
+
+	@Autowired
+	private RecipeRepository recipeRepository;
+
+	@Autowired
+	private DietRepository dietRepository;
+
+	@Autowired
+	private IngredientRepository ingredientRepository;
+
+	@Autowired
+	private TransactionTemplate transactionTemplate;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	private Statistics statistics;
+
+	@BeforeEach
+	void setUp() {
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+		if (recipeRepository.count() == 0) {
+			Diet diet = new Diet();
+			diet.setName("Кето");
+			dietRepository.save(diet);
+
+			List<Ingredient> ingredients = ingredientRepository.saveAll(List.of(
+					new Ingredient("Лосось", 208, 20f, 13f, 0f),
+					new Ingredient("Авокадо", 160, 2f, 15f, 9f),
+					new Ingredient("Яйцо", 155, 13f, 11f, 1.1f)));
+
+			for (int i = 0; i < RECIPES; i++) {
+				Recipe recipe = new Recipe("Салат " + i, "Свежий салат", 280, 22f, 18f, 7f, "", 15, "EASY");
+				recipe.setDiet(diet);
+				recipe.setIngredients(ingredients);
+				recipeRepository.save(recipe);
+			}
+		}
+
+		recipeCatalog.reload();
+		statistics.clear();
+	}
+
+	@Test
+	void catalogReloadIsOneStatement() {
+		recipeCatalog.reload();
+
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+	}
+
+	@Test
+	void listEndpointIsServedWithoutSql() throws Exception {
+		mockMvc.perform(get("/api/recipes"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.length()").value(RECIPES))
+				.andExpect(jsonPath("$[0].diet").value("Кето"))
+				.andExpect(jsonPath("$[0].ingredientNames.length()").value(3));
+
+		assertThat(statistics.getPrepareStatementCount()).isZero();
+	}
+
+	@Test
+	void gzipListIsServedFromPrecomputedBytes() throws Exception {
+		byte[] plain = mockMvc.perform(get("/api/recipes").param("diet", "кето"))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsByteArray();
+
+		byte[] gzipped = mockMvc.perform(get("/api/recipes").param("diet", "кето")
+						.header("Accept-Encoding", "gzip, deflate"))
+				.andExpect(status().isOk())
+				.andExpect(header().string("Content-Encoding", "gzip"))
+				.andExpect(header().stringValues("Vary", hasItem("Accept-Encoding")))
+				.andReturn().getResponse().getContentAsByteArray();
+
+		try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipped))) {
+			assertThat(in.readAllBytes()).isEqualTo(plain);
+		}
+		assertThat(statistics.getPrepareStatementCount()).isZero();
+	}
+
+	@Test
+	void pageEndpointIsServedWithoutSql() throws Exception {
+		mockMvc.perform(get("/api/recipes/page").param("size", "10"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.items.length()").value(10))
+				.andExpect(jsonPath("$.nextCursor").isNumber());
+
+		assertThat(statistics.getPrepareStatementCount()).isZero();
+	}
+
+	@Test
+	void searchEndpointIsServedWithoutSql() throws Exception {
+		mockMvc.perform(get("/api/recipes/search").param("q", "лосось"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.recipes.length()").value(20));
+
+		assertThat(statistics.getPrepareStatementCount()).isZero();
+	}
+
+	@Test
+	void ingredientLookupIsServedWithoutSql() throws Exception {
+		mockMvc.perform(get("/api/recipes/by-ingredients").param("names", "лосось", "Авокадо"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.count").value(0));
+
+		mockMvc.perform(get("/api/recipes/by-ingredients").param("names", "лосось", "Авокадо")
+						.param("maxMissing", "1"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.count").value(20))
+				.andExpect(jsonPath("$.recipes[0].matched").value(2))
+				.andExpect(jsonPath("$.recipes[0].missing[0]").value("Яйцо"));
+
+		assertThat(statistics.getPrepareStatementCount()).isZero();
+	}
+
+	@Test
+	void facetsAreServedWithoutSql() throws Exception {
+		mockMvc.perform(get("/api/recipes/facets").param("difficulty", "easy").param("time", "16-30"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.total").value(0))
+				.andExpect(jsonPath("$.facets.difficulty.length()").value(0))
+				.andExpect(jsonPath("$.facets.cookingTime[0].value").value("0-15"))
+				.andExpect(jsonPath("$.facets.cookingTime[0].count").value(RECIPES));
+
+		mockMvc.perform(get("/api/recipes/difficulties"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.difficulties[0]").value("EASY"));
+
+		assertThat(statistics.getPrepareStatementCount()).isZero();
+	}
+
+	@Test
+	void similarRecipesAreServedWithoutSql() throws Exception {
+		List<Recipe> recipes = recipeCatalog.snapshot().getRecipes();
+		Long id = recipes.get(0).getId();
+		// Таблица соседей строится в фоне после перезагрузки каталога
+		await().until(() -> recipeRecommender.tableVersion() >= recipeCatalog.version());
+		statistics.clear();
+
+		// Рецепты одинаковые: сходство 1, при равенстве — по возрастанию id
+		mockMvc.perform(get("/api/recipes/{id}/similar", id).param("limit", "5"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.count").value(5))
+				.andExpect(jsonPath("$.recipes[0].recipe.id").value(recipes.get(1).getId()))
+				.andExpect(jsonPath("$.recipes[0].score").value(1.0));
+
+		assertThat(statistics.getPrepareStatementCount()).isZero();
+	}
+
+	@Test
+	void detailEndpointIsServedWithoutSql() throws Exception {
+		Long id = recipeCatalog.snapshot().getRecipes().get(0).getId();
+		statistics.clear();
+
+		mockMvc.perform(get("/api/recipes/{id}", id))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.ingredients.length()").value(3))
+				.andExpect(jsonPath("$.diet.name").value("Кето"));
+
+		assertThat(statistics.getPrepareStatementCount()).isZero();
+	}
+
+	@Test
+	void conditionalGetIsAnsweredWithoutSql() throws Exception {
+		Long id = recipeCatalog.snapshot().getRecipes().get(0).getId();
+		String listTag = mockMvc.perform(get("/api/recipes"))
+				.andReturn().getResponse().getHeader("ETag");
+		String recipeTag = mockMvc.perform(get("/api/recipes/{id}", id))
+				.andReturn().getResponse().getHeader("ETag");
+		statistics.clear();
+
+		mockMvc.perform(get("/api/recipes").header("If-None-Match", listTag))
+				.andExpect(status().isNotModified())
+				.andExpect(header().string("Cache-Control", containsString("max-age")));
+		mockMvc.perform(get("/api/recipes/{id}", id).header("If-None-Match", recipeTag))
+				.andExpect(status().isNotModified());
+
+		assertThat(statistics.getPrepareStatementCount()).isZero();
+	}
+
+	@Test
+	void detailFetchPlanIsOneStatement() {
+		Long id = recipeCatalog.snapshot().getRecipes().get(0).getId();
+		statistics.clear();
+
+		Recipe recipe = transactionTemplate.execute(status -> {
+			Recipe loaded = recipeRepository.findWithDetailsById(id).orElseThrow();
+			loaded.getIngredients().size();
+			loaded.getDiet().getName();
+			return loaded;
+		});
+
+		assertThat(recipe.getIngredients()).hasSize(3);
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+	}
+
+	@Test
+	void exportStreamsCatalogInOneStatement() throws Exception {
+		String body = mockMvc.perform(get("/api/recipes/export"))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+
+		assertThat(body.lines().count()).isEqualTo(RECIPES);
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+	}
+}
@@ -0,0 +1,113 @@
+package com.healthy.backend.controller;
+
+import com.healthy.backend.entity.User;
+import com.healthy.backend.repository.UserRepository;
+import com.healthy.backend.security.AuthenticatedUser;
+import com.healthy.backend.security.JwtUtil;
+import com.healthy.backend.security.TokenAuthenticator;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * GET /api/users/check на токенах, которые приложение само не выпускает:
+ * без exp токен отклоняется (400, а не 500 и не бессрочная запись в кэше),
+ * а пользователь без роли получает роль по умолчанию.
+ */
+@SpringBootTest(properties = "test.db.name=tokens")
+@AutoConfigureMockMvc
+@ActiveProfiles("h2")
+class TokenCheckTests {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private JwtUtil jwtUtil;
+
+	@Autowired
+	private TokenAuthenticator tokenAuthenticator;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Value("${jwt.secret}")
+	private String secret;
+
+	@Test
+	void tokenWithoutExpirationIsRejected() throws Exception {
+		String token = Jwts.builder()
+				.setSubject("forever@test.local")
+				.claim(JwtUtil.ROLE_CLAIM, "USER")
+				.claim(JwtUtil.USER_ID_CLAIM, 1L)
+				.signWith(Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8)), SignatureAlgorithm.HS256)
+				.compact();
+
+		assertThatThrownBy(() -> tokenAuthenticator.authenticate(token)).isInstanceOf(JwtException.class);
+		mockMvc.perform(get("/api/users/check").header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+				.andExpect(status().isBadRequest());
+	}
+
+	@Test
+	void tokenWithoutSubjectIsRejected() throws Exception {
+		String token = Jwts.builder()
+				.claim(JwtUtil.ROLE_CLAIM, "USER")
+				.claim(JwtUtil.USER_ID_CLAIM, 1L)
+				.setExpiration(new Date(System.currentTimeMillis() + 60_000))
+				.signWith(Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8)), SignatureAlgorithm.HS256)
+				.compact();
+
+		mockMvc.perform(get("/api/users/check").header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+				.andExpect(status().isBadRequest());
+	}
+
+	@Test
+	void userWithoutRoleGetsDefaultRole() {
+		// В схеме role NOT NULL, поэтому пользователь без роли приходит из заглушки репозитория
+		UserRepository repository = mock(UserRepository.class);
+		User user = new User("Без роли", "norole@test.local", "x", null);
+		ReflectionTestUtils.setField(user, "id", 42L);
+		when(repository.findByEmail("norole@test.local")).thenReturn(Optional.of(user));
+		TokenAuthenticator authenticator = new TokenAuthenticator(jwtUtil, repository, 10);
+
+		// Старый формат: только subject, роль и id берутся из БД
+		AuthenticatedUser authenticated = authenticator.authenticate(jwtUtil.generateToken("norole@test.local"));
+
+		assertThat(authenticated.role()).isEqualTo("USER");
+		assertThat(authenticated.id()).isEqualTo(42L);
+	}
+
+	@Test
+	void checkReportsRoleFromDatabase() throws Exception {
+		userRepository.save(new User("Старый токен", "legacy@test.local", "x", "ADMIN"));
+		String token = jwtUtil.generateToken("legacy@test.local");
+
+		mockMvc.perform(get("/api/users/check").header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.email").value("legacy@test.local"))
+				.andExpect(jsonPath("$.role").value("ADMIN"))
+				.andExpect(jsonPath("$.valid").value(true));
+	}
+}
@@ -0,0 +1,94 @@
+package com.healthy.backend.controller;
+
+import com.healthy.backend.service.UpdatesBroadcaster;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+/**
+ * Кадры /topic/updates доходят до подписчика в том порядке, в каком их отправил flush,
+ * хотя исходящий канал рассылает на нескольких потоках. Планировщик отключён длинным интервалом,
+ * чтобы кадры отправлял только тест.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+		properties = {"test.db.name=updates", "ws.updates.flush-interval-ms=3600000"})
+@ActiveProfiles("h2")
+class UpdatesOrderingTests {
+
+	private static final int FRAMES = 500;
+
+	@LocalServerPort
+	private int port;
+
+	@Autowired
+	private UpdatesBroadcaster updatesBroadcaster;
+
+	@Test
+	void framesReachSessionInPublishOrder() throws Exception {
+		WebSocketStompClient client = new WebSocketStompClient(new StandardWebSocketClient());
+		client.setMessageConverter(new MappingJackson2MessageConverter());
+		BlockingQueue<Map<?, ?>> received = new LinkedBlockingQueue<>();
+
+		StompSession session = client.connectAsync("ws://localhost:" + port + "/ws/websocket", new StompSessionHandlerAdapter() {
+		}).get(10, TimeUnit.SECONDS);
+		try {
+			session.subscribe(UpdatesBroadcaster.DESTINATION, new StompFrameHandler() {
+				@Override
+				public Type getPayloadType(StompHeaders headers) {
+					return Map.class;
+				}
+
+				@Override
+				public void handleFrame(StompHeaders headers, Object payload) {
+					received.add((Map<?, ?>) payload);
+				}
+			});
+
+			// Подписка регистрируется асинхронно: ждём, пока до сессии дойдёт пробный кадр
+			await().atMost(10, TimeUnit.SECONDS).until(() -> {
+				updatesBroadcaster.publish("ready");
+				updatesBroadcaster.flush();
+				return received.poll(100, TimeUnit.MILLISECONDS) != null;
+			});
+			await().during(300, TimeUnit.MILLISECONDS).until(() -> received.poll() == null);
+
+			for (int i = 0; i < FRAMES; i++) {
+				updatesBroadcaster.publish("frame " + i);
+				updatesBroadcaster.flush();
+			}
+
+			List<Object> events = new ArrayList<>();
+			while (events.size() < FRAMES) {
+				Map<?, ?> frame = received.poll(10, TimeUnit.SECONDS);
+				assertThat(frame).as("кадр %d", events.size()).isNotNull();
+				events.addAll((List<?>) frame.get("events"));
+			}
+			for (int i = 0; i < FRAMES; i++) {
+				assertThat(events.get(i)).isEqualTo("frame " + i);
+			}
+		} finally {
+			session.disconnect();
+			client.stop();
+		}
+	}
+}
@@ -0,0 +1,226 @@
+package com.healthy.backend.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.healthy.backend.model.Diet;
+import com.healthy.backend.model.Ingredient;
+import com.healthy.backend.model.Recipe;
+import com.healthy.backend.repository.DietRepository;
+import com.healthy.backend.repository.IngredientRepository;
+import com.healthy.backend.repository.RecipeRepository;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Нагрузочный прогон против поднятого сервера: GET /api/recipes (снимок в памяти),
+ * POST /api/users/login (BCrypt, упирается в CPU) и GET /api/progress — запрос в БД на каждый вызов.
+ * БД медленная ({@link SlowDatabaseConfig}), а пул соединений больше числа потоков Tomcat,
+ * так что на GET /api/progress платформенный режим упирается в 200 потоков, а виртуальный — нет.
+ * Подклассы задают режим выполнения запросов (платформенные или виртуальные потоки)
+ * и каждый сам помечен @EnabledIfSystemProperty — аннотация условия не наследуется.
+ * Запуск:  mvn test -Dtest='*LoadTests' -DloadTests=true
+ * Параметры: -DloadTests.seconds=10 -DloadTests.concurrency=200 -DloadTests.loginConcurrency=32
+ *            -DloadTests.dbConcurrency=400 -DloadTests.dbLatencyMs=20 -DloadTests.poolSize=500
+ */
+abstract class AbstractLoadTests {
+
+	private static final int RECIPES = 300;
+	private static final String EMAIL = "load@healthy.com";
+	private static final String PASSWORD = "load-password";
+
+	private static final Logger log = LoggerFactory.getLogger(AbstractLoadTests.class);
+
+	private static final List<String> REPORT = new ArrayList<>();
+
+	@LocalServerPort
+	private int port;
+
+	@Autowired
+	private RecipeRepository recipeRepository;
+
+	@Autowired
+	private DietRepository dietRepository;
+
+	@Autowired
+	private IngredientRepository ingredientRepository;
+
+	private final HttpClient client = HttpClient.newBuilder()
+			.executor(Executors.newVirtualThreadPerTaskExecutor())
+			.connectTimeout(Duration.ofSeconds(5))
+			.build();
+
+	private String token;
+
+	abstract String mode();
+
+	@BeforeEach
+	void setUp() throws Exception {
+		if (recipeRepository.count() == 0) {
+			Diet diet = new Diet();
+			diet.setName("Кето");
+			dietRepository.save(diet);
+
+			List<Ingredient> ingredients = ingredientRepository.saveAll(List.of(
+					new Ingredient("Лосось", 208, 20f, 13f, 0f),
+					new Ingredient("Авокадо", 160, 2f, 15f, 9f),
+					new Ingredient("Яйцо", 155, 13f, 11f, 1.1f)));
+
+			for (int i = 0; i < RECIPES; i++) {
+				Recipe recipe = new Recipe("Салат " + i, "Свежий салат с лососем и авокадо, рецепт номер " + i,
+						280, 22f, 18f, 7f, "https://images.unsplash.com/photo-" + i, 15, "EASY");
+				recipe.setDiet(diet);
+				recipe.setIngredients(ingredients);
+				recipeRepository.save(recipe);
+			}
+		}
+
+		client.send(post("/api/users/register",
+						"{\"fullName\":\"Load\",\"email\":\"" + EMAIL + "\",\"password\":\"" + PASSWORD + "\"}"),
+				HttpResponse.BodyHandlers.discarding());
+		String login = client.send(post("/api/users/login",
+						"{\"email\":\"" + EMAIL + "\",\"password\":\"" + PASSWORD + "\"}"),
+				HttpResponse.BodyHandlers.ofString()).body();
+		token = new ObjectMapper().readTree(login).path("token").asText();
+	}
+
+	@Test
+	void recipesList() throws Exception {
+		Result result = run("GET /api/recipes", intProperty("loadTests.concurrency", 200),
+				() -> HttpRequest.newBuilder(uri("/api/recipes")).GET().build());
+		assertThat(result.ok()).isPositive();
+	}
+
+	@Test
+	void login() throws Exception {
+		String body = "{\"email\":\"" + EMAIL + "\",\"password\":\"" + PASSWORD + "\"}";
+		Result result = run("POST /api/users/login", intProperty("loadTests.loginConcurrency", 32),
+				() -> post("/api/users/login", body));
+		assertThat(result.ok()).isPositive();
+	}
+
+	@Test
+	void progressHistory() throws Exception {
+		Result result = run("GET /api/progress", intProperty("loadTests.dbConcurrency", 400),
+				() -> HttpRequest.newBuilder(uri("/api/progress?from=2025-01-01"))
+						.header("Authorization", "Bearer " + token)
+						.GET()
+						.build());
+		assertThat(result.ok()).isPositive();
+	}
+
+	@AfterAll
+	static void logReport() {
+		StringBuilder report = new StringBuilder(String.format("%n%-9s %-22s %5s %9s %9s %9s %9s %7s",
+				"mode", "endpoint", "conc", "requests", "req/s", "p50 ms", "p99 ms", "errors"));
+		REPORT.forEach(line -> report.append(System.lineSeparator()).append(line));
+		log.info("Нагрузочный прогон (задержка БД {} мс):{}", Long.getLong("loadTests.dbLatencyMs", 20), report);
+		REPORT.clear();
+	}
+
+	// ================= RUNNER =================
+	private Result run(String endpoint, int concurrency, Supplier<HttpRequest> request) throws Exception {
+		int seconds = intProperty("loadTests.seconds", 10);
+
+		drive(concurrency, Duration.ofSeconds(Math.max(1, seconds / 3)), request); // прогрев
+		Result result = drive(concurrency, Duration.ofSeconds(seconds), request);
+
+		REPORT.add(String.format("%-9s %-22s %5d %9d %9.0f %9.2f %9.2f %7d",
+				mode(), endpoint, concurrency, result.latencies.length,
+				result.latencies.length / (double) seconds,
+				percentile(result.latencies, 0.50), percentile(result.latencies, 0.99), result.errors));
+		return result;
+	}
+
+	private Result drive(int concurrency, Duration duration, Supplier<HttpRequest> request) throws Exception {
+		long deadline = System.nanoTime() + duration.toNanos();
+		List<Future<Result>> workers = new ArrayList<>();
+
+		try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+			for (int w = 0; w < concurrency; w++) {
+				workers.add(executor.submit(() -> {
+					long[] latencies = new long[1024];
+					int count = 0;
+					long errors = 0;
+					while (System.nanoTime() < deadline) {
+						long started = System.nanoTime();
+						int status;
+						try {
+							status = client.send(request.get(), HttpResponse.BodyHandlers.discarding()).statusCode();
+						} catch (Exception e) {
+							status = -1;
+						}
+						if (status != 200) {
+							errors++;
+							continue;
+						}
+						if (count == latencies.length) {
+							latencies = Arrays.copyOf(latencies, count * 2);
+						}
+						latencies[count++] = System.nanoTime() - started;
+					}
+					return new Result(Arrays.copyOf(latencies, count), errors);
+				}));
+			}
+		}
+
+		long[] all = new long[0];
+		long errors = 0;
+		for (Future<Result> worker : workers) {
+			Result r = worker.get();
+			int from = all.length;
+			all = Arrays.copyOf(all, from + r.latencies.length);
+			System.arraycopy(r.latencies, 0, all, from, r.latencies.length);
+			errors += r.errors;
+		}
+		Arrays.sort(all);
+		return new Result(all, errors);
+	}
+
+	private static double percentile(long[] sorted, double p) {
+		if (sorted.length == 0) {
+			return 0;
+		}
+		int idx = (int) Math.ceil(p * sorted.length) - 1;
+		return sorted[Math.max(0, idx)] / 1_000_000.0;
+	}
+
+	private HttpRequest post(String path, String json) {
+		return HttpRequest.newBuilder(uri(path))
+				.header("Content-Type", "application/json")
+				.POST(HttpRequest.BodyPublishers.ofString(json))
+				.build();
+	}
+
+	private URI uri(String path) {
+		return URI.create("http://localhost:" + port + path);
+	}
+
+	private static int intProperty(String name, int defaultValue) {
+		return Integer.getInteger(name, defaultValue);
+	}
+
+	private record Result(long[] latencies, long errors) {
+		long ok() {
+			return latencies.length;
+		}
+	}
+}
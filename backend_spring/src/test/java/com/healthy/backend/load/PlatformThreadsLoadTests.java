@@ -0,0 +1,22 @@
+package com.healthy.backend.load;
+
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Режим по умолчанию: пул платформенных потоков Tomcat.
+ */
+@EnabledIfSystemProperty(named = "loadTests", matches = "true")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+		properties = "spring.datasource.hikari.maximum-pool-size=${loadTests.poolSize:500}")
+@Import(SlowDatabaseConfig.class)
+@ActiveProfiles("h2")
+class PlatformThreadsLoadTests extends AbstractLoadTests {
+
+	@Override
+	String mode() {
+		return "platform";
+	}
+}
@@ -0,0 +1,72 @@
+package com.healthy.backend.load;
+
+import com.healthy.backend.dto.RecipeImportReport;
+import com.healthy.backend.model.Ingredient;
+import com.healthy.backend.repository.IngredientRepository;
+import com.healthy.backend.service.RecipeCatalog;
+import com.healthy.backend.service.RecipeImportService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Объём массового импорта: JSON-массив из loadTests.importRows строк (по умолчанию 100 000)
+ * через RecipeImportService, включая итоговую пересборку каталога.
+ * Запуск:  mvn test -Dtest=RecipeImportLoadTests -DloadTests=true
+ */
+@EnabledIfSystemProperty(named = "loadTests", matches = "true")
+@SpringBootTest(properties = "test.db.name=import-load")
+@ActiveProfiles("h2")
+class RecipeImportLoadTests {
+
+	private static final Logger log = LoggerFactory.getLogger(RecipeImportLoadTests.class);
+
+	@Autowired
+	private RecipeImportService recipeImportService;
+
+	@Autowired
+	private IngredientRepository ingredientRepository;
+
+	@Autowired
+	private RecipeCatalog recipeCatalog;
+
+	@Test
+	void importRows() throws Exception {
+		int rows = Integer.getInteger("loadTests.importRows", 100_000);
+		ingredientRepository.saveAll(List.of(
+				new Ingredient("Лосось", 208, 20f, 13f, 0f),
+				new Ingredient("Авокадо", 160, 2f, 15f, 9f),
+				new Ingredient("Рис", 130, 2.7f, 0.3f, 28f)));
+
+		StringBuilder json = new StringBuilder(rows * 200).append('[');
+		for (int i = 0; i < rows; i++) {
+			if (i > 0) {
+				json.append(',');
+			}
+			json.append("{\"title\":\"Боул ").append(i)
+					.append("\",\"description\":\"Боул с лососем, рисом и авокадо\",\"calories\":").append(300 + i % 400)
+					.append(",\"proteins\":25,\"fats\":14,\"carbs\":40,\"cookingTime\":").append(10 + i % 50)
+					.append(",\"difficulty\":\"EASY\",\"ingredients\":[\"Лосось\",\"Рис\",\"Авокадо\"]}");
+		}
+		byte[] body = json.append(']').toString().getBytes(StandardCharsets.UTF_8);
+
+		RecipeImportReport report = recipeImportService.importRecipes(new ByteArrayInputStream(body), false);
+
+		assertThat(report.imported()).isEqualTo(rows);
+		assertThat(report.failed()).isZero();
+		assertThat(recipeCatalog.snapshot().size()).isGreaterThanOrEqualTo(rows);
+		log.info("Импорт {} строк ({} МБ JSON): {} мс, {} строк/с",
+				rows, body.length / (1024 * 1024), report.durationMs(),
+				report.durationMs() == 0 ? rows : rows * 1000L / report.durationMs());
+	}
+}
@@ -0,0 +1,78 @@
+package com.healthy.backend.load;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Медленная БД для нагрузочных прогонов: каждый SELECT ждёт loadTests.dbLatencyMs
+ * (по умолчанию 20 мс), удерживая соединение пула, — как сетевая задержка до PostgreSQL.
+ * In-memory H2 отвечает за микросекунды, и без задержки поток запроса почти не ждёт ввода-вывода.
+ * Запись не замедляется, чтобы подготовка данных в setUp не растягивалась на минуты.
+ */
+@TestConfiguration(proxyBeanMethods = false)
+class SlowDatabaseConfig {
+
+	@Bean
+	static BeanPostProcessor slowDataSource() {
+		long latencyMs = Long.getLong("loadTests.dbLatencyMs", 20);
+		return new BeanPostProcessor() {
+			@Override
+			public Object postProcessAfterInitialization(Object bean, String beanName) {
+				if (!(bean instanceof DataSource dataSource) || latencyMs <= 0) {
+					return bean;
+				}
+				return new DelegatingDataSource(dataSource) {
+					@Override
+					public Connection getConnection() throws SQLException {
+						return slow(super.getConnection(), latencyMs);
+					}
+
+					@Override
+					public Connection getConnection(String username, String password) throws SQLException {
+						return slow(super.getConnection(username, password), latencyMs);
+					}
+				};
+			}
+		};
+	}
+
+	// Соединение отдаёт запросы, у которых executeQuery сначала ждёт
+	private static Connection slow(Connection connection, long latencyMs) {
+		return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+				(proxy, method, args) -> {
+					Object result = invoke(connection, method, args);
+					if (result instanceof Statement statement) {
+						return slow(statement, method.getReturnType(), latencyMs);
+					}
+					return result;
+				});
+	}
+
+	private static Object slow(Statement statement, Class<?> type, long latencyMs) {
+		return Proxy.newProxyInstance(Statement.class.getClassLoader(), new Class<?>[]{type},
+				(proxy, method, args) -> {
+					if (method.getName().equals("executeQuery")) {
+						Thread.sleep(latencyMs);
+					}
+					return invoke(statement, method, args);
+				});
+	}
+
+	private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+		try {
+			return method.invoke(target, args);
+		} catch (InvocationTargetException e) {
+			throw e.getCause();
+		}
+	}
+}
@@ -0,0 +1,128 @@
+package com.healthy.backend.service;
+
+import com.healthy.backend.dto.MealPlanCalendar;
+import com.healthy.backend.dto.ShoppingItem;
+import com.healthy.backend.entity.User;
+import com.healthy.backend.model.Ingredient;
+import com.healthy.backend.model.MealPlan;
+import com.healthy.backend.model.Recipe;
+import com.healthy.backend.model.RecipeIngredient;
+import com.healthy.backend.repository.IngredientRepository;
+import com.healthy.backend.repository.MealPlanRepository;
+import com.healthy.backend.repository.RecipeIngredientRepository;
+import com.healthy.backend.repository.RecipeRepository;
+import com.healthy.backend.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Календарь планов за месяц и список покупок стоят один SQL-запрос:
+ * рецепты и их состав берутся из памяти.
+ */
+@SpringBootTest(properties = "test.db.name=calendar")
+@ActiveProfiles("h2")
+class MealPlanCalendarTests {
+
+	private static final int DAYS = 31;
+
+	@Autowired
+	private MealPlanCalendarService mealPlanCalendarService;
+
+	@Autowired
+	private MealPlanRepository mealPlanRepository;
+
+	@Autowired
+	private RecipeRepository recipeRepository;
+
+	@Autowired
+	private ShoppingListService shoppingListService;
+
+	@Autowired
+	private IngredientRepository ingredientRepository;
+
+	@Autowired
+	private RecipeIngredientRepository recipeIngredientRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private RecipeCatalog recipeCatalog;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Test
+	void monthViewIsOneStatement() {
+		User user = userRepository.save(new User("Календарь", "calendar@test.local", "x", "USER"));
+		List<Recipe> recipes = new ArrayList<>();
+		for (int i = 0; i < DAYS * 3; i++) {
+			recipes.add(recipeRepository.save(new Recipe("Блюдо " + i, "", 400, 20f, 10f, 50f, "", 20, "EASY")));
+		}
+
+		LocalDate from = LocalDate.of(2025, 1, 1);
+		List<MealPlan> plans = new ArrayList<>();
+		for (int d = 0; d < DAYS; d++) {
+			plans.add(new MealPlan(Date.valueOf(from.plusDays(d)), 1200, user,
+					recipes.get(d * 3), recipes.get(d * 3 + 1), recipes.get(d * 3 + 2)));
+		}
+		mealPlanRepository.saveAll(plans);
+		recipeCatalog.reload();
+
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+
+		MealPlanCalendar calendar = mealPlanCalendarService.calendar(user.getId(), from, from.plusDays(DAYS - 1));
+
+		assertThat(calendar.days()).hasSize(DAYS);
+		assertThat(calendar.recipes()).hasSize(DAYS * 3);
+		assertThat(calendar.recipes().get(calendar.days().get(0).lunch()).title()).isEqualTo("Блюдо 1");
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+	}
+
+	@Test
+	void shoppingListSumsRepeatedRecipes() {
+		User user = userRepository.save(new User("Покупки", "shopping@test.local", "x", "USER"));
+		Ingredient rice = ingredientRepository.save(new Ingredient("Рис", 130, 2.7f, 0.3f, 28f));
+		Ingredient salt = ingredientRepository.save(new Ingredient("Соль", 0, 0f, 0f, 0f));
+
+		Recipe porridge = recipeRepository.save(new Recipe("Каша", "", 300, 6f, 1f, 60f, "", 25, "EASY"));
+		Recipe pilaf = recipeRepository.save(new Recipe("Плов", "", 600, 20f, 20f, 70f, "", 60, "MEDIUM"));
+		recipeIngredientRepository.saveAll(List.of(
+				new RecipeIngredient(porridge, rice, 80f),
+				new RecipeIngredient(porridge, salt, null),
+				new RecipeIngredient(pilaf, rice, 150f)));
+
+		LocalDate from = LocalDate.of(2025, 3, 3);
+		List<MealPlan> plans = new ArrayList<>();
+		for (int d = 0; d < 7; d++) {
+			plans.add(new MealPlan(Date.valueOf(from.plusDays(d)), 900, user, porridge, pilaf, null));
+		}
+		mealPlanRepository.saveAll(plans);
+		recipeCatalog.reload();
+		shoppingListService.build(user.getId(), from, from);
+
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+
+		List<ShoppingItem> items = shoppingListService.build(user.getId(), from, from.plusDays(6));
+
+		assertThat(items).extracting(ShoppingItem::name).containsExactly("Рис", "Соль");
+		assertThat(items.get(0).grams()).isEqualTo(7 * (80 + 150.0));
+		assertThat(items.get(0).uses()).isEqualTo(14);
+		assertThat(items.get(1).unmeasured()).isEqualTo(7);
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+	}
+}
@@ -0,0 +1,175 @@
+package com.healthy.backend.service;
+
+import com.healthy.backend.dto.GeneratedMealPlan;
+import com.healthy.backend.dto.MealPlanRequest;
+import com.healthy.backend.dto.PlannedDay;
+import com.healthy.backend.dto.RecipeSummary;
+import com.healthy.backend.exception.BadRequestException;
+import com.healthy.backend.model.Diet;
+import com.healthy.backend.model.Recipe;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Генератор планов на случайном каталоге из 2 000 рецептов (каталог подменён заглушкой):
+ * дневные суммы близки к целям, рецепты не повторяются в пределах окна разнообразия,
+ * один и тот же seed даёт тот же план, а неделя собирается быстрее 10 мс.
+ */
+class MealPlanGeneratorTests {
+
+	private static final int RECIPES = 2000;
+	private static final String[] DIETS = {null, null, null, "Кето"};
+
+	private final RecipeCatalog recipeCatalog = mock(RecipeCatalog.class);
+	private final MealPlanGenerator generator = new MealPlanGenerator(recipeCatalog);
+
+	{
+		when(recipeCatalog.snapshot()).thenReturn(RecipeCatalogSnapshot.of(1, catalog(new Random(5))));
+	}
+
+	// ===== Проверка запроса =====
+	@Test
+	void nonPositiveTargetsAreRejected() {
+		assertRejected(new MealPlanRequest(7, 0, null, null, null, null, 1L));
+		assertRejected(new MealPlanRequest(7, -2000, null, null, null, null, 1L));
+		assertRejected(new MealPlanRequest(7, 2000, -1f, null, null, null, 1L));
+		assertRejected(new MealPlanRequest(7, 2000, 100f, 0f, null, null, 1L));
+		assertRejected(new MealPlanRequest(7, null, null, null, Float.NaN, null, 1L));
+		assertRejected(new MealPlanRequest(0, 2000, null, null, null, null, 1L));
+		assertRejected(new MealPlanRequest(MealPlanGenerator.MAX_DAYS + 1, 2000, null, null, null, null, 1L));
+		assertRejected(new MealPlanRequest(7, 2000, null, null, null, "Палео", 1L));
+	}
+
+	// ===== Цели =====
+	@Test
+	void dailyTotalsStayCloseToTargets() {
+		// Цели согласованы: 4 × 100 + 9 × 70 + 4 × 240 ≈ 2 000 ккал — каждый день в пределах 5–10 %
+		GeneratedMealPlan plan = generator.generate(new MealPlanRequest(7, 2000, 100f, 70f, 240f, null, 42L));
+
+		assertThat(plan.days()).hasSize(7);
+		for (PlannedDay day : plan.days()) {
+			assertThat(day.totalCalories()).as("ккал, день %d", day.day()).isCloseTo(2000, within(100));
+			assertThat(day.proteins()).as("белки, день %d", day.day()).isCloseTo(100f, within(10f));
+			assertThat(day.fats()).as("жиры, день %d", day.day()).isCloseTo(70f, within(7f));
+			assertThat(day.carbs()).as("углеводы, день %d", day.day()).isCloseTo(240f, within(24f));
+		}
+	}
+
+	@Test
+	void caloriesAreSplitAcrossMealsAndDietIsRespected() {
+		GeneratedMealPlan plan = generator.generate(new MealPlanRequest(7, 2000, null, null, null, "кето", 3L));
+
+		for (PlannedDay day : plan.days()) {
+			assertThat(meals(day)).extracting(RecipeSummary::diet).containsOnly("Кето");
+			// Завтрак — самый лёгкий приём пищи, обед — самый плотный (доли 25/40/35 %)
+			assertThat(day.breakfast().calories()).isLessThan(day.lunch().calories());
+			assertThat(day.totalCalories()).isCloseTo(2000, within(100));
+		}
+	}
+
+	// ===== Разнообразие =====
+	@Test
+	void recipesDoNotRepeatWithinVarietyWindow() {
+		GeneratedMealPlan plan = generator.generate(new MealPlanRequest(MealPlanGenerator.MAX_DAYS, 2000, 100f, 70f, 240f, null, 9L));
+		List<PlannedDay> days = plan.days();
+
+		// Окно — два соседних дня в каждую сторону, включая сам день
+		for (int d = 0; d < days.size(); d++) {
+			List<Long> window = new ArrayList<>();
+			for (int w = d; w < Math.min(days.size(), d + 3); w++) {
+				meals(days.get(w)).forEach(meal -> window.add(meal.id()));
+			}
+			assertThat(window).as("дни %d–%d", d + 1, d + 3).doesNotHaveDuplicates();
+		}
+	}
+
+	@Test
+	void smallDietRepeatsAcrossDaysButNotWithinDay() {
+		// Шесть рецептов на неделю: повторы между днями неизбежны, внутри дня — нет
+		List<Recipe> six = catalog(new Random(8)).subList(0, 6);
+		six.forEach(r -> r.setDiet(diet("Веган")));
+		when(recipeCatalog.snapshot()).thenReturn(RecipeCatalogSnapshot.of(2, six));
+
+		GeneratedMealPlan plan = generator.generate(new MealPlanRequest(7, 1500, null, null, null, "Веган", 1L));
+
+		for (PlannedDay day : plan.days()) {
+			assertThat(meals(day)).extracting(RecipeSummary::id).doesNotHaveDuplicates();
+		}
+	}
+
+	// ===== Воспроизводимость =====
+	@Test
+	void sameSeedGivesSamePlan() {
+		MealPlanRequest request = new MealPlanRequest(14, 2200, 110f, null, null, null, 77L);
+
+		GeneratedMealPlan first = generator.generate(request);
+
+		assertThat(generator.generate(request)).isEqualTo(first);
+		assertThat(generator.generateAll(List.of(request, request))).containsOnly(first);
+		assertThat(generator.generate(new MealPlanRequest(14, 2200, 110f, null, null, null, 78L)).days())
+				.isNotEqualTo(first.days());
+	}
+
+	// ===== Время =====
+	@Test
+	void weekIsGeneratedUnderTenMilliseconds() {
+		MealPlanRequest request = new MealPlanRequest(7, 2000, 100f, 70f, 240f, null, null);
+		for (int i = 0; i < 200; i++) {
+			generator.generate(request); // прогрев JIT
+		}
+
+		long[] nanos = new long[51];
+		for (int i = 0; i < nanos.length; i++) {
+			long started = System.nanoTime();
+			generator.generate(request);
+			nanos[i] = System.nanoTime() - started;
+		}
+		Arrays.sort(nanos);
+
+		// Медиана, чтобы одна пауза GC не роняла тест
+		assertThat(nanos[nanos.length / 2] / 1_000_000.0).isLessThan(10.0);
+	}
+
+	private void assertRejected(MealPlanRequest request) {
+		assertThatThrownBy(() -> generator.generate(request)).isInstanceOf(BadRequestException.class);
+	}
+
+	private static List<RecipeSummary> meals(PlannedDay day) {
+		return List.of(day.breakfast(), day.lunch(), day.dinner());
+	}
+
+	// КБЖУ согласованы: калории — из граммов белков, жиров и углеводов
+	private static List<Recipe> catalog(Random random) {
+		List<Recipe> recipes = new ArrayList<>(RECIPES);
+		for (int i = 1; i <= RECIPES; i++) {
+			float proteins = 5 + random.nextInt(50);
+			float fats = 2 + random.nextInt(35);
+			float carbs = 5 + random.nextInt(100);
+			int calories = Math.round(4 * proteins + 9 * fats + 4 * carbs);
+			Recipe recipe = new Recipe("Рецепт " + i, "", calories, proteins, fats, carbs, "", 30, "EASY");
+			recipe.setId((long) i);
+			recipe.setDiet(diet(DIETS[random.nextInt(DIETS.length)]));
+			recipes.add(recipe);
+		}
+		return recipes;
+	}
+
+	private static Diet diet(String name) {
+		if (name == null) {
+			return null;
+		}
+		Diet diet = new Diet();
+		diet.setName(name);
+		return diet;
+	}
+}
@@ -0,0 +1,100 @@
+package com.healthy.backend.service;
+
+import com.healthy.backend.dto.NightlyJobStatus;
+import com.healthy.backend.entity.User;
+import com.healthy.backend.model.MealPlan;
+import com.healthy.backend.model.Recipe;
+import com.healthy.backend.repository.MealPlanRepository;
+import com.healthy.backend.repository.RecipeRepository;
+import com.healthy.backend.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+
+/**
+ * Ночная генерация по страницам из трёх пользователей: у кого план на дату уже есть — пропускается,
+ * ошибка стратегии для одного пользователя не роняет остальных, повторный запуск ничего не дублирует.
+ * Расписание отключено, задача запускается из теста.
+ */
+@SpringBootTest(properties = {
+		"test.db.name=nightly",
+		"meal-plans.nightly.cron=-",
+		"meal-plans.nightly.page-size=3",
+		"meal-plans.nightly.parallelism=2"})
+@ActiveProfiles("h2")
+class NightlyMealPlanJobTests {
+
+	@Autowired
+	private NightlyMealPlanJob nightlyMealPlanJob;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private RecipeRepository recipeRepository;
+
+	@Autowired
+	private MealPlanRepository mealPlanRepository;
+
+	@Autowired
+	private RecipeCatalog recipeCatalog;
+
+	@MockitoSpyBean
+	private GeneratorMealPlanStrategy mealPlanStrategy;
+
+	@Test
+	void plansEveryUserOnceAcrossPages() {
+		List<Recipe> recipes = new ArrayList<>();
+		for (int i = 0; i < 12; i++) {
+			recipes.add(recipeRepository.save(new Recipe("Ночное блюдо " + i, "", 400 + 50 * i, 25f, 20f, 60f, "", 30, "EASY")));
+		}
+		recipeCatalog.reload();
+
+		List<Long> ids = new ArrayList<>();
+		for (int i = 0; i < 7; i++) {
+			ids.add(userRepository.save(new User("Ночь " + i, "nightly" + i + "@test.local", "x", "USER")).getId());
+		}
+		LocalDate date = LocalDate.of(2025, 6, 1);
+		Date planDate = Date.valueOf(date);
+
+		// У первого план уже есть, для второго стратегия ничего не предлагает, на третьем — падает
+		User planned = userRepository.findById(ids.get(0)).orElseThrow();
+		mealPlanRepository.save(new MealPlan(planDate, 1500, planned, recipes.get(0), recipes.get(1), recipes.get(2)));
+		doReturn(null).when(mealPlanStrategy).planFor(argThat(u -> u != null && u.getId().equals(ids.get(1))), any());
+		doThrow(new IllegalStateException("сбой стратегии"))
+				.when(mealPlanStrategy).planFor(argThat(u -> u != null && u.getId().equals(ids.get(2))), any());
+
+		NightlyJobStatus status = nightlyMealPlanJob.run(date);
+
+		assertThat(status.running()).isFalse();
+		assertThat(status.planDate()).isEqualTo(date);
+		assertThat(status.usersProcessed()).isEqualTo(7);
+		assertThat(status.plansWritten()).isEqualTo(4);
+		assertThat(status.skipped()).isEqualTo(2);
+		assertThat(status.failed()).isEqualTo(1);
+		assertThat(mealPlanRepository.findUserIdsWithPlanOn(planDate, ids))
+				.containsExactlyInAnyOrder(ids.get(0), ids.get(3), ids.get(4), ids.get(5), ids.get(6));
+		assertThat(nightlyMealPlanJob.status()).isEqualTo(status);
+
+		// Повторный запуск: все планы на месте, дублей нет
+		NightlyJobStatus again = nightlyMealPlanJob.run(date);
+
+		assertThat(again.plansWritten()).isZero();
+		assertThat(again.skipped()).isEqualTo(6);
+		assertThat(again.failed()).isEqualTo(1);
+		assertThat(mealPlanRepository.findUserIdsWithPlanOn(planDate, ids)).hasSize(5);
+	}
+}
@@ -0,0 +1,167 @@
+package com.healthy.backend.service;
+
+import com.healthy.backend.dto.NutritionRecomputeResult;
+import com.healthy.backend.model.Ingredient;
+import com.healthy.backend.model.Recipe;
+import com.healthy.backend.model.RecipeIngredient;
+import com.healthy.backend.repository.IngredientRepository;
+import com.healthy.backend.repository.RecipeIngredientRepository;
+import com.healthy.backend.repository.RecipeRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * КБЖУ рецептов по граммовкам: CSR-матрица, полный пересчёт и пересчёт по одному ингредиенту.
+ * Рецепт с ингредиентом без граммовки или без нутриентов считается неполным и не трогается.
+ */
+@SpringBootTest(properties = "test.db.name=nutrition")
+@ActiveProfiles("h2")
+class NutritionEngineTests {
+
+	@Autowired
+	private NutritionEngine nutritionEngine;
+
+	@Autowired
+	private IngredientRepository ingredientRepository;
+
+	@Autowired
+	private RecipeRepository recipeRepository;
+
+	@Autowired
+	private RecipeIngredientRepository recipeIngredientRepository;
+
+	@Autowired
+	private RecipeCatalog recipeCatalog;
+
+	// ===== Матрица =====
+	@Test
+	void matrixComputesRowsAndTracksIncompleteOnes() {
+		Ingredient chicken = ingredient(10, 100, 10f, 5f, 20f);
+		Ingredient rice = ingredient(20, 200, 0f, 10f, 30f);
+		Ingredient sauce = ingredient(30, 50, 1f, 1f, null);   // без углеводов
+
+		NutritionMatrix m = NutritionMatrix.build(List.of(sauce, chicken, rice), List.of(
+				amount(1, 10, 200f), amount(1, 20, 50f),
+				amount(2, 10, 100f),
+				amount(3, 10, 100f), amount(3, 30, 50f),
+				amount(4, 20, null),
+				amount(5, 99, 100f)));   // ингредиента нет в справочнике
+
+		assertThat(m.recipeIds).containsExactly(1, 2, 3, 4, 5);
+		assertThat(m.ingredientIds).containsExactly(10, 20, 30);
+		assertThat(List.of(m.complete(0), m.complete(1), m.complete(2), m.complete(3), m.complete(4)))
+				.containsExactly(true, true, false, false, false);
+
+		double[][] all = m.computeAll();
+		assertThat(new double[]{all[0][0], all[1][0], all[2][0], all[3][0]}).containsExactly(300, 20, 15, 55);
+		assertThat(new double[]{all[0][1], all[1][1], all[2][1], all[3][1]}).containsExactly(100, 10, 5, 20);
+
+		// Столбец ингредиента — только строки, где у него есть граммовка
+		assertThat(m.rowsUsing(m.column(10))).containsExactly(0, 1, 2);
+		assertThat(m.rowsUsing(m.column(20))).containsExactly(0);
+		assertThat(m.column(99)).isEqualTo(-1);
+
+		// Частичный пересчёт совпадает с полным
+		chicken.setCaloriesPer100g(150);
+		m.setIngredient(m.column(10), chicken);
+		double[] row = new double[NutritionMatrix.NUTRIENTS];
+		m.compute(0, row);
+		assertThat(row).containsExactly(new double[]{400, 20, 15, 55}, within(1e-9));
+		assertThat(m.computeAll()[0][1]).isEqualTo(150);
+
+		sauce.setCarbs(4f);
+		m.setIngredient(m.column(30), sauce);
+		assertThat(m.complete(2)).isTrue();
+	}
+
+	// ===== Движок =====
+	@Test
+	void recomputeWritesOnlyChangedRecipesAndReloadsCatalogOnAnyIngredientChange() {
+		Ingredient chicken = ingredientRepository.save(new Ingredient("Курица (КБЖУ)", 100, 10f, 5f, 20f));
+		Ingredient rice = ingredientRepository.save(new Ingredient("Рис (КБЖУ)", 200, 0f, 10f, 30f));
+		Ingredient sauce = ingredientRepository.save(new Ingredient("Соус (КБЖУ)", 50, 1f, 1f, null));
+
+		Recipe bowl = recipeRepository.save(new Recipe("Боул", "", 0, 0f, 0f, 0f, "", 20, "EASY"));
+		Recipe plain = recipeRepository.save(new Recipe("Курица", "", 100, 10f, 5f, 20f, "", 20, "EASY"));
+		Recipe sauced = recipeRepository.save(new Recipe("Курица в соусе", "", 0, 0f, 0f, 0f, "", 20, "EASY"));
+		Recipe unmeasured = recipeRepository.save(new Recipe("Рис на глаз", "", 0, 0f, 0f, 0f, "", 20, "EASY"));
+		recipeIngredientRepository.saveAll(List.of(
+				new RecipeIngredient(bowl, chicken, 200f),
+				new RecipeIngredient(bowl, rice, 50f),
+				new RecipeIngredient(plain, chicken, 100f),
+				new RecipeIngredient(sauced, chicken, 100f),
+				new RecipeIngredient(sauced, sauce, 50f),
+				new RecipeIngredient(unmeasured, rice, null)));
+		recipeCatalog.reload();
+
+		// «Курица» уже посчитана верно — пишется только «Боул»
+		assertCounts(nutritionEngine.recomputeAll(), 2, 1, 2);
+		Recipe computed = recipeCatalog.snapshot().findById(bowl.getId());
+		assertThat(computed.getCalories()).isEqualTo(300);
+		assertThat(computed.getProteins()).isEqualTo(20f);
+		assertThat(computed.getFats()).isEqualTo(15f);
+		assertThat(computed.getCarbs()).isEqualTo(55f);
+
+		assertCounts(nutritionEngine.recomputeAll(), 2, 0, 2);
+
+		// Курица: пересчитываются только рецепты её столбца, «Курица в соусе» — неполный
+		Ingredient caloriesOnly = new Ingredient();
+		caloriesOnly.setCaloriesPer100g(150);
+		assertCounts(nutritionEngine.updateIngredient(chicken.getId(), caloriesOnly), 2, 2, 1);
+		assertThat(recipeCatalog.snapshot().findById(bowl.getId()).getCalories()).isEqualTo(400);
+		assertThat(recipeCatalog.snapshot().findById(plain.getId()).getCalories()).isEqualTo(150);
+
+		// Новое имя не сдвигает КБЖУ, но снимок каталога всё равно перечитывается
+		long version = recipeCatalog.version();
+		Ingredient renamed = new Ingredient();
+		renamed.setName("Рис басмати (КБЖУ)");
+		assertCounts(nutritionEngine.updateIngredient(rice.getId(), renamed), 1, 0, 0);
+		assertThat(recipeCatalog.version()).isGreaterThan(version);
+		assertThat(recipeCatalog.snapshot().findById(bowl.getId()).getIngredients())
+				.extracting(Ingredient::getName)
+				.contains("Рис басмати (КБЖУ)");
+
+		// То же значение ещё раз — ничего не изменилось, каталог не трогаем
+		version = recipeCatalog.version();
+		assertCounts(nutritionEngine.updateIngredient(rice.getId(), renamed), 1, 0, 0);
+		assertThat(recipeCatalog.version()).isEqualTo(version);
+	}
+
+	private static void assertCounts(NutritionRecomputeResult result, int recipes, int updated, int incomplete) {
+		assertThat(result.recipes()).isEqualTo(recipes);
+		assertThat(result.updated()).isEqualTo(updated);
+		assertThat(result.incomplete()).isEqualTo(incomplete);
+	}
+
+	private static Ingredient ingredient(long id, Integer calories, Float proteins, Float fats, Float carbs) {
+		Ingredient ingredient = new Ingredient("Ингредиент " + id, calories, proteins, fats, carbs);
+		ingredient.setId(id);
+		return ingredient;
+	}
+
+	private static RecipeIngredientRepository.Amount amount(long recipeId, long ingredientId, Float grams) {
+		return new RecipeIngredientRepository.Amount() {
+			@Override
+			public Long getRecipeId() {
+				return recipeId;
+			}
+
+			@Override
+			public Long getIngredientId() {
+				return ingredientId;
+			}
+
+			@Override
+			public Float getAmountGrams() {
+				return grams;
+			}
+		};
+	}
+}
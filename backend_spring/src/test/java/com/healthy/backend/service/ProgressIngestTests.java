@@ -0,0 +1,240 @@
+package com.healthy.backend.service;
+
+import com.healthy.backend.dto.ProgressEntry;
+import com.healthy.backend.entity.User;
+import com.healthy.backend.model.ProgressRollup;
+import com.healthy.backend.model.UserProgress;
+import com.healthy.backend.repository.ProgressRollupRepository;
+import com.healthy.backend.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.TransientDataAccessResourceException;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.nio.file.Path;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Поток сброса журнала прогресса погибает посреди пачки: половина пачки уже в БД,
+ * checkpoint журнала не сдвинут. После повторного открытия журнала записи применяются
+ * ровно один раз — калории не удваиваются, дни не дублируются.
+ * Журнал при постоянном потоке записей идёт по кругу за checkpoint и не переполняется;
+ * при сбросе по одной записи пропускаются только записи, которые БД не примет никогда.
+ */
+@SpringBootTest(properties = "test.db.name=ingest")
+@ActiveProfiles("h2")
+class ProgressIngestTests {
+
+	private static final int DAYS = 10;
+	private static final LocalDate FIRST_DAY = LocalDate.of(2025, 5, 5);
+
+	@Autowired
+	private ProgressBatchWriter progressBatchWriter;
+
+	@Autowired
+	private UserProgressService userProgressService;
+
+	@Autowired
+	private ProgressRollupRepository progressRollupRepository;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@TempDir
+	private Path dir;
+
+	@Test
+	void flusherKilledMidBatchIsReplayedOnce() throws Exception {
+		User user = userRepository.save(new User("Журнал", "ingest@test.local", "x", "USER"));
+		userProgressService.record(user.getId(), new ProgressEntry(FIRST_DAY, null, 100, null));
+
+		// На день: вес, затем калории, затем уточнённый вес
+		List<ProgressEntry> entries = new ArrayList<>();
+		for (int d = 0; d < DAYS; d++) {
+			LocalDate date = FIRST_DAY.plusDays(d);
+			entries.add(new ProgressEntry(date, 80f, 500, null));
+			entries.add(new ProgressEntry(date, null, 300, 200));
+			entries.add(new ProgressEntry(date, 79f - d, null, null));
+		}
+
+		Path file = dir.resolve("progress.wal");
+		ProgressWal wal = ProgressWal.open(file, 64 * 1024);
+		ProgressIngestService.Sink dying = new ProgressIngestService.Sink() {
+			@Override
+			public Set<Long> apply(long logId, List<ProgressWal.Record> records) {
+				progressBatchWriter.apply(logId, records.subList(0, records.size() / 2));
+				throw new Error("flusher killed");
+			}
+
+			@Override
+			public void skip(long logId, long seq) {
+				progressBatchWriter.skip(logId, seq);
+			}
+		};
+		ProgressIngestService first = new ProgressIngestService(wal, dying, userProgressService, 100, 1000);
+
+		assertThat(first.append(user.getId(), entries)).isEqualTo(entries.size());
+		assertThatThrownBy(first::flushOnce).hasMessage("flusher killed");
+		wal.close();   // процесс упал: checkpoint журнала так и остался 0
+
+		assertThat(userProgressService.history(user.getId(), FIRST_DAY, FIRST_DAY.plusDays(DAYS))).hasSize(DAYS / 2);
+
+		// Перезапуск: весь журнал снова в очереди, уже записанную половину отсеивает checkpoint в БД
+		ProgressWal reopened = ProgressWal.open(file, 64 * 1024);
+		assertThat(reopened.recovered()).hasSize(entries.size());
+
+		ProgressIngestService second = new ProgressIngestService(reopened, sink(), userProgressService, 100, 1000);
+		assertThat(second.flushOnce()).isEqualTo(entries.size());
+		assertThat(second.pending()).isZero();
+		assertThat(reopened.checkpointSeq()).isEqualTo(entries.size());
+		reopened.close();
+
+		List<UserProgress> days = userProgressService.history(user.getId(), FIRST_DAY, FIRST_DAY.plusDays(DAYS));
+		assertThat(days).hasSize(DAYS);
+		for (int d = 0; d < DAYS; d++) {
+			UserProgress day = days.get(d);
+			assertThat(day.getWeight()).isEqualTo(79f - d);
+			assertThat(day.getCaloriesConsumed()).isEqualTo(d == 0 ? 900 : 800);
+			assertThat(day.getCaloriesBurned()).isEqualTo(200);
+		}
+
+		ProgressRollup month = progressRollupRepository.findByUserIdAndPeriodAndPeriodStart(
+				user.getId(), ProgressRollup.Period.MONTH, Date.valueOf(FIRST_DAY.withDayOfMonth(1))).orElseThrow();
+		assertThat(month.getDays()).isEqualTo(DAYS);
+		assertThat(month.getCaloriesConsumed()).isEqualTo(DAYS * 800 + 100);
+
+		// Третий запуск: повторять нечего
+		try (ProgressWal clean = ProgressWal.open(file, 64 * 1024)) {
+			assertThat(clean.recovered()).isEmpty();
+		}
+	}
+
+	// ===== Кольцо журнала =====
+	@Test
+	void walWrapsBehindCheckpointUnderSteadyTraffic() throws Exception {
+		Path file = dir.resolve("ring.wal");
+		int size = ProgressWal.HEADER_SIZE + 10 * ProgressWal.RECORD_SIZE;
+		List<ProgressWal.Record> four = days(0, 4);
+
+		// Сброс всегда отстаёт на пачку: checkpoint ни разу не догоняет последний seq
+		try (ProgressWal wal = ProgressWal.open(file, size)) {
+			assertThat(wal.capacity()).isEqualTo(10);
+			long flushed = 0;
+			for (int i = 0; i < 25; i++) {
+				List<ProgressWal.Record> written = wal.append(7, four);
+				assertThat(written).as("пачка %d", i).isNotNull();
+				wal.checkpoint(flushed);
+				flushed = written.get(written.size() - 1).seq();
+			}
+			assertThat(wal.used()).isEqualTo(4);
+
+			// Занять можно только слоты, чьи записи уже в БД
+			assertThat(wal.append(7, days(0, 7))).isNull();
+			assertThat(wal.append(7, days(0, 6))).extracting(ProgressWal.Record::seq)
+					.containsExactly(101L, 102L, 103L, 104L, 105L, 106L);
+			assertThat(wal.append(7, days(6, 1))).isNull();
+			wal.checkpoint(flushed);
+			assertThat(wal.append(7, days(6, 2))).extracting(ProgressWal.Record::seq)
+					.containsExactly(107L, 108L);
+		}
+
+		// 108 записей прошли через 10 слотов; после перезапуска — несброшенные по порядку, seq продолжается
+		try (ProgressWal reopened = ProgressWal.open(file, size)) {
+			assertThat(reopened.checkpointSeq()).isEqualTo(100);
+			assertThat(reopened.used()).isEqualTo(8);
+			assertThat(reopened.recovered()).extracting(ProgressWal.Record::seq)
+					.containsExactly(101L, 102L, 103L, 104L, 105L, 106L, 107L, 108L);
+			assertThat(reopened.recovered()).extracting(ProgressWal.Record::epochDay)
+					.containsExactly(0L, 1L, 2L, 3L, 4L, 5L, 6L, 7L);
+			assertThat(reopened.append(7, days(8, 3))).isNull();
+			assertThat(reopened.append(7, days(8, 2))).extracting(ProgressWal.Record::seq)
+					.containsExactly(109L, 110L);
+		}
+	}
+
+	// ===== Ошибки сброса =====
+	@Test
+	void oneByOneSkipsOnlyPermanentFailures() throws Exception {
+		User user = userRepository.save(new User("Ошибки", "failures@test.local", "x", "USER"));
+		long ghost = user.getId() + 1000;   // нет такого пользователя: внешний ключ не пустит никогда
+		LocalDate day = LocalDate.of(2025, 8, 4);
+
+		AtomicBoolean databaseDown = new AtomicBoolean();
+		ProgressIngestService.Sink flaky = new ProgressIngestService.Sink() {
+			@Override
+			public Set<Long> apply(long logId, List<ProgressWal.Record> records) {
+				if (databaseDown.get() && records.get(0).epochDay() == day.plusDays(1).toEpochDay()) {
+					throw new TransientDataAccessResourceException("соединение потеряно");
+				}
+				return progressBatchWriter.apply(logId, records);
+			}
+
+			@Override
+			public void skip(long logId, long seq) {
+				progressBatchWriter.skip(logId, seq);
+			}
+		};
+
+		try (ProgressWal wal = ProgressWal.open(dir.resolve("failures.wal"), 64 * 1024)) {
+			ProgressIngestService ingest = new ProgressIngestService(wal, flaky, userProgressService, 100, 1000);
+			ingest.append(user.getId(), List.of(new ProgressEntry(day, 70f, null, null)));
+			ingest.append(ghost, List.of(new ProgressEntry(day, 90f, null, null)));
+			ingest.append(user.getId(), List.of(
+					new ProgressEntry(day.plusDays(1), 69f, null, null),
+					new ProgressEntry(day.plusDays(2), 68f, null, null)));
+
+			// Пачка целиком не проходит из-за чужой записи; на третий раз — по одной
+			databaseDown.set(true);
+			assertThatThrownBy(ingest::flushOnce).isNotInstanceOf(TransientDataAccessResourceException.class);
+			assertThatThrownBy(ingest::flushOnce).isNotInstanceOf(TransientDataAccessResourceException.class);
+
+			// Первая записана, запись без пользователя пропущена, на временной ошибке — стоп
+			assertThatThrownBy(ingest::flushOnce).isInstanceOf(TransientDataAccessResourceException.class);
+			assertThat(ingest.pending()).isEqualTo(2);
+			assertThat(wal.checkpointSeq()).isEqualTo(2);
+
+			// Связь вернулась: остаток записывается, ничего не потеряно
+			databaseDown.set(false);
+			assertThat(ingest.flushOnce()).isEqualTo(2);
+			assertThat(ingest.pending()).isZero();
+			assertThat(wal.checkpointSeq()).isEqualTo(4);
+		}
+
+		assertThat(userProgressService.history(user.getId(), day, day.plusDays(2)))
+				.extracting(UserProgress::getWeight)
+				.containsExactly(70f, 69f, 68f);
+	}
+
+	// count записей по дням подряд начиная с first (epochDay)
+	private static List<ProgressWal.Record> days(long first, int count) {
+		List<ProgressWal.Record> records = new ArrayList<>(count);
+		for (int d = 0; d < count; d++) {
+			records.add(new ProgressWal.Record(0, 7, first + d, null, 100, null));
+		}
+		return records;
+	}
+
+	private ProgressIngestService.Sink sink() {
+		return new ProgressIngestService.Sink() {
+			@Override
+			public Set<Long> apply(long logId, List<ProgressWal.Record> records) {
+				return progressBatchWriter.apply(logId, records);
+			}
+
+			@Override
+			public void skip(long logId, long seq) {
+				progressBatchWriter.skip(logId, seq);
+			}
+		};
+	}
+}
@@ -0,0 +1,124 @@
+package com.healthy.backend.service;
+
+import com.healthy.backend.dto.RecipeImportReport;
+import com.healthy.backend.model.Ingredient;
+import com.healthy.backend.model.Recipe;
+import com.healthy.backend.repository.IngredientRepository;
+import com.healthy.backend.repository.RecipeRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Импорт порциями по три строки. Ингредиент удаляется посреди импорта: словарь импорта
+ * его ещё знает, и порция со ссылкой на него отклоняется БД. Уже записанные порции остаются,
+ * отклонённая пишется по одной строке, в отчёт попадает только строка со ссылкой.
+ */
+@SpringBootTest(properties = {"test.db.name=import", "recipes.import.chunk-size=3"})
+@ActiveProfiles("h2")
+class RecipeImportServiceTests {
+
+	@Autowired
+	private RecipeImportService recipeImportService;
+
+	@Autowired
+	private RecipeCatalog recipeCatalog;
+
+	@Autowired
+	private RecipeRepository recipeRepository;
+
+	@Autowired
+	private IngredientRepository ingredientRepository;
+
+	// ===== Строка, отклонённая БД =====
+	@Test
+	void rejectedChunkIsWrittenRowByRowAndReported() throws Exception {
+		ingredientRepository.save(new Ingredient("Рис (импорт)", 130, 2.7f, 0.3f, 28f));
+		Ingredient cumin = ingredientRepository.save(new Ingredient("Тмин (импорт)", 375, 18f, 22f, 44f));
+
+		// Строки 1, 3, 4 — первая порция, записывается до удаления тмина
+		String first = "[" + row("Плов 1", "Рис (импорт)")
+				+ ",{\"title\":\"\"}"
+				+ "," + row("Плов 3", "Рис (импорт)")
+				+ "," + row("Плов 4", "рис (ИМПОРТ)");
+		// Строки 5, 6, 8 — вторая порция; в строке 6 тмин, которого в БД уже нет
+		String second = "," + row("Плов 5", "Рис (импорт)")
+				+ "," + row("Плов с тмином", "Рис (импорт)", "Тмин (импорт)")
+				+ "," + row("П".repeat(300), "Рис (импорт)")
+				+ ",{\"title\":\"Плов 8\",\"description\":\"" + "о".repeat(2000) + "\",\"ingredients\":\"Рис (импорт)\"}"
+				+ "]";
+
+		// Парсер читает второй кусок входа, только когда разобрал первый целиком
+		InputStream in = new SequenceInputStream(bytes(first), new FilterInputStream(bytes(second)) {
+			private boolean deleted;
+
+			@Override
+			public int read(byte[] b, int off, int len) throws IOException {
+				if (!deleted) {
+					deleted = true;
+					ingredientRepository.deleteById(cumin.getId());
+				}
+				return super.read(b, off, len);
+			}
+		});
+
+		long version = recipeCatalog.version();
+		RecipeImportReport report = recipeImportService.importRecipes(in, false);
+
+		assertThat(report.rows()).isEqualTo(8);
+		assertThat(report.imported()).isEqualTo(5);
+		assertThat(report.failed()).isEqualTo(3);
+		assertThat(report.errors()).extracting(RecipeImportReport.RowError::row).containsExactly(2L, 7L, 6L);
+		assertThat(report.errors().get(1).message()).contains("255");
+		assertThat(report.errors().get(2).message()).startsWith("Не записана");
+
+		// Записанное сразу видно в каталоге; длинное описание — в колонке text
+		assertThat(recipeCatalog.version()).isGreaterThan(version);
+		assertThat(recipeCatalog.snapshot().getRecipes()).extracting(Recipe::getTitle)
+				.contains("Плов 1", "Плов 3", "Плов 4", "Плов 5", "Плов 8")
+				.doesNotContain("Плов с тмином");
+		assertThat(recipeRepository.findAll()).filteredOn(r -> r.getTitle().equals("Плов 8"))
+				.singleElement()
+				.satisfies(r -> assertThat(r.getDescription()).hasSize(2000));
+	}
+
+	// ===== Оборванный вход =====
+	@Test
+	void malformedInputKeepsCommittedChunksAndReloadsCatalog() throws Exception {
+		ingredientRepository.save(new Ingredient("Гречка (импорт)", 343, 13f, 3.4f, 72f));
+
+		String json = "[" + row("Гречка 1", "Гречка (импорт)")
+				+ "," + row("Гречка 2", "Гречка (импорт)")
+				+ "," + row("Гречка 3", "Гречка (импорт)")
+				+ "," + row("Гречка 4", "Гречка (импорт)")
+				+ ",{\"title\": ";
+
+		RecipeImportReport report = recipeImportService.importRecipes(bytes(json), false);
+
+		assertThat(report.imported()).isEqualTo(4);
+		assertThat(report.failed()).isEqualTo(1);
+		assertThat(report.errors().get(0).message()).startsWith("Некорректный формат");
+		assertThat(recipeCatalog.snapshot().getRecipes()).extracting(Recipe::getTitle)
+				.contains("Гречка 1", "Гречка 2", "Гречка 3", "Гречка 4");
+	}
+
+	private static String row(String title, String... ingredients) {
+		return "{\"title\":\"" + title + "\",\"calories\":450,\"proteins\":12,\"fats\":14,\"carbs\":70,"
+				+ "\"cookingTime\":40,\"difficulty\":\"MEDIUM\",\"ingredients\":[\""
+				+ String.join("\",\"", ingredients) + "\"]}";
+	}
+
+	private static InputStream bytes(String s) {
+		return new ByteArrayInputStream(s.getBytes(StandardCharsets.UTF_8));
+	}
+}
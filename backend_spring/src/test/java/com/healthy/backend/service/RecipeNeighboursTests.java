@@ -0,0 +1,162 @@
+package com.healthy.backend.service;
+
+import com.healthy.backend.model.Diet;
+import com.healthy.backend.model.Ingredient;
+import com.healthy.backend.model.Recipe;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Таблица соседей на случайном каталоге: отбор кандидатов по битмапам даёт тех же соседей,
+ * что и сравнение всех пар, а пересчёт одной строки после сохранения или удаления рецепта —
+ * ту же таблицу, что полная сборка.
+ */
+class RecipeNeighboursTests {
+
+	private static final int RECIPES = 400;
+	private static final int INGREDIENTS = 300;
+	private static final int K = 10;
+	private static final String[] DIETS = {null, null, null, "Кето", "Веган"};
+	private static final String[] DIFFICULTIES = {"EASY", "MEDIUM", "HARD", null};
+
+	private static final ForkJoinPool POOL = new ForkJoinPool(2);
+
+	@AfterAll
+	static void shutdown() {
+		POOL.shutdownNow();
+	}
+
+	// ===== Кандидаты =====
+	@Test
+	void candidatePruningMatchesAllPairs() {
+		RecipeCatalogSnapshot snapshot = RecipeCatalogSnapshot.of(1, catalog(new Random(7)));
+
+		// K = n - 1: у каждой строки не хватает кандидатов, просматриваются все пары
+		RecipeNeighbours allPairs = RecipeNeighbours.build(snapshot, RECIPES - 1, POOL);
+		RecipeNeighbours pruned = RecipeNeighbours.build(snapshot, K, POOL);
+
+		for (Recipe recipe : snapshot.getRecipes()) {
+			int a = allPairs.row(recipe.getId());
+			int b = pruned.row(recipe.getId());
+			assertThat(pruned.count(b)).isEqualTo(K);
+			for (int j = 0; j < K; j++) {
+				assertThat(pruned.neighbour(b, j)).isEqualTo(allPairs.neighbour(a, j));
+				assertThat(pruned.score(b, j)).isEqualTo(allPairs.score(a, j));
+			}
+		}
+	}
+
+	// ===== Изменение одного рецепта =====
+	@Test
+	void savedRecipeGivesSameTableAsFullBuild() {
+		Random random = new Random(11);
+		List<Recipe> recipes = catalog(random);
+		RecipeNeighbours table = RecipeNeighbours.build(RecipeCatalogSnapshot.of(1, recipes), K, POOL);
+
+		// Меняем состав, диету и сложность, но не КБЖУ — нормировка та же, что у полной сборки
+		Recipe changed = copy(recipes.get(123));
+		changed.setIngredients(ingredients(random, 5));
+		changed.setDiet(diet("Веган"));
+		changed.setDifficulty("HARD");
+		recipes.set(123, changed);
+
+		RecipeNeighbours updated = table.withRecipe(changed, 2);
+		assertThat(updated.version()).isEqualTo(2);
+		assertSameRows(updated, RecipeNeighbours.build(RecipeCatalogSnapshot.of(2, recipes), K, POOL), recipes);
+	}
+
+	@Test
+	void addedAndDeletedRecipesGiveSameTableAsFullBuild() {
+		Random random = new Random(13);
+		List<Recipe> recipes = catalog(random);
+		RecipeNeighbours table = RecipeNeighbours.build(RecipeCatalogSnapshot.of(1, recipes), K, POOL);
+
+		// Без КБЖУ и времени рецепт не сдвигает средние — z-оценки остальных не меняются
+		Recipe added = new Recipe("Новый", "", null, null, null, null, "", null, "EASY");
+		added.setId((long) RECIPES + 1);
+		added.setDiet(diet("Кето"));
+		added.setIngredients(ingredients(random, 4));
+		List<Recipe> withAdded = new ArrayList<>(recipes);
+		withAdded.add(added);
+
+		RecipeNeighbours grown = table.withRecipe(added, 2);
+		assertThat(grown.row(added.getId())).isGreaterThanOrEqualTo(0);
+		assertSameRows(grown, RecipeNeighbours.build(RecipeCatalogSnapshot.of(2, withAdded), K, POOL), withAdded);
+
+		RecipeNeighbours shrunk = grown.withoutRecipe(added.getId(), 3);
+		assertThat(shrunk.row(added.getId())).isEqualTo(-1);
+		assertSameRows(shrunk, table, recipes);
+
+		// Удалённого рецепта нет ни в одной строке, строки по-прежнему полные
+		for (Recipe recipe : recipes) {
+			int row = shrunk.row(recipe.getId());
+			for (int j = 0; j < shrunk.count(row); j++) {
+				assertThat(shrunk.neighbour(row, j)).isNotEqualTo(added.getId());
+			}
+		}
+	}
+
+	private static void assertSameRows(RecipeNeighbours actual, RecipeNeighbours expected, List<Recipe> recipes) {
+		for (Recipe recipe : recipes) {
+			int a = actual.row(recipe.getId());
+			int e = expected.row(recipe.getId());
+			assertThat(actual.count(a)).as("соседей у %s", recipe.getId()).isEqualTo(expected.count(e));
+			for (int j = 0; j < expected.count(e); j++) {
+				assertThat(actual.neighbour(a, j)).as("сосед %d у %s", j, recipe.getId())
+						.isEqualTo(expected.neighbour(e, j));
+				assertThat(actual.score(a, j)).isEqualTo(expected.score(e, j));
+			}
+		}
+	}
+
+	private static List<Recipe> catalog(Random random) {
+		List<Recipe> recipes = new ArrayList<>(RECIPES);
+		for (int i = 1; i <= RECIPES; i++) {
+			Recipe recipe = new Recipe("Рецепт " + i, "",
+					150 + random.nextInt(700),
+					(float) random.nextInt(50), (float) random.nextInt(40), (float) random.nextInt(90),
+					"", 5 + random.nextInt(90), DIFFICULTIES[random.nextInt(DIFFICULTIES.length)]);
+			recipe.setId((long) i);
+			recipe.setDiet(diet(DIETS[random.nextInt(DIETS.length)]));
+			recipe.setIngredients(ingredients(random, random.nextInt(4)));
+			recipes.add(recipe);
+		}
+		return recipes;
+	}
+
+	private static List<Ingredient> ingredients(Random random, int count) {
+		List<Ingredient> ingredients = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			Ingredient ingredient = new Ingredient();
+			ingredient.setId(1L + random.nextInt(INGREDIENTS));
+			ingredients.add(ingredient);
+		}
+		return ingredients;
+	}
+
+	private static Diet diet(String name) {
+		if (name == null) {
+			return null;
+		}
+		Diet diet = new Diet();
+		diet.setName(name);
+		return diet;
+	}
+
+	private static Recipe copy(Recipe recipe) {
+		Recipe copy = new Recipe(recipe.getTitle(), recipe.getDescription(), recipe.getCalories(),
+				recipe.getProteins(), recipe.getFats(), recipe.getCarbs(), recipe.getImageUrl(),
+				recipe.getCookingTime(), recipe.getDifficulty());
+		copy.setId(recipe.getId());
+		copy.setDiet(recipe.getDiet());
+		copy.setIngredients(recipe.getIngredients());
+		return copy;
+	}
+}
@@ -0,0 +1,70 @@
+package com.healthy.backend.service;
+
+import com.healthy.backend.model.Recipe;
+import com.healthy.backend.repository.RecipeRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Кэш второго уровня и кэш запросов после UPDATE мимо Hibernate: RecipeBatchWriter.updateNutrition
+ * пишет КБЖУ JDBC-пачкой и сбрасывает регион рецепта и регионы запросов,
+ * поэтому следующее чтение через кэшируемые методы видит новые значения, а не закэшированные.
+ */
+@SpringBootTest(properties = "test.db.name=l2cache")
+@ActiveProfiles("h2")
+class RecipeSecondLevelCacheTests {
+
+	@Autowired
+	private RecipeRepository recipeRepository;
+
+	@Autowired
+	private RecipeBatchWriter recipeBatchWriter;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Test
+	void rawNutritionUpdateIsVisibleThroughCachedReads() {
+		SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+		// Менеджер JCache по ehcache.xml один на JVM: в регионах могут лежать рецепты с теми же id из контекстов других тестов
+		sessionFactory.getCache().evictAllRegions();
+		Long id = recipeRepository.save(new Recipe("Сырники (кэш)", "", 450, 20f, 15f, 50f, "", 25, "EASY")).getId();
+		Statistics statistics = sessionFactory.getStatistics();
+
+		// Прогреваем оба кэша и убеждаемся, что второе чтение действительно из кэша
+		recipeRepository.findById(id);
+		recipeRepository.findByTitleContainingIgnoreCase("сырники (кэш)");
+		long entityHits = statistics.getSecondLevelCacheHitCount();
+		long queryHits = statistics.getQueryCacheHitCount();
+		assertThat(recipeRepository.findById(id)).get().extracting(Recipe::getCalories).isEqualTo(450);
+		assertThat(recipeRepository.findByTitleContainingIgnoreCase("сырники (кэш)"))
+				.extracting(Recipe::getCalories).containsExactly(450);
+		assertThat(statistics.getSecondLevelCacheHitCount()).isGreaterThan(entityHits);
+		assertThat(statistics.getQueryCacheHitCount()).isGreaterThan(queryHits);
+		assertThat(sessionFactory.getCache().containsEntity(Recipe.class, id)).isTrue();
+
+		int updated = recipeBatchWriter.updateNutrition(Map.of(id, new double[]{610, 31, 22, 64}));
+
+		assertThat(updated).isEqualTo(1);
+		assertThat(sessionFactory.getCache().containsEntity(Recipe.class, id)).isFalse();
+		assertThat(recipeRepository.findWithDetailsById(id)).get()
+				.satisfies(r -> {
+					assertThat(r.getCalories()).isEqualTo(610);
+					assertThat(r.getProteins()).isEqualTo(31f);
+					assertThat(r.getCarbs()).isEqualTo(64f);
+				});
+		List<Recipe> found = recipeRepository.findByTitleContainingIgnoreCase("сырники (кэш)");
+		assertThat(found).extracting(Recipe::getCalories).containsExactly(610);
+		assertThat(recipeRepository.findById(id)).get().extracting(Recipe::getFats).isEqualTo(22f);
+	}
+}
@@ -0,0 +1,142 @@
+package com.healthy.backend.service;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeast;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Кольцевой буфер /topic/updates без Spring: кадры перехватываются заглушкой шаблона.
+ * Переполнение отбрасывает новые события и считает их в omitted ближайшего кадра;
+ * при одновременной публикации из многих потоков события каждого потока приходят в его порядке.
+ */
+class UpdatesBroadcasterTests {
+
+	private final SimpMessagingTemplate messagingTemplate = mock(SimpMessagingTemplate.class);
+
+	// ===== Переполнение =====
+	@Test
+	void fullBufferDropsNewEventsAndCountsThemInNextFrame() {
+		UpdatesBroadcaster broadcaster = broadcaster(4, 100);
+		for (int i = 1; i <= 10; i++) {
+			broadcaster.publish("e" + i);
+		}
+
+		broadcaster.flush();
+		broadcaster.flush(); // пустой буфер — кадра нет
+
+		broadcaster.publish("e11");
+		broadcaster.flush();
+
+		List<Map<String, Object>> frames = frames(2);
+		assertThat(frames.get(0)).containsEntry("events", List.of("e1", "e2", "e3", "e4")).containsEntry("omitted", 6L);
+		assertThat(frames.get(1)).containsEntry("events", List.of("e11")).containsEntry("omitted", 0L);
+	}
+
+	@Test
+	void eventsBeyondFrameLimitAreSummarised() {
+		UpdatesBroadcaster broadcaster = broadcaster(16, 3);
+		for (int i = 1; i <= 5; i++) {
+			broadcaster.publish("e" + i);
+		}
+		broadcaster.publish(null);
+
+		broadcaster.flush();
+
+		assertThat(frames(1).get(0)).containsEntry("events", List.of("e1", "e2", "e3")).containsEntry("omitted", 2L);
+	}
+
+	// ===== Порядок =====
+	@Test
+	void concurrentProducersKeepTheirOwnOrder() throws Exception {
+		int producers = 8;
+		int perProducer = 20_000;
+		UpdatesBroadcaster broadcaster = broadcaster(256, Integer.MAX_VALUE);
+
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(producers + 1);
+		try {
+			List<Future<?>> running = new ArrayList<>();
+			for (int p = 0; p < producers; p++) {
+				int producer = p;
+				running.add(executor.submit(() -> {
+					start.await();
+					for (int i = 0; i < perProducer; i++) {
+						broadcaster.publish(producer + ":" + i);
+					}
+					return null;
+				}));
+			}
+			// Единственный потребитель, как поток планировщика
+			Future<?> consumer = executor.submit(() -> {
+				start.await();
+				while (running.stream().anyMatch(f -> !f.isDone())) {
+					broadcaster.flush();
+				}
+				broadcaster.flush();
+				return null;
+			});
+
+			start.countDown();
+			consumer.get(60, TimeUnit.SECONDS);
+		} finally {
+			executor.shutdownNow();
+		}
+
+		// Внутри потока номера только растут; пропущенное честно посчитано
+		int[] last = new int[producers];
+		Arrays.fill(last, -1);
+		long delivered = 0;
+		long omitted = 0;
+		for (Map<String, Object> frame : allFrames()) {
+			for (Object event : (List<?>) frame.get("events")) {
+				String[] parts = ((String) event).split(":");
+				int producer = Integer.parseInt(parts[0]);
+				int seq = Integer.parseInt(parts[1]);
+				assertThat(seq).as("поток %d", producer).isGreaterThan(last[producer]);
+				last[producer] = seq;
+				delivered++;
+			}
+			omitted += (Long) frame.get("omitted");
+		}
+		assertThat(delivered + omitted).isEqualTo((long) producers * perProducer);
+		assertThat(delivered).isPositive();
+	}
+
+	private UpdatesBroadcaster broadcaster(int bufferSize, int maxEventsPerFrame) {
+		@SuppressWarnings("unchecked")
+		ObjectProvider<SimpMessagingTemplate> provider = mock(ObjectProvider.class);
+		when(provider.getIfAvailable()).thenReturn(messagingTemplate);
+		return new UpdatesBroadcaster(provider, bufferSize, maxEventsPerFrame);
+	}
+
+	private List<Map<String, Object>> frames(int expected) {
+		List<Map<String, Object>> frames = allFrames();
+		assertThat(frames).hasSize(expected);
+		return frames;
+	}
+
+	@SuppressWarnings("unchecked")
+	private List<Map<String, Object>> allFrames() {
+		ArgumentCaptor<Object> captor = ArgumentCaptor.forClass(Object.class);
+		verify(messagingTemplate, atLeast(0)).convertAndSend(eq(UpdatesBroadcaster.DESTINATION), captor.capture());
+		return captor.getAllValues().stream().map(frame -> (Map<String, Object>) frame).toList();
+	}
+}
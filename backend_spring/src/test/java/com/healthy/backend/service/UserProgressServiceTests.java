@@ -0,0 +1,180 @@
+package com.healthy.backend.service;
+
+import com.healthy.backend.dto.ProgressEntry;
+import com.healthy.backend.dto.ProgressPoint;
+import com.healthy.backend.dto.ProgressSummary;
+import com.healthy.backend.entity.User;
+import com.healthy.backend.model.UserProgress;
+import com.healthy.backend.repository.UserProgressRepository;
+import com.healthy.backend.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.AopTestUtils;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.AdditionalAnswers.delegatesTo;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Слияние записей прогресса в строку дня, агрегаты недель и месяцев и кольцо сводки.
+ * Параллельные записи одного дня не теряют калории и не падают на уникальном индексе.
+ * Кольцо, загрузка которого пересеклась с коммитом записи, не остаётся в кэше устаревшим.
+ */
+@SpringBootTest(properties = "test.db.name=progress")
+@ActiveProfiles("h2")
+class UserProgressServiceTests {
+
+	private static final LocalDate MONDAY = LocalDate.of(2025, 3, 3);
+	private static final LocalDate SUNDAY = LocalDate.of(2025, 3, 9);
+	private static final LocalDate NEXT_MONDAY = LocalDate.of(2025, 3, 10);
+
+	private static final int THREADS = 8;
+	private static final int PER_THREAD = 10;
+
+	@Autowired
+	private UserProgressService userProgressService;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	// ===== Слияние и агрегаты =====
+	@Test
+	void entriesOfOneDayAreMergedAndRolledUp() {
+		Long userId = user("merge@test.local");
+
+		userProgressService.record(userId, new ProgressEntry(MONDAY, 80f, 500, null));
+		userProgressService.record(userId, new ProgressEntry(MONDAY, null, 300, 200));
+		userProgressService.record(userId, new ProgressEntry(MONDAY, 79.5f, null, null));
+		userProgressService.record(userId, new ProgressEntry(SUNDAY, 78.5f, 1000, null));
+		userProgressService.record(userId, new ProgressEntry(NEXT_MONDAY, 78f, 100, 50));
+
+		// Вес заменяется, калории суммируются
+		List<UserProgress> days = userProgressService.history(userId, MONDAY, NEXT_MONDAY);
+		assertThat(days).hasSize(3);
+		assertThat(days.get(0).getWeight()).isEqualTo(79.5f);
+		assertThat(days.get(0).getCaloriesConsumed()).isEqualTo(800);
+		assertThat(days.get(0).getCaloriesBurned()).isEqualTo(200);
+
+		List<ProgressPoint> weeks = userProgressService.series(userId, "week", MONDAY, NEXT_MONDAY).points();
+		assertThat(weeks).hasSize(2);
+		assertThat(weeks.get(0)).isEqualTo(new ProgressPoint(MONDAY, 2, 79f, 78.5f, 79.5f, 1800, 200));
+		assertThat(weeks.get(1)).isEqualTo(new ProgressPoint(NEXT_MONDAY, 1, 78f, 78f, 78f, 100, 50));
+
+		List<ProgressPoint> months = userProgressService.series(userId, "month", MONDAY, NEXT_MONDAY).points();
+		assertThat(months).containsExactly(
+				new ProgressPoint(MONDAY.withDayOfMonth(1), 3, 78.7f, 78f, 79.5f, 1900, 250));
+	}
+
+	// ===== Параллельные записи =====
+	@Test
+	void concurrentEntriesOfOneDayAreNotLost() throws Exception {
+		Long userId = user("concurrent@test.local");
+		LocalDate day = LocalDate.of(2025, 4, 7);
+
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		try {
+			List<Future<?>> futures = new ArrayList<>();
+			for (int t = 0; t < THREADS; t++) {
+				futures.add(executor.submit(() -> {
+					for (int i = 0; i < PER_THREAD; i++) {
+						userProgressService.record(userId, new ProgressEntry(day, null, 10, 1));
+					}
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get();   // ни одна запись не упала на уникальном индексе
+			}
+		} finally {
+			executor.shutdown();
+		}
+
+		int total = THREADS * PER_THREAD;
+		List<UserProgress> days = userProgressService.history(userId, day, day);
+		assertThat(days).hasSize(1);
+		assertThat(days.get(0).getCaloriesConsumed()).isEqualTo(total * 10);
+		assertThat(days.get(0).getCaloriesBurned()).isEqualTo(total);
+
+		assertThat(userProgressService.series(userId, "week", day, day).points())
+				.containsExactly(new ProgressPoint(day, 1, null, null, null, total * 10L, total));
+	}
+
+	// ===== Кольцо сводки =====
+	@Test
+	void summaryCountsEachCommittedDayOnce() {
+		Long userId = user("summary@test.local");
+		LocalDate today = LocalDate.now();
+
+		// Кольцо загружено до записей — дальше обновляется только после коммитов
+		assertThat(userProgressService.summary(userId).last7().daysLogged()).isZero();
+
+		userProgressService.record(userId, new ProgressEntry(today, 70f, 500, 100));
+		userProgressService.record(userId, new ProgressEntry(today, null, 500, null));
+		userProgressService.record(userId, new ProgressEntry(today.minusDays(1), 71f, 1500, 300));
+
+		ProgressSummary summary = userProgressService.summary(userId);
+		assertThat(summary.last7().daysLogged()).isEqualTo(2);
+		assertThat(summary.last7().weight()).isEqualTo(70.5);
+		assertThat(summary.last7().caloriesConsumed()).isEqualTo(1250.0);
+		assertThat(summary.last7().caloriesBurned()).isEqualTo(200.0);
+
+		// Перечитанное из БД кольцо совпадает с обновлённым на месте
+		userProgressService.forget(List.of(userId));
+		assertThat(userProgressService.summary(userId)).isEqualTo(summary);
+	}
+
+	@Test
+	void ringLoadedAcrossACommitIsNotPublishedStale() throws Exception {
+		Long userId = user("reload@test.local");
+		LocalDate today = LocalDate.now();
+
+		// Загрузка кольца прочитала дни и стоит, пока запись коммитится и ищет кольцо
+		UserProgressService target = AopTestUtils.getTargetObject(userProgressService);
+		UserProgressRepository repository =
+				(UserProgressRepository) ReflectionTestUtils.getField(target, "userProgressRepository");
+		UserProgressRepository paused = mock(UserProgressRepository.class, delegatesTo(repository));
+		CountDownLatch loaded = new CountDownLatch(1);
+		CountDownLatch committed = new CountDownLatch(1);
+		doAnswer(invocation -> {
+			List<UserProgress> days = repository.findByUserIdAndDateGreaterThanEqual(
+					invocation.getArgument(0), invocation.getArgument(1));
+			loaded.countDown();
+			assertThat(committed.await(10, TimeUnit.SECONDS)).isTrue();
+			return days;
+		}).when(paused).findByUserIdAndDateGreaterThanEqual(eq(userId), any());
+		ReflectionTestUtils.setField(target, "userProgressRepository", paused);
+
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			Future<ProgressSummary> reader = executor.submit(() -> userProgressService.summary(userId));
+			assertThat(loaded.await(10, TimeUnit.SECONDS)).as("загрузка кольца").isTrue();
+			userProgressService.record(userId, new ProgressEntry(today, 70f, 500, null));
+			committed.countDown();
+			reader.get(10, TimeUnit.SECONDS);
+		} finally {
+			executor.shutdown();
+			ReflectionTestUtils.setField(target, "userProgressRepository", repository);
+		}
+
+		// В кэше не осталось кольца без закоммиченного дня
+		assertThat(userProgressService.summary(userId).last7().caloriesConsumed()).isEqualTo(500.0);
+	}
+
+	private Long user(String email) {
+		return userRepository.save(new User("Прогресс", email, "x", "USER")).getId();
+	}
+}